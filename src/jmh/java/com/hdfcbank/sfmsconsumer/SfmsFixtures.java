@@ -0,0 +1,170 @@
+package com.hdfcbank.sfmsconsumer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Synthetic SFMS inward messages for the benchmarks, shaped like production traffic: a {@code {A:...}} block
+ * before the XML, an ISO 20022 AppHdr with a signature block, and a Document whose size grows with the number
+ * of transactions. Lines are separated by the literal {@code \n} escapes the transport leaves in the payload.
+ */
+public final class SfmsFixtures {
+
+    public static final String PACS008 = "pacs.008.001.09";
+
+    public static final String PACS002 = "pacs.002.001.11";
+
+    public static final String CAMT054 = "camt.054.001.08";
+
+    public static final String ADMI004 = "admi.004.001.02";
+
+    public static final String BATCH_ID = "NEFT2025091100017";
+
+    private static final String NEWLINE = "\\n";
+
+    private SfmsFixtures() {
+    }
+
+    /**
+     * Processor mapping from application.yml, in the same order.
+     */
+    public static Map<String, String> processors() {
+        Map<String, String> processors = new LinkedHashMap<>();
+        processors.put("pacs.008.001.09", "pacs008Processor");
+        processors.put("pacs.004.001.10", "pacs004Processor");
+        processors.put("pacs.002.001.11", "pacs002Processor");
+        processors.put("camt.052.001.08", "camt5254Processor");
+        processors.put("camt.054.001.08", "camt5254Processor");
+        processors.put("camt.059.001.06", "camt59Processor");
+        processors.put("admi.004.001.01", "admi004Processor");
+        processors.put("admi.004.001.02", "admi004Processor");
+        return processors;
+    }
+
+    /**
+     * Topic mapping from application.yml.
+     */
+    public static Map<String, String> topics() {
+        Map<String, String> topics = new LinkedHashMap<>();
+        topics.put("pacs008Processor", "neftil-pacs008-topic");
+        topics.put("pacs004Processor", "neftil-pacs004-topic");
+        topics.put("pacs002Processor", "neftil-pacs002-topic");
+        topics.put("camt5254Processor", "neftil-camt5254-topic");
+        topics.put("camt59Processor", "neftil-camt59-topic");
+        topics.put("admi004Processor", "neftil-admi004-topic");
+        return topics;
+    }
+
+    /**
+     * Batch id XPaths from application.yml.
+     */
+    public static Map<String, String> batchIdXPaths() {
+        Map<String, String> xpaths = new LinkedHashMap<>();
+        xpaths.put("pacs.008.001.09", "(.//*[local-name()='RmtInf']//*[local-name()='Ustrd'])[1]");
+        xpaths.put("pacs.004.001.10", "(.//*[local-name()='RmtInf']//*[local-name()='Ustrd'])[1]");
+        xpaths.put("pacs.002.001.11", "(.//*[local-name()='StsRsnInf']//*[local-name()='AddtlInf'])[1]");
+        xpaths.put("camt.052.001.08", ".//*[local-name()='GrpHdr']//*[local-name()='AddtlInf']");
+        xpaths.put("camt.054.001.08", ".//*[local-name()='GrpHdr']//*[local-name()='AddtlInf']");
+        return xpaths;
+    }
+
+    /**
+     * The raw request as posted to /process: SFMS block, then the XML.
+     */
+    public static String request(String fileType, int transactions) {
+        return "{A:CBSF01NEFTO" + fileType.substring(0, 4).toUpperCase() + "HDFC0000001RBIP0NEFTSC}" + xml(fileType, transactions);
+    }
+
+    /**
+     * The XML part of {@link #request}, one element per line.
+     */
+    public static String xml(String fileType, int transactions) {
+        StringBuilder xml = new StringBuilder(2048 + transactions * 900)
+                .append("<RequestPayload>").append(NEWLINE)
+                .append("<AppHdr xmlns=\"urn:iso:std:iso:20022:tech:xsd:head.001.001.02\"")
+                .append(" xmlns:sig=\"http://www.w3.org/2000/09/xmldsig#\">").append(NEWLINE)
+                .append("<Fr><FIId><FinInstnId><ClrSysMmbId><MmbId>RBIP0NEFTSC</MmbId></ClrSysMmbId></FinInstnId></FIId></Fr>")
+                .append(NEWLINE)
+                .append("<To><FIId><FinInstnId><ClrSysMmbId><MmbId>HDFC0000001</MmbId></ClrSysMmbId></FinInstnId></FIId></To>")
+                .append(NEWLINE)
+                .append("<BizMsgIdr>RBIP202509110000017</BizMsgIdr>").append(NEWLINE)
+                .append("<MsgDefIdr>").append(fileType).append("</MsgDefIdr>").append(NEWLINE)
+                .append("<BizSvc>NEFTFIToFICustomerCredit</BizSvc>").append(NEWLINE)
+                .append("<CreDt>2025-09-11T10:15:30Z</CreDt>").append(NEWLINE)
+                .append("<Sgntr><sig:XMLSgntrs>")
+                .append("MIIGxTCCBa2gAwIBAgIQB1nT0f7uJ1n3vC1Xl0h8QzANBgkqhkiG9w0BAQsFADBsMQswCQYDVQQGEwJJTjEX\\n")
+                .append("MBUGA1UEChMOZU11ZGhyYSBMaW1pdGVkMR0wGwYDVQQLExRDZXJ0aWZ5aW5nIEF1dGhvcml0eTElMCMG")
+                .append("</sig:XMLSgntrs></Sgntr>").append(NEWLINE)
+                .append("</AppHdr>").append(NEWLINE)
+                .append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:").append(fileType).append("\">").append(NEWLINE);
+        switch (fileType) {
+            case PACS008 -> pacs008(xml, transactions);
+            case PACS002 -> pacs002(xml, transactions);
+            case CAMT054 -> camt054(xml, transactions);
+            case ADMI004 -> admi004(xml);
+            default -> throw new IllegalArgumentException("No fixture for " + fileType);
+        }
+        return xml.append("</Document>").append(NEWLINE).append("</RequestPayload>").toString();
+    }
+
+    private static void pacs008(StringBuilder xml, int transactions) {
+        xml.append("<FIToFICstmrCdtTrf><GrpHdr><MsgId>RBIP202509110000017</MsgId>")
+                .append("<CreDtTm>2025-09-11T10:15:30</CreDtTm><NbOfTxs>").append(transactions).append("</NbOfTxs>")
+                .append("<SttlmInf><SttlmMtd>CLRG</SttlmMtd></SttlmInf></GrpHdr>").append(NEWLINE);
+        for (int i = 0; i < transactions; i++) {
+            xml.append("<CdtTrfTxInf><PmtId><EndToEndId>HDFCN52025091").append(i).append("</EndToEndId>")
+                    .append("<TxId>RBIP2025091100").append(i).append("</TxId></PmtId>")
+                    .append("<IntrBkSttlmAmt Ccy=\"INR\">").append(1000 + i).append(".50</IntrBkSttlmAmt>")
+                    .append("<ChrgBr>SLEV</ChrgBr>")
+                    .append("<Dbtr><Nm>Debtor Name ").append(i).append(" &amp; Co</Nm></Dbtr>")
+                    .append("<DbtrAcct><Id><Othr><Id>5010012345").append(i).append("</Id></Othr></Id></DbtrAcct>")
+                    .append("<DbtrAgt><FinInstnId><ClrSysMmbId><MmbId>SBIN0000001</MmbId></ClrSysMmbId></FinInstnId></DbtrAgt>")
+                    .append("<CdtrAgt><FinInstnId><ClrSysMmbId><MmbId>HDFC0000001</MmbId></ClrSysMmbId></FinInstnId></CdtrAgt>")
+                    .append("<Cdtr><Nm>Creditor Name ").append(i).append("</Nm></Cdtr>")
+                    .append("<CdtrAcct><Id><Othr><Id>5020098765").append(i).append("</Id></Othr></Id></CdtrAcct>")
+                    .append("<RmtInf><Ustrd>").append(BATCH_ID).append("</Ustrd></RmtInf></CdtTrfTxInf>")
+                    .append(NEWLINE);
+        }
+        xml.append("</FIToFICstmrCdtTrf>").append(NEWLINE);
+    }
+
+    private static void pacs002(StringBuilder xml, int transactions) {
+        xml.append("<FIToFIPmtStsRpt><GrpHdr><MsgId>RBIP202509110000017</MsgId>")
+                .append("<CreDtTm>2025-09-11T10:15:30</CreDtTm></GrpHdr>").append(NEWLINE);
+        for (int i = 0; i < transactions; i++) {
+            xml.append("<TxInfAndSts><OrgnlEndToEndId>HDFCN52025091").append(i).append("</OrgnlEndToEndId>")
+                    .append("<OrgnlTxId>RBIP2025091100").append(i).append("</OrgnlTxId>")
+                    .append("<TxSts>").append(i % 10 == 0 ? "RJCT" : "ACSC").append("</TxSts>")
+                    .append("<StsRsnInf><Rsn><Prtry>").append(i % 10 == 0 ? "AC01" : "0000").append("</Prtry></Rsn>")
+                    .append("<AddtlInf>").append(BATCH_ID).append("</AddtlInf></StsRsnInf>")
+                    .append("<OrgnlTxRef><IntrBkSttlmAmt Ccy=\"INR\">").append(1000 + i).append(".50</IntrBkSttlmAmt>")
+                    .append("<IntrBkSttlmDt>2025-09-11</IntrBkSttlmDt></OrgnlTxRef></TxInfAndSts>")
+                    .append(NEWLINE);
+        }
+        xml.append("</FIToFIPmtStsRpt>").append(NEWLINE);
+    }
+
+    private static void camt054(StringBuilder xml, int transactions) {
+        xml.append("<BkToCstmrDbtCdtNtfctn><GrpHdr><MsgId>RBIP202509110000017</MsgId>")
+                .append("<CreDtTm>2025-09-11T10:15:30</CreDtTm><AddtlInf>").append(BATCH_ID).append("</AddtlInf></GrpHdr>")
+                .append(NEWLINE)
+                .append("<Ntfctn><Id>NTF0001</Id><Acct><Id><Othr><Id>HDFC0000001</Id></Othr></Id></Acct>").append(NEWLINE);
+        for (int i = 0; i < transactions; i++) {
+            xml.append("<Ntry><Amt Ccy=\"INR\">").append(1000 + i).append(".50</Amt>")
+                    .append("<CdtDbtInd>").append(i % 2 == 0 ? "CRDT" : "DBIT").append("</CdtDbtInd>")
+                    .append("<Sts><Cd>BOOK</Cd></Sts><BookgDt><Dt>2025-09-11</Dt></BookgDt>")
+                    .append("<NtryDtls><TxDtls><Refs><EndToEndId>HDFCN52025091").append(i).append("</EndToEndId></Refs>")
+                    .append("<RltdPties><Dbtr><Pty><Nm>Debtor Name ").append(i).append("</Nm></Pty></Dbtr></RltdPties>")
+                    .append("</TxDtls></NtryDtls></Ntry>")
+                    .append(NEWLINE);
+        }
+        xml.append("</Ntfctn></BkToCstmrDbtCdtNtfctn>").append(NEWLINE);
+    }
+
+    private static void admi004(StringBuilder xml) {
+        // System event notifications carry no transactions; the size does not grow
+        xml.append("<SysEvtNtfctn><EvtInf><EvtCd>F27</EvtCd><EvtParam>NEFT</EvtParam>")
+                .append("<EvtDesc>Settlement batch ").append(BATCH_ID).append(" completed</EvtDesc>")
+                .append("<EvtTm>2025-09-11T10:15:30</EvtTm></EvtInf></SysEvtNtfctn>").append(NEWLINE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.hdfcbank.sfmsconsumer.controller;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BOM removal and the split of the SFMS block from the XML, the first step of every /process request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvelopeSplitBenchmark {
+
+    @Param({SfmsFixtures.PACS008, SfmsFixtures.PACS002, SfmsFixtures.CAMT054, SfmsFixtures.ADMI004})
+    public String fileType;
+
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private String request;
+
+    private String requestWithBom;
+
+    @Setup
+    public void setUp() {
+        request = SfmsFixtures.request(fileType, transactions);
+        requestWithBom = "\uFEFF" + request;
+    }
+
+    @Benchmark
+    public String[] removeBOM() {
+        return ProcessController.removeBOM(request);
+    }
+
+    @Benchmark
+    public String[] removeBOMWithBom() {
+        return ProcessController.removeBOM(requestWithBom);
+    }
+
+    @Benchmark
+    public String[] splitAtFirstTag() {
+        return ProcessController.splitAtFirstTag(request);
+    }
+}
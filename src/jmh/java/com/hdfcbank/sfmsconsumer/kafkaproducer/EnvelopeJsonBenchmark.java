@@ -0,0 +1,123 @@
+package com.hdfcbank.sfmsconsumer.kafkaproducer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.hdfcbank.sfmsconsumer.model.Body;
+import com.hdfcbank.sfmsconsumer.model.ExceptionDetail;
+import com.hdfcbank.sfmsconsumer.model.Header;
+import com.hdfcbank.sfmsconsumer.model.ReqPayload;
+import com.hdfcbank.sfmsconsumer.utils.ReqPayloadJson;
+import io.dapr.client.domain.CloudEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one inward message into the bytes handed to the Dapr sidecar. The {@code string*} benchmarks
+ * follow the original path (envelope JSON as a {@code String}, carried as a JSON string in CloudEvent data);
+ * {@code streaming*} writes the envelope straight to pooled UTF-8 bytes and, with raw data, embeds it unescaped.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports {@code gc.alloc.rate.norm} (bytes allocated per
+ * message) and {@code wireBytes / messages} is the size of the serialized CloudEvent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvelopeJsonBenchmark {
+
+    // Same mapper configuration as the SDK's DefaultObjectSerializer
+    private static final ObjectMapper DAPR_MAPPER = new ObjectMapper();
+
+    @Param({"1", "50", "500"})
+    public int transactions;
+
+    private ReqPayload reqPayload;
+
+    @Setup
+    public void setUp() {
+        reqPayload = ReqPayload.builder()
+                .header(Header.builder().msgId("RBIP202509110000001").msgType("pacs.008.001.09").source("SFMS")
+                        .target("pacs008Processor").flowType("INWARD").replayInd(false).replayCount(0)
+                        .prefix("{A:CBS}").status("CAPTURED").batchCreDt("2025-09-11T10:15:30Z")
+                        .batchId("BATCH0001").build())
+                .body(Body.builder().payload(pacs008(transactions)).build())
+                .exceptionDetail(ExceptionDetail.builder().build())
+                .build();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Wire {
+        public long wireBytes;
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wireBytes = 0;
+            messages = 0;
+        }
+    }
+
+    @Benchmark
+    public byte[] stringEnvelope(Wire wire) throws Exception {
+        CloudEvent<Object> event = new CloudEvent<>();
+        event.setData(ReqPayloadJson.write(reqPayload));
+        return count(wire, DAPR_MAPPER.writeValueAsBytes(event));
+    }
+
+    @Benchmark
+    public byte[] streamingEnvelopeStringData(Wire wire) throws Exception {
+        CloudEvent<Object> event = new CloudEvent<>();
+        event.setData(new String(ReqPayloadJson.writeUtf8(reqPayload), StandardCharsets.UTF_8));
+        return count(wire, DAPR_MAPPER.writeValueAsBytes(event));
+    }
+
+    @Benchmark
+    public byte[] streamingEnvelopeRawData(Wire wire) throws Exception {
+        CloudEvent<Object> event = new CloudEvent<>();
+        event.setData(new RawValue(new RawJsonData(ReqPayloadJson.writeUtf8(reqPayload))));
+        return count(wire, DAPR_MAPPER.writeValueAsBytes(event));
+    }
+
+    private static byte[] count(Wire wire, byte[] bytes) {
+        wire.wireBytes += bytes.length;
+        wire.messages++;
+        return bytes;
+    }
+
+    private static String pacs008(int transactions) {
+        StringBuilder xml = new StringBuilder(512 + transactions * 700)
+                .append("<RequestPayload><AppHdr xmlns=\"urn:iso:std:iso:20022:tech:xsd:head.001.001.02\">")
+                .append("<BizMsgIdr>RBIP202509110000001</BizMsgIdr><MsgDefIdr>pacs.008.001.09</MsgDefIdr>")
+                .append("<CreDt>2025-09-11T10:15:30Z</CreDt></AppHdr>")
+                .append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pacs.008.001.09\"><FIToFICstmrCdtTrf>")
+                .append("<GrpHdr><MsgId>RBIP202509110000001</MsgId><CreDtTm>2025-09-11T10:15:30</CreDtTm>")
+                .append("<NbOfTxs>").append(transactions).append("</NbOfTxs></GrpHdr>");
+        for (int i = 0; i < transactions; i++) {
+            xml.append("<CdtTrfTxInf><PmtId><EndToEndId>E2E").append(i).append("</EndToEndId>")
+                    .append("<TxId>TX").append(i).append("</TxId></PmtId>")
+                    .append("<IntrBkSttlmAmt Ccy=\"INR\">").append(1000 + i).append(".00</IntrBkSttlmAmt>")
+                    .append("<Dbtr><Nm>Debtor \"").append(i).append("\" &amp; Sons</Nm></Dbtr>")
+                    .append("<DbtrAcct><Id><Othr><Id>00012345678").append(i).append("</Id></Othr></Id></DbtrAcct>")
+                    .append("<Cdtr><Nm>Creditor ").append(i).append("</Nm></Cdtr>")
+                    .append("<CdtrAcct><Id><Othr><Id>00087654321").append(i).append("</Id></Othr></Id></CdtrAcct>")
+                    .append("<RmtInf><Ustrd>BATCH0001</Ustrd></RmtInf></CdtTrfTxInf>\n");
+        }
+        return xml.append("</FIToFICstmrCdtTrf></Document></RequestPayload>").toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import com.hdfcbank.sfmsconsumer.config.InvalidAndExceptionMsgTopic;
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the processor request JSON around the sanitized XML body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuildJsonReqBenchmark {
+
+    @Param({SfmsFixtures.PACS008, SfmsFixtures.PACS002, SfmsFixtures.CAMT054, SfmsFixtures.ADMI004})
+    public String fileType;
+
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private BuildJsonReq buildJsonReq;
+
+    private MessageEnvelope envelope;
+
+    @Setup
+    public void setUp() {
+        TargetProcessorTopicConfig config = new TargetProcessorTopicConfig();
+        config.setProcessor(SfmsFixtures.processors());
+        config.setTopic(SfmsFixtures.topics());
+        // KafkaUtils is only used to route a failed build to the exception topic
+        buildJsonReq = new BuildJsonReq(null, config, new InvalidAndExceptionMsgTopic());
+        envelope = MessageEnvelope.builder()
+                .prefix("{A:CBSF01NEFTO}")
+                .body(XmlSanitizer.sanitize(SfmsFixtures.xml(fileType, transactions)))
+                .msgId("RBIP202509110000017")
+                .msgType(fileType)
+                .batchId(SfmsFixtures.BATCH_ID)
+                .batchCreDt("2025-09-11T10:15:30Z")
+                .build();
+    }
+
+    @Benchmark
+    public String buildRequest() {
+        return buildJsonReq.buildRequest(envelope);
+    }
+
+    @Benchmark
+    public byte[] buildRequestJson() {
+        return buildJsonReq.buildRequestJson(envelope);
+    }
+}
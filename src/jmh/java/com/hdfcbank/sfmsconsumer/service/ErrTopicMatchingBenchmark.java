@@ -0,0 +1,64 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the processor for a payload that failed to parse, as ErrXmlRoutingService.determineTopic does.
+ * {@code lowercaseContains} is the lookup it used before {@link TargetProcessorTopicConfig#findProcessorIn}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrTopicMatchingBenchmark {
+
+    @Param({SfmsFixtures.PACS008, SfmsFixtures.PACS002, SfmsFixtures.CAMT054, SfmsFixtures.ADMI004})
+    public String fileType;
+
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private final TargetProcessorTopicConfig config = new TargetProcessorTopicConfig();
+
+    private String request;
+
+    @Setup
+    public void setUp() {
+        config.setProcessor(SfmsFixtures.processors());
+        config.setTopic(SfmsFixtures.topics());
+        // Truncated, as a malformed batch file often is
+        String full = SfmsFixtures.request(fileType, transactions);
+        request = full.substring(0, full.length() - 40);
+    }
+
+    @Benchmark
+    public Optional<Map.Entry<String, String>> findProcessorIn() {
+        return config.findProcessorIn(request);
+    }
+
+    @Benchmark
+    public Optional<Map.Entry<String, String>> lowercaseContains() {
+        String lowerMsg = request.toLowerCase();
+        return config.getProcessor().entrySet().stream()
+                .filter(e -> lowerMsg.contains(e.getKey().toLowerCase()))
+                .findFirst();
+    }
+}
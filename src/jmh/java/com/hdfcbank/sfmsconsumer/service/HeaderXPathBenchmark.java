@@ -0,0 +1,77 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import com.hdfcbank.sfmsconsumer.config.BatchIdXPathConfig;
+import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.BATCH_CREDT_XPATH;
+import static com.hdfcbank.sfmsconsumer.utils.Constants.MSGDEFIDR_XPATH;
+import static com.hdfcbank.sfmsconsumer.utils.Constants.MSGID_XPATH;
+
+/**
+ * Header and batch id extraction through XPath, on a document parsed once in setup and, for
+ * {@code extractFieldByFileTypeFromString}, including the parse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderXPathBenchmark {
+
+    @Param({SfmsFixtures.PACS008, SfmsFixtures.PACS002, SfmsFixtures.CAMT054, SfmsFixtures.ADMI004})
+    public String fileType;
+
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private final SfmsConsmrCommonUtility utility = new SfmsConsmrCommonUtility();
+
+    private BatchIdXmlFieldExtractor extractor;
+
+    private String xml;
+
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        BatchIdXPathConfig config = new BatchIdXPathConfig();
+        config.setXpaths(SfmsFixtures.batchIdXPaths());
+        extractor = new BatchIdXmlFieldExtractor(utility, config);
+        xml = XmlSanitizer.sanitize(SfmsFixtures.xml(fileType, transactions));
+        document = SfmsConsmrCommonUtility.toXmlDocument(xml);
+    }
+
+    @Benchmark
+    public void getValueByXPathHeader(Blackhole blackhole) throws Exception {
+        blackhole.consume(utility.getValueByXPath(document, MSGID_XPATH));
+        blackhole.consume(utility.getValueByXPath(document, MSGDEFIDR_XPATH));
+        blackhole.consume(utility.getValueByXPath(document, BATCH_CREDT_XPATH));
+    }
+
+    @Benchmark
+    public String extractFieldByFileType() throws Exception {
+        return extractor.extractFieldByFileType(document, fileType);
+    }
+
+    @Benchmark
+    public String extractFieldByFileTypeFromString() throws Exception {
+        return extractor.extractFieldByFileType(xml);
+    }
+}
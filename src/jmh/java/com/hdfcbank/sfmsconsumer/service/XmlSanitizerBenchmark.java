@@ -0,0 +1,56 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sanitizing the XML body: escaped line breaks removed, the signature block kept as it is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlSanitizerBenchmark {
+
+    @Param({SfmsFixtures.PACS008, SfmsFixtures.PACS002, SfmsFixtures.CAMT054, SfmsFixtures.ADMI004})
+    public String fileType;
+
+    @Param({"1", "100", "1000"})
+    public int transactions;
+
+    private String xml;
+
+    @Setup
+    public void setUp() {
+        xml = SfmsFixtures.xml(fileType, transactions);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return XmlSanitizer.sanitize(xml);
+    }
+
+    @Benchmark
+    public StringWriter sanitizeStreaming() throws IOException {
+        StringWriter out = new StringWriter(xml.length());
+        XmlSanitizer.sanitize(new StringReader(xml), out);
+        return out;
+    }
+}
@@ -0,0 +1,170 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stands in for the Dapr sidecar's pub/sub API, {@code POST /v1.0/publish/{pubsub}/{topic}}. Each publish is
+ * acked after the configured latency, or failed with a 500 at the configured rate, the way the sidecar reports
+ * a broker error. Acks are scheduled rather than slept on, so slow acks do not limit how many are outstanding.
+ * <p>
+ * Publishes are counted per topic and per {@code metadata.partitionKey}, which the consumer sets to the msgId.
+ */
+@Slf4j
+public class DaprSidecarStub implements AutoCloseable {
+
+    static final String PUBLISH_PATH = "/v1.0/publish/";
+
+    private static final byte[] PUBLISH_ERROR = ("{\"errorCode\":\"ERR_PUBSUB_PUBLISH_MESSAGE\","
+            + "\"message\":\"error injected by the load harness\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final Duration latency;
+
+    private final Duration jitter;
+
+    private final double errorRate;
+
+    private final HttpServer server;
+
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService acks = Executors.newScheduledThreadPool(2);
+
+    private final LongAdder publishes = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final Map<String, LongAdder> byTopic = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> byPartitionKey = new ConcurrentHashMap<>();
+
+    public DaprSidecarStub(Duration latency, Duration jitter, double errorRate) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext(PUBLISH_PATH, this::publish);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public URI baseUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public long publishes() {
+        return publishes.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public Map<String, Long> publishesByTopic() {
+        Map<String, Long> counts = new TreeMap<>();
+        byTopic.forEach((topic, count) -> counts.put(topic, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Number of messages by the number of publishes made for them, retries included.
+     */
+    public Map<Long, Long> messagesByPublishCount() {
+        Map<Long, Long> counts = new TreeMap<>();
+        byPartitionKey.values().forEach(count -> counts.merge(count.sum(), 1L, Long::sum));
+        return counts;
+    }
+
+    public void reset() {
+        publishes.reset();
+        failures.reset();
+        byTopic.clear();
+        byPartitionKey.clear();
+    }
+
+    private void publish(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        // /v1.0/publish/{pubsub}/{topic}
+        String[] path = exchange.getRequestURI().getPath().substring(PUBLISH_PATH.length()).split("/", 2);
+        if (!"POST".equals(exchange.getRequestMethod()) || path.length < 2) {
+            respond(exchange, 404, null);
+            return;
+        }
+        publishes.increment();
+        byTopic.computeIfAbsent(path[1], topic -> new LongAdder()).increment();
+        String partitionKey = queryParameter(exchange.getRequestURI(), "metadata.partitionKey");
+        if (partitionKey != null) {
+            byPartitionKey.computeIfAbsent(partitionKey, key -> new LongAdder()).increment();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean fail = errorRate > 0 && random.nextDouble() < errorRate;
+        long delay = latency.toNanos() + (jitter.isZero() ? 0 : random.nextLong(jitter.toNanos() + 1));
+        acks.schedule(() -> {
+            if (fail) {
+                failures.increment();
+                respond(exchange, 500, PUBLISH_ERROR);
+            } else {
+                respond(exchange, 204, null);
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) {
+        try {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        } catch (IOException e) {
+            log.warn("Stub sidecar could not answer {}: {}", exchange.getRequestURI(), e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        acks.shutdownNow();
+        handlers.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the statements the application runs against the database. With {@code pg_stat_statements} loaded, as it
+ * is in the embedded Postgres, counts are exact and per statement; otherwise only committed and rolled back
+ * transactions of the database are counted, which Postgres reports with up to a second of delay.
+ */
+@Slf4j
+class DbCallCounter {
+
+    private static final String STATEMENTS = """
+            SELECT query, calls FROM pg_stat_statements
+            WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())
+              AND query NOT ILIKE '%pg_stat%' AND query NOT LIKE 'SET application_name%'
+            ORDER BY calls DESC""";
+
+    private static final String TRANSACTIONS = """
+            SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()""";
+
+    private final DataSource dataSource;
+
+    private final boolean perStatement;
+
+    private long transactionsAtReset;
+
+    DbCallCounter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.perStatement = enableStatementStats();
+    }
+
+    boolean perStatement() {
+        return perStatement;
+    }
+
+    void reset() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (perStatement) {
+                statement.execute("SELECT pg_stat_statements_reset()");
+            } else {
+                transactionsAtReset = transactions(statement);
+            }
+        }
+    }
+
+    /**
+     * Calls since the last reset, by statement text, or under a single {@code transactions} key.
+     */
+    Map<String, Long> calls() throws SQLException {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (perStatement) {
+                try (ResultSet rows = statement.executeQuery(STATEMENTS)) {
+                    while (rows.next()) {
+                        calls.put(rows.getString(1).replaceAll("\\s+", " "), rows.getLong(2));
+                    }
+                }
+            } else {
+                // Our own two reads are transactions too
+                calls.put("transactions", transactions(statement) - transactionsAtReset - 2);
+            }
+        }
+        return calls;
+    }
+
+    private boolean enableStatementStats() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+            statement.executeQuery("SELECT count(*) FROM pg_stat_statements").close();
+            return true;
+        } catch (SQLException e) {
+            log.warn("pg_stat_statements unavailable, counting transactions instead: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static long transactions(Statement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery(TRANSACTIONS)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Posts to {@code /process} on a fixed schedule, open loop: a slow response does not delay the next post. Each
+ * latency is measured from the time the post was due, so time spent waiting for an in-flight slot, or behind a
+ * stalled driver, is counted rather than hidden.
+ */
+class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final URI process;
+
+    private final MessageMix mix;
+
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    LoadDriver(URI process, MessageMix mix, int maxInFlight) {
+        this.process = process;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    Result run(double rate, Duration duration) throws InterruptedException {
+        Recorder latencies = new Recorder(3);
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        Map<String, LongAdder> posted = new ConcurrentHashMap<>();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        long sent = 0;
+        for (long due = start; due < end; due = start + ++sent * interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            MessageMix.Message message = mix.next();
+            posted.computeIfAbsent(message.fileType() + (message.duplicate() ? " (duplicate)" : ""),
+                    key -> new LongAdder()).increment();
+            inFlight.acquire();
+            long scheduled = due;
+            HttpRequest request = HttpRequest.newBuilder(process)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "text/plain")
+                    .POST(HttpRequest.BodyPublishers.ofString(message.body()))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+                        outcomes.computeIfAbsent(outcome(response, error), key -> new LongAdder()).increment();
+                        inFlight.release();
+                    });
+        }
+        // Let the last posts finish
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        return new Result(sent, System.nanoTime() - start, latencies.getIntervalHistogram(), sums(posted), sums(outcomes));
+    }
+
+    private static String outcome(HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            return error.getClass().getSimpleName();
+        }
+        try {
+            JsonNode body = MAPPER.readTree(response.body());
+            return response.statusCode() + " " + body.path("status").asText("?");
+        } catch (IOException e) {
+            return response.statusCode() + " (unreadable body)";
+        }
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counts) {
+        Map<String, Long> sums = new TreeMap<>();
+        counts.forEach((key, count) -> sums.put(key, count.sum()));
+        return sums;
+    }
+
+    /**
+     * @param messages latencies in microseconds
+     */
+    record Result(long sent, long elapsedNanos, Histogram messages, Map<String, Long> posted,
+                  Map<String, Long> outcomes) {
+
+        double throughput() {
+            return sent * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+    }
+}
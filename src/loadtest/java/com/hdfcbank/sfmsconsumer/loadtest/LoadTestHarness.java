@@ -0,0 +1,180 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.hdfcbank.sfmsconsumer.SfmsConsumerApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the consumer end to end under load: the application itself, on Postgres and with its publishes answered
+ * by {@link DaprSidecarStub}, fed by {@link LoadDriver}. Run with {@code ./gradlew loadTest}; settings are the
+ * {@code loadtest.*} system properties in {@link LoadTestOptions}, e.g.
+ * {@code ./gradlew loadTest -Dloadtest.rate=200 -Dloadtest.dapr.error-rate=0.01}. Program arguments go to the
+ * application, e.g. {@code --args='--tracker.upsert-enabled=true'}; the imperative pipeline on virtual threads is
+ * compared with the reactive one by a second run with
+ * {@code --args='--pipeline.mode=IMPERATIVE --spring.threads.virtual.enabled=true'}.
+ * <p>
+ * Postgres is embedded, with the tables from {@code loadtest-schema.sql} and the scripts in {@code db/}, unless
+ * {@code loadtest.jdbc-url} names one already running, in which case the same scripts are applied to it.
+ * Reported per message: latency percentiles, throughput, the DB statements and publishes it caused, and the
+ * mean time of each pipeline stage.
+ */
+@Slf4j
+public class LoadTestHarness {
+
+    private static final String[] SCHEMA = {
+            "loadtest-schema.sql", "db/original-req-compressed.sql", "db/tracker-upsert-indexes.sql"};
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        EmbeddedPostgres embedded = null;
+        ConfigurableApplicationContext app = null;
+        try (DaprSidecarStub sidecar = new DaprSidecarStub(options.daprLatency(), options.daprJitter(),
+                options.daprErrorRate())) {
+            DataSource dataSource;
+            String jdbcUrl;
+            if (options.jdbcUrl() == null) {
+                embedded = EmbeddedPostgres.builder()
+                        .setServerConfig("shared_preload_libraries", "pg_stat_statements")
+                        .setServerConfig("max_connections", "200")
+                        .start();
+                dataSource = embedded.getPostgresDatabase();
+                jdbcUrl = embedded.getJdbcUrl("postgres", "postgres");
+            } else {
+                PGSimpleDataSource external = new PGSimpleDataSource();
+                external.setURL(options.jdbcUrl());
+                external.setUser(options.jdbcUser());
+                external.setPassword(options.jdbcPassword());
+                dataSource = external;
+                jdbcUrl = options.jdbcUrl();
+            }
+            applySchema(dataSource);
+            DbCallCounter dbCalls = new DbCallCounter(dataSource);
+
+            app = startApplication(args, options, jdbcUrl, sidecar.baseUri());
+            URI process = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/process");
+            LoadDriver driver = new LoadDriver(process,
+                    new MessageMix(options.mix(), options.transactions(), options.duplicateRatio()),
+                    options.maxInFlight());
+
+            if (!options.warmup().isZero()) {
+                log.info("Warming up for {} at {} msg/s", options.warmup(), options.rate());
+                driver.run(options.rate(), options.warmup());
+            }
+            dbCalls.reset();
+            sidecar.reset();
+            MeterRegistry registry = app.getBean(MeterRegistry.class);
+            StageTimes before = StageTimes.snapshot(registry);
+            log.info("Measuring for {} at {} msg/s", options.duration(), options.rate());
+            LoadDriver.Result result = driver.run(options.rate(), options.duration());
+            // Write-behind flushes, and the transaction counts Postgres reports late
+            Thread.sleep(1000);
+            report(options, app.getEnvironment(), result, dbCalls, sidecar, StageTimes.snapshot(registry).since(before));
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String[] args, LoadTestOptions options,
+                                                                   String jdbcUrl, URI sidecar) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.r2dbc.url", "r2dbc:" + jdbcUrl.substring("jdbc:".length()).replaceFirst("\\?.*", ""));
+        defaults.put("spring.r2dbc.username", options.jdbcUser());
+        defaults.put("spring.r2dbc.password", options.jdbcPassword());
+        // application.yml reads the port and root log level from these; the application logs every message at INFO
+        defaults.put("port", 0);
+        defaults.put("loglevel", "WARN");
+        // As in application-local.yml, so failed messages are published rather than dropped for want of a topic
+        defaults.put("kafka.exception-topic", "exception-topic");
+        defaults.put("kafka.default-invalid-msg-switch", "FC");
+        defaults.put("kafka.default-invalid-msg-topic", "fc-kafka-topic");
+        defaults.put("logging.level.com.hdfcbank.sfmsconsumer.loadtest", "INFO");
+        return new SpringApplicationBuilder(SfmsConsumerApplication.class)
+                .properties(defaults)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(
+                        SidecarHttpDaprProducer.class, () -> new SidecarHttpDaprProducer(sidecar),
+                        definition -> definition.setPrimary(true)))
+                .run(args);
+    }
+
+    private static void applySchema(DataSource dataSource) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String script : SCHEMA) {
+                String sql = new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8);
+                for (String part : sql.split(";")) {
+                    String command = part.lines().filter(line -> !line.startsWith("--")).collect(Collectors.joining("\n")).trim();
+                    if (!command.isEmpty()) {
+                        statement.execute(command);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void report(LoadTestOptions options, Environment environment, LoadDriver.Result result,
+                               DbCallCounter dbCalls, DaprSidecarStub sidecar, StageTimes stages) throws SQLException {
+        Histogram latency = result.messages();
+        long sent = Math.max(result.sent(), 1);
+        Map<String, Long> statements = dbCalls.calls();
+        long dbTotal = statements.values().stream().mapToLong(Long::longValue).sum();
+
+        StringBuilder report = new StringBuilder("\n=== /process load test ===\n")
+                .append(String.format("target rate      %.1f msg/s for %s, %d transactions, %.0f%% duplicates%n",
+                        options.rate(), options.duration(), options.transactions(), options.duplicateRatio() * 100))
+                .append(String.format("sidecar          %s latency + up to %s, %.2f%% errors%n",
+                        options.daprLatency(), options.daprJitter(), options.daprErrorRate() * 100))
+                .append(String.format("pipeline         %s, virtual threads %s, on Java %s%n",
+                        environment.getProperty("pipeline.mode"),
+                        environment.getProperty("spring.threads.virtual.enabled"), Runtime.version().feature()))
+                .append(String.format("completed        %d in %.1f s, %.1f msg/s%n",
+                        result.sent(), result.elapsedNanos() / 1e9, result.throughput()))
+                .append(String.format("latency ms       p50 %.2f  p99 %.2f  p999 %.2f  max %.2f%n",
+                        latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+                        latency.getValueAtPercentile(99.9) / 1e3, latency.getMaxValue() / 1e3));
+        report.append("posted\n");
+        result.posted().forEach((type, count) -> report.append(String.format("  %-40s %d%n", type, count)));
+        report.append("responses\n");
+        result.outcomes().forEach((outcome, count) -> report.append(String.format("  %-40s %d%n", outcome, count)));
+
+        report.append(String.format("publishes        %d, %.2f per message, %d failed by the stub%n",
+                sidecar.publishes(), sidecar.publishes() / (double) sent, sidecar.failures()));
+        sidecar.publishesByTopic().forEach((topic, count) -> report.append(String.format("  %-40s %d%n", topic, count)));
+        sidecar.messagesByPublishCount().forEach((calls, messages) ->
+                report.append(String.format("  messages published %d time(s)%21s %d%n", calls, "", messages)));
+
+        report.append(String.format("db %-13s %d, %.2f per message%n",
+                dbCalls.perStatement() ? "statements" : "transactions", dbTotal, dbTotal / (double) sent));
+        if (dbCalls.perStatement()) {
+            statements.forEach((sql, calls) -> report.append(String.format("  %8d  %.2f/msg  %s%n",
+                    calls, calls / (double) sent, sql.length() > 100 ? sql.substring(0, 100) + "..." : sql)));
+        }
+        report.append("stages           count, mean ms\n");
+        stages.byStage().forEach((stage, totals) -> report.append(String.format("  %-40s %d  %.3f%n",
+                stage, totals.count(), totals.meanMillis())));
+        log.info(report.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code loadtest.*} system properties. Durations take the same forms as
+ * application.yml ({@code 500ms}, {@code 2m}).
+ *
+ * @param rate           messages posted per second, on a fixed schedule whatever the response times
+ * @param warmup         time driven before measuring; its messages, DB and publish calls are not reported
+ * @param duration       measured time
+ * @param transactions   transactions per pacs/camt message
+ * @param mix            relative weight of each message type
+ * @param duplicateRatio share of posts that resend an earlier message as it was
+ * @param maxInFlight    posts outstanding at once; later ones wait, and the wait counts in their latency
+ * @param daprLatency    time the stub sidecar takes to ack a publish
+ * @param daprJitter     random extra ack time, up to this much
+ * @param daprErrorRate  share of publishes the stub sidecar fails with a 500
+ * @param jdbcUrl        an existing Postgres to use instead of the embedded one, e.g. a local binary
+ * @param jdbcUser       user for {@code jdbcUrl}
+ * @param jdbcPassword   password for {@code jdbcUrl}
+ */
+public record LoadTestOptions(double rate, Duration warmup, Duration duration, int transactions,
+                              Map<String, Integer> mix, double duplicateRatio, int maxInFlight,
+                              Duration daprLatency, Duration daprJitter, double daprErrorRate,
+                              String jdbcUrl, String jdbcUser, String jdbcPassword) {
+
+    private static final String PREFIX = "loadtest.";
+
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Double.parseDouble(property("rate", "50")),
+                duration("warmup", "10s"),
+                duration("duration", "60s"),
+                Integer.parseInt(property("transactions", "10")),
+                mix(property("mix", SfmsFixtures.PACS008 + ":5," + SfmsFixtures.PACS002 + ":2,"
+                        + SfmsFixtures.CAMT054 + ":2," + SfmsFixtures.ADMI004 + ":1")),
+                Double.parseDouble(property("duplicate-ratio", "0.05")),
+                Integer.parseInt(property("max-in-flight", "512")),
+                duration("dapr.latency", "2ms"),
+                duration("dapr.jitter", "0ms"),
+                Double.parseDouble(property("dapr.error-rate", "0")),
+                property("jdbc-url", null),
+                property("jdbc-user", "postgres"),
+                property("jdbc-password", "postgres"));
+    }
+
+    /**
+     * {@code pacs.008.001.09:5,admi.004.001.02:1}; a type without a weight counts once.
+     */
+    static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return mix;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(property(name, defaultValue));
+    }
+}
@@ -0,0 +1,66 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.hdfcbank.sfmsconsumer.SfmsFixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Requests for the harness to post: the benchmark fixtures, drawn by weight, each with a msgId of its own, and
+ * now and then one of the recent requests again as a duplicate. Used from the driving thread only.
+ */
+class MessageMix {
+
+    // The msgId the fixtures carry, in AppHdr and GrpHdr
+    private static final String FIXTURE_MSG_ID = "RBIP202509110000017";
+
+    private static final int RECENT = 1024;
+
+    private final List<String> fileTypes = new ArrayList<>();
+
+    private final List<String> templates = new ArrayList<>();
+
+    private final int[] cumulativeWeights;
+
+    private final double duplicateRatio;
+
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36).toUpperCase();
+
+    private final Message[] recent = new Message[RECENT];
+
+    private long sequence;
+
+    MessageMix(Map<String, Integer> weights, int transactions, double duplicateRatio) {
+        this.cumulativeWeights = new int[weights.size()];
+        this.duplicateRatio = duplicateRatio;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            cumulativeWeights[fileTypes.size()] = total;
+            fileTypes.add(entry.getKey());
+            templates.add(SfmsFixtures.request(entry.getKey(), transactions));
+        }
+    }
+
+    Message next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (sequence > 0 && random.nextDouble() < duplicateRatio) {
+            Message original = recent[random.nextInt((int) Math.min(sequence, RECENT))];
+            return new Message(original.fileType(), original.msgId(), original.body(), true);
+        }
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int type = 0;
+        while (cumulativeWeights[type] <= pick) {
+            type++;
+        }
+        String msgId = "LT" + runId + String.format("%012d", sequence);
+        Message message = new Message(fileTypes.get(type), msgId, templates.get(type).replace(FIXTURE_MSG_ID, msgId), false);
+        recent[(int) (sequence++ % RECENT)] = message;
+        return message;
+    }
+
+    record Message(String fileType, String msgId, String body, boolean duplicate) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hdfcbank.messageconnect.dapr.producer.DaprProducer;
+import io.dapr.client.domain.CloudEvent;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * {@link DaprProducer} that publishes through the sidecar's HTTP pub/sub API, so the harness can point it at
+ * {@link DaprSidecarStub}. The CloudEvent is sent as {@code application/cloudevents+json} and the metadata as
+ * {@code metadata.*} query parameters, as the sidecar expects; a non-2xx answer fails the publish, which is what
+ * KafkaUtils' timeout and retry handle.
+ */
+public class SidecarHttpDaprProducer extends DaprProducer {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    private final URI sidecar;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    public SidecarHttpDaprProducer(URI sidecar) {
+        this.sidecar = sidecar;
+    }
+
+    @Override
+    public Mono<Void> invokeDaprPublishEvent(CloudEvent event, Map<String, String> metadata) {
+        if (event.getPubsubName() == null || event.getTopic() == null) {
+            return Mono.error(new IllegalArgumentException("CloudEvent " + event.getId() + " has no pubsub name or topic"));
+        }
+        return Mono.fromCallable(() -> HttpRequest.newBuilder(publishUri(event.getPubsubName(), event.getTopic(), metadata))
+                        .header("Content-Type", "application/cloudevents+json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(event)))
+                        .build())
+                .flatMap(request -> Mono.fromFuture(() -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString())))
+                .flatMap(response -> response.statusCode() / 100 == 2 ? Mono.<Void>empty()
+                        : Mono.error(new IllegalStateException("Sidecar answered " + response.statusCode()
+                        + ": " + response.body())));
+    }
+
+    private URI publishUri(String pubsubName, String topic, Map<String, String> metadata) {
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        metadata.forEach((key, value) -> query.add(encode("metadata." + key) + "=" + encode(value)));
+        return sidecar.resolve(DaprSidecarStub.PUBLISH_PATH + encode(pubsubName) + "/" + encode(topic) + query);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
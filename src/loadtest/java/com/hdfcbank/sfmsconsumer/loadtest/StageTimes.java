@@ -0,0 +1,47 @@
+package com.hdfcbank.sfmsconsumer.loadtest;
+
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application's {@code sfms.process.stage} timers summed per stage and outcome, so the time spent between two
+ * snapshots can be split into parsing, database and sidecar.
+ */
+record StageTimes(Map<String, Totals> byStage) {
+
+    static StageTimes snapshot(MeterRegistry registry) {
+        Map<String, Totals> byStage = new TreeMap<>();
+        for (Timer timer : registry.find(PipelineMetrics.STAGE_TIMER).timers()) {
+            String key = timer.getId().getTag("stage") + " " + timer.getId().getTag("outcome");
+            byStage.merge(key, new Totals(timer.count(), timer.totalTime(TimeUnit.NANOSECONDS)), Totals::plus);
+        }
+        return new StageTimes(byStage);
+    }
+
+    StageTimes since(StageTimes earlier) {
+        Map<String, Totals> byStage = new TreeMap<>();
+        byStage().forEach((key, totals) -> {
+            Totals before = earlier.byStage().getOrDefault(key, new Totals(0, 0));
+            if (totals.count() > before.count()) {
+                byStage.put(key, new Totals(totals.count() - before.count(), totals.nanos() - before.nanos()));
+            }
+        });
+        return new StageTimes(byStage);
+    }
+
+    record Totals(long count, double nanos) {
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, nanos + other.nanos);
+        }
+
+        double meanMillis() {
+            return nanos / count / 1e6;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- Tables the consumer writes to, with the columns its queries use, for the load harness only.
+-- db/original-req-compressed.sql and db/tracker-upsert-indexes.sql are applied on top.
+
+CREATE SCHEMA IF NOT EXISTS network_il;
+
+CREATE TABLE IF NOT EXISTS network_il.msg_event_tracker (
+    msg_id varchar, source varchar, target varchar, batch_id varchar, flow_type varchar, msg_type varchar,
+    original_req text, invalid_msg boolean, bypass_enabled boolean, replay_count int, original_req_count int,
+    consolidate_amt numeric, intermediate_req text, intemdiate_count int, status varchar,
+    batch_creation_date timestamp, batch_timestamp timestamp, created_time timestamp, modified_timestamp timestamp,
+    version numeric);
+
+CREATE TABLE IF NOT EXISTS network_il.batch_tracker (
+    batch_id varchar, msg_id varchar, msg_type varchar, status varchar, replay_count int,
+    created_time timestamp, modified_timestamp timestamp);
+
+CREATE TABLE IF NOT EXISTS network_il.admi004_tracker (
+    msg_id varchar, msg_type varchar, original_req text, target varchar, replay_count int, status varchar,
+    invalid_msg boolean, bypass_enabled boolean, batch_creation_date timestamp, batch_timestamp timestamp,
+    version numeric, created_time timestamp, modified_timestamp timestamp);
+
+CREATE TABLE IF NOT EXISTS network_il.invalid_payload (
+    msg_id varchar, msg_type varchar, original_req text, by_pass_enabled boolean, target varchar,
+    created_time timestamp);
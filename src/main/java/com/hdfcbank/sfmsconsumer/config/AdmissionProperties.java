@@ -0,0 +1,65 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    public static final String OTHER = "other";
+
+    /**
+     * Limit of "other" when the limits leave it out.
+     */
+    public static final int DEFAULT_OTHER_LIMIT = 4;
+
+    /**
+     * Limit the messages in flight between validation and response per MsgDefIdr family, and answer 503 to a
+     * message whose family is at its limit.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Limit per family, the MsgDefIdr up to its first dot (pacs, camt, admi); families not listed share "other".
+     * With AIMD these are the starting limits.
+     */
+    private Map<String, Integer> limits = new LinkedHashMap<>(Map.of("pacs", 16, "camt", 8, "admi", 4, OTHER, DEFAULT_OTHER_LIMIT));
+
+    private Adaptive adaptive = new Adaptive();
+
+    @Getter
+    @Setter
+    public static class Adaptive {
+
+        /**
+         * FIXED keeps the configured limits; AIMD adds one while a family's messages complete within
+         * latency-threshold and multiplies by backoff-ratio when one is slower or fails.
+         */
+        public enum Mode {
+            FIXED,
+            AIMD
+        }
+
+        private Mode mode = Mode.FIXED;
+
+        /**
+         * Audit, publish and status update of one message, from admission to response.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        private double backoffRatio = 0.9;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 64;
+    }
+}
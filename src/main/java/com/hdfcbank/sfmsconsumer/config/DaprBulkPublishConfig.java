@@ -0,0 +1,38 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import io.dapr.client.DaprClientBuilder;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.config.Properties;
+import io.dapr.config.Property;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "dapr.publish.bulk", name = "enabled", havingValue = "true")
+public class DaprBulkPublishConfig {
+
+    // Bulk publish is only exposed on the preview client in dapr-sdk 1.14
+    @Bean(destroyMethod = "close")
+    public DaprPreviewClient daprPreviewClient(DaprSidecarProperties sidecar) {
+        return new DaprClientBuilder().withPropertyOverrides(overrides(sidecar)).buildPreviewClient();
+    }
+
+    static Map<Property<?>, String> overrides(DaprSidecarProperties sidecar) {
+        Map<Property<?>, String> overrides = new HashMap<>();
+        overrides.put(Properties.SIDECAR_IP, sidecar.getHost());
+        overrides.put(Properties.HTTP_PORT, Integer.toString(sidecar.getHttpPort()));
+        overrides.put(Properties.GRPC_PORT, Integer.toString(sidecar.getGrpcPort()));
+        if (StringUtils.hasText(sidecar.getGrpcEndpoint())) {
+            overrides.put(Properties.GRPC_ENDPOINT, sidecar.getGrpcEndpoint());
+        }
+        if (StringUtils.hasText(sidecar.getApiToken())) {
+            overrides.put(Properties.API_TOKEN, sidecar.getApiToken());
+        }
+        return overrides;
+    }
+}
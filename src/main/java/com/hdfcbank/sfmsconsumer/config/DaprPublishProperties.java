@@ -0,0 +1,68 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "dapr.publish")
+public class DaprPublishProperties {
+
+    /**
+     * Maximum time to wait for the sidecar to acknowledge a single publish attempt.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Retries after the first failed attempt; 0 disables retry.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * First retry delay, doubled (with jitter) on every further retry.
+     */
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    /**
+     * Put the processor JSON envelope into CloudEvent data as a JSON value instead of a JSON string, which avoids
+     * escaping it a second time. Consumers must then read data as an object.
+     */
+    private boolean rawJsonData = false;
+
+    private Bulk bulk = new Bulk();
+
+    @Getter
+    @Setter
+    public static class Bulk {
+
+        /**
+         * Group events per topic and send them through the sidecar bulk-publish API.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Events sent in one bulk request at most.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * How long the first event of a batch may wait for more events before the batch is sent.
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * Bulk requests in flight per topic.
+         */
+        private int maxInFlight = 4;
+
+        /**
+         * How long shutdown waits for queued events to be sent.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+}
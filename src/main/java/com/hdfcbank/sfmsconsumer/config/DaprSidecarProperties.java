@@ -0,0 +1,33 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Where the Dapr sidecar listens. Defaults come from the variables the sidecar injector sets, which are also what
+ * the message-connect producer's Dapr client reads, so clients built here talk to the same sidecar.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "dapr.sidecar")
+public class DaprSidecarProperties {
+
+    private String host = "127.0.0.1";
+
+    private int httpPort = 3500;
+
+    private int grpcPort = 50001;
+
+    /**
+     * Full gRPC endpoint, e.g. {@code https://dapr.example:443}; overrides host and grpc-port when set.
+     */
+    private String grpcEndpoint;
+
+    /**
+     * Sent as {@code dapr-api-token} when the sidecar requires one.
+     */
+    private String apiToken;
+}
@@ -0,0 +1,51 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "duplicate-cache")
+public class DuplicateCacheProperties {
+
+    /**
+     * OFF never consults the cache, VERIFY still goes to the database and counts whether the cache
+     * would have given the same answer, ENFORCE answers known forwarded repeats from the cache.
+     */
+    public enum Mode {
+        OFF,
+        VERIFY,
+        ENFORCE
+    }
+
+    private Mode mode = Mode.OFF;
+
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(15);
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
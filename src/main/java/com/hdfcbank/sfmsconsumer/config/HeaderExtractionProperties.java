@@ -0,0 +1,29 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "header-extraction")
+public class HeaderExtractionProperties {
+
+    /**
+     * STREAMING reads AppHdr and the batch id in one StAX pass without a DOM,
+     * XPATH keeps the DOM + XPath evaluation, COMPARE runs both and logs any difference.
+     */
+    public enum Mode {
+        STREAMING,
+        XPATH,
+        COMPARE
+    }
+
+    private Mode mode = Mode.STREAMING;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "intake")
+public class IntakeProperties {
+
+    /**
+     * STRING binds the /process body as a String and splits it into copies, BYTES keeps the UTF-8 bytes and
+     * hands the parsers the body region in place. A request declaring another charset always takes STRING.
+     */
+    public enum Mode {
+        STRING,
+        BYTES
+    }
+
+    private Mode mode = Mode.STRING;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
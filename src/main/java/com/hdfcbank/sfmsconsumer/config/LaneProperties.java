@@ -0,0 +1,66 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "lanes")
+public class LaneProperties {
+
+    /**
+     * Run each message after validation in the lane of its processor, with the lane's own threads, database
+     * statements and publishes, so a lane of small messages is not queued behind a saturated bulk lane.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The lane of every processor not listed in another lane.
+     */
+    private String defaultLane = "bulk";
+
+    private Map<String, Lane> definitions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Lane {
+
+        /**
+         * Processors, as in file-type.processor, whose messages take this lane.
+         */
+        private List<String> processors = new ArrayList<>();
+
+        /**
+         * Threads for the lane's audit and post-audit work; 0 means one per available processor.
+         */
+        private int threads = 0;
+
+        /**
+         * Messages of the lane waiting for a database permit at most, and again for a publish permit; also the tasks
+         * held by each of the lane's threads, the running one included. One more is answered 503 BUSY.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * Database statements of the lane running at once: audits, SEND_TO_PROCESSOR updates and the writes of the
+         * error route, each holding at most one pooled connection. The lanes together should stay below
+         * spring.r2dbc.pool.max-size, so that each keeps its slice of the pool; bypass traffic and the
+         * tracker.write-behind flushes are outside every lane and need the rest.
+         */
+        private int dbConnections = 4;
+
+        /**
+         * Publishes of the lane running at once. The permit also covers the status update that follows, unless
+         * tracker.write-behind is on; then the update is queued for the writer and the permit is released first.
+         */
+        private int publishConcurrency = 16;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "original-req")
+public class OriginalReqStorageProperties {
+
+    /**
+     * Write original_req as LZ4 into the original_req_bin bytea column and leave original_req NULL.
+     * Requires db/original-req-compressed.sql.
+     */
+    private boolean compressed = false;
+
+    /**
+     * Payloads shorter than this (UTF-8 bytes) are stored uncompressed behind the format marker.
+     */
+    private int minCompressSize = 512;
+}
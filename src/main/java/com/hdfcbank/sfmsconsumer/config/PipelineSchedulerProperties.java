@@ -0,0 +1,95 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "pipeline")
+public class PipelineSchedulerProperties {
+
+    /**
+     * REACTIVE chains the stages of /process as Monos, IMPERATIVE runs them one after the other on the request
+     * thread, meant for spring.threads.virtual.enabled on Java 21.
+     */
+    public enum Mode {
+        REACTIVE,
+        IMPERATIVE
+    }
+
+    private Mode mode = Mode.REACTIVE;
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    /**
+     * Sent as Retry-After with a 503 for a request that was turned away, rounded up to whole seconds. Falls back
+     * to the older pipeline.parsing.retry-after, then to one second.
+     */
+    private Duration retryAfter;
+
+    private Parsing parsing = new Parsing();
+
+    private Publish publish = new Publish();
+
+    public Duration getRetryAfter() {
+        if (retryAfter != null) {
+            return retryAfter;
+        }
+        return parsing.getRetryAfter() != null ? parsing.getRetryAfter() : DEFAULT_RETRY_AFTER;
+    }
+
+    @Getter
+    @Setter
+    public static class Parsing {
+
+        /**
+         * Validate and audit on a dedicated CPU-sized pool instead of the servlet thread, and answer 503 when its
+         * queue is full. REACTIVE mode only.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Parsing threads; 0 means one per available processor.
+         */
+        private int threads = 0;
+
+        /**
+         * Requests waiting for a parsing thread at most; one more is rejected.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * Superseded by pipeline.retry-after, still read when that is not set.
+         */
+        private Duration retryAfter;
+
+        @Deprecated
+        @DeprecatedConfigurationProperty(replacement = "pipeline.retry-after")
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Publish {
+
+        /**
+         * CALLER subscribes the sidecar publish on the thread that reaches it, BOUNDED_ELASTIC on Reactor's bounded
+         * elastic pool, VIRTUAL on a new virtual thread per publish (Java 21).
+         */
+        public enum Executor {
+            CALLER,
+            BOUNDED_ELASTIC,
+            VIRTUAL
+        }
+
+        private Executor executor = Executor.CALLER;
+    }
+}
@@ -1,9 +1,16 @@
 package com.hdfcbank.sfmsconsumer.config;
 
+import com.hdfcbank.sfmsconsumer.utils.KeywordMatcher;
+import jakarta.annotation.PostConstruct;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Component
 @ConfigurationProperties(prefix = "file-type")
@@ -13,6 +20,12 @@ public class TargetProcessorTopicConfig {
 
     private Map<String, String> topic;
 
+    private volatile ProcessorMatcher processorMatcher;
+
+    private record ProcessorMatcher(Map<String, String> source, List<Map.Entry<String, String>> entries,
+                                    KeywordMatcher matcher) {
+    }
+
     public Map<String, String> getTopic() {
         return topic;
     }
@@ -27,6 +40,57 @@ public class TargetProcessorTopicConfig {
 
     public void setProcessor(Map<String, String> processor) {
         this.processor = processor;
+        this.processorMatcher = null;
+    }
+
+    @PostConstruct
+    void buildProcessorMatcher() {
+        processorMatcher();
+    }
+
+    /**
+     * Finds the first processor entry, in configuration order, whose MsgDefIdr key occurs anywhere in the
+     * message, ignoring case. One pass over the message whatever the number of keys.
+     */
+    public Optional<Map.Entry<String, String>> findProcessorIn(String message) {
+        ProcessorMatcher current = processorMatcher();
+        if (current == null) {
+            return Optional.empty();
+        }
+        int index = current.matcher().firstKeywordIn(message);
+        return index < 0 ? Optional.empty() : Optional.of(current.entries().get(index));
+    }
+
+    private ProcessorMatcher processorMatcher() {
+        Map<String, String> source = processor;
+        if (source == null) {
+            return null;
+        }
+        ProcessorMatcher current = processorMatcher;
+        if (current == null || current.source() != source || !sameEntries(current.entries(), source)) {
+            // Copies, so an entry changed in place is seen as a change
+            List<Map.Entry<String, String>> entries = new ArrayList<>(source.size());
+            source.forEach((key, value) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(key, value)));
+            current = new ProcessorMatcher(source, entries,
+                    KeywordMatcher.of(entries.stream().map(Map.Entry::getKey).toList()));
+            processorMatcher = current;
+        }
+        return current;
+    }
+
+    // Same keys and values in the same order; order decides which key wins
+    private static boolean sameEntries(List<Map.Entry<String, String>> entries, Map<String, String> source) {
+        if (entries.size() != source.size()) {
+            return false;
+        }
+        int i = 0;
+        for (Map.Entry<String, String> entry : source.entrySet()) {
+            Map.Entry<String, String> built = entries.get(i++);
+            if (!Objects.equals(built.getKey(), entry.getKey()) || !Objects.equals(built.getValue(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public String getProcessorFileType(String fileType) {
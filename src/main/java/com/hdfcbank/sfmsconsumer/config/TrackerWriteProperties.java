@@ -0,0 +1,86 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "tracker")
+public class TrackerWriteProperties {
+
+    /**
+     * Write tracker rows with one INSERT ... ON CONFLICT statement instead of SELECT then INSERT.
+     * Requires the unique indexes in db/tracker-upsert-indexes.sql.
+     */
+    private boolean upsertEnabled = false;
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private BatchInsert batchInsert = new BatchInsert();
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        /**
+         * Queue SEND_TO_PROCESSOR updates and apply them in set-based statements instead of one UPDATE per message.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Updates applied in one flush at most.
+         */
+        private int maxBatchSize = 200;
+
+        /**
+         * How long the first queued update may wait for more updates before the batch is flushed.
+         */
+        private Duration flushInterval = Duration.ofMillis(50);
+
+        /**
+         * Time allowed for the statements of one flush.
+         */
+        private Duration statementTimeout = Duration.ofSeconds(5);
+
+        /**
+         * How long shutdown waits for queued updates to be written.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class BatchInsert {
+
+        /**
+         * Collect concurrent msg_event_tracker audits and write them as one multi-row upsert.
+         * Only used together with upsert-enabled.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Messages written in one statement at most.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * How long the first audit of a batch may wait for more before the batch is written.
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * Batch statements in flight; each holds one pooled connection.
+         */
+        private int maxInFlight = 4;
+
+        /**
+         * How long shutdown waits for queued audits to be written.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+}
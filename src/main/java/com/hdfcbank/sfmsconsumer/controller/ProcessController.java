@@ -3,32 +3,42 @@ package com.hdfcbank.sfmsconsumer.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hdfcbank.sfmsconsumer.config.IntakeProperties;
+import com.hdfcbank.sfmsconsumer.config.PipelineSchedulerProperties;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import com.hdfcbank.sfmsconsumer.model.RawRequest;
 import com.hdfcbank.sfmsconsumer.model.Response;
 import com.hdfcbank.sfmsconsumer.service.*;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics.Stage;
+import com.hdfcbank.sfmsconsumer.utils.PipelineSchedulers;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
-import org.xml.sax.helpers.DefaultHandler;
 import reactor.core.publisher.Mono;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayInputStream;
+import javax.xml.xpath.XPathExpressionException;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestController
@@ -46,6 +56,27 @@ public class ProcessController {
     @Autowired
     private BypassService bypassService;
 
+    @Autowired
+    private MessageEnvelopeParser messageEnvelopeParser;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private IntakeProperties intakeProperties;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    @Autowired
+    private PipelineSchedulerProperties pipelineProperties;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
     @CrossOrigin
     @GetMapping("/healthz")
     public ResponseEntity<String> healthz() {
@@ -58,56 +89,169 @@ public class ProcessController {
         return ResponseEntity.ok("Success");
     }
 
+    /**
+     * Takes the body as bytes. With {@code intake.mode=BYTES} a UTF-8 body is split and parsed in place, see
+     * {@link RawRequest}; otherwise it is decoded, in the declared charset or UTF-8, and processed as a String.
+     */
     @CrossOrigin
     @PostMapping("/process")
-    public Mono<ResponseEntity<Response>> process(@RequestBody String request) {
+    public Mono<ResponseEntity<Response>> process(@RequestBody byte[] request, @RequestHeader HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8;
+        if (intakeProperties.getMode() == IntakeProperties.Mode.BYTES && StandardCharsets.UTF_8.equals(charset)) {
+            RawRequest rawRequest = RawRequest.of(request);
+            return process(() -> validateXml(rawRequest));
+        }
+        return process(new String(request, charset));
+    }
+
+    public Mono<ResponseEntity<Response>> process(String request) {
+        return process(() -> validateXml(request));
+    }
+
+    private Mono<ResponseEntity<Response>> process(Callable<MessageEnvelope> intake) {
         log.info("....Processing Started....");
 
-        return Mono.fromCallable(() -> validateXml(request))
-                .flatMap(xmlString -> {
+        if (pipelineProperties.getMode() == PipelineSchedulerProperties.Mode.IMPERATIVE) {
+            return Mono.fromCallable(() -> processBlocking(intake))
+                    .doFinally(signal -> log.info("....Processing Completed...."));
+        }
+
+        return Mono.fromCallable(() -> timedValidateXml(intake))
+                // Validation and the audit up to its first statement, see PipelineSchedulers
+                .subscribeOn(pipelineSchedulers.parsing())
+                .flatMap(envelope -> {
 
                     //  Bypass strategy check
                     if (bypassService.isBypassEnabled()) {
-                        log.info("Bypass strategy enabled — routing message to configured switch/topic");
-                        bypassService.sendToBypassSwitch(xmlString);
-                        return Mono.just(ResponseEntity.ok(
-                                new Response("SUCCESS", "Message routed via bypass.")));
+                        return Mono.just(bypass(envelope));
                     }
 
                     // 2️ Normal processing flow
-                    return incomingMsgAudit.auditIncomingMessage(xmlString)
-                            .flatMap(status -> {
-                                switch (status) {
-                                    case SUCCESS:
-                                        // Continue for non-duplicate messages
-                                        String sanitized = XmlSanitizer.sanitize(xmlString[1]);
-                                        xmlString[1] = sanitized;
-                                        log.info("XmlSanitizer output: {}", sanitized);
+                    AdmissionControl.Permit permit = admissionControl.tryAcquire(envelope.getMsgType());
+                    if (permit == null) {
+                        return Mono.just(rejected(envelope));
+                    }
+                    return auditAndPublish(envelope)
+                            .doOnSuccess(response -> permit.release(succeeded(response)))
+                            .doOnError(ex -> permit.release(false))
+                            .doOnCancel(permit::abandon);
+                })
+                .onErrorResume(RejectedExecutionException.class, ex -> Mono.just(queueFull(ex)))
+                .onErrorResume(ex -> Mono.just(failed(ex)))
+                .doFinally(signal -> log.info("....Processing Completed...."));
+    }
 
-                                        return publishMessage.sendRequest(xmlString)
-                                                .thenReturn(ResponseEntity.ok(
-                                                        new Response("SUCCESS", "Message Processed.")));
-                                    case DUPLICATE:
-                                        log.warn("Duplicate message detected — skipping further processing.");
-                                        return Mono.just(ResponseEntity.ok(
-                                                new Response("DUPLICATE", "Message already processed.")));
-                                    case ERROR:
-                                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                                .body(new Response("ERROR", "Message processing failed.")));
-                                    default:
-                                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                                .body(new Response("ERROR", "Message audit failed.")));
-                                }
+    /**
+     * The same stages as the reactive chain, run one after the other on the request thread, which is a virtual
+     * thread with {@code spring.threads.virtual.enabled}; blocking on the database and the sidecar only parks it.
+     */
+    private ResponseEntity<Response> processBlocking(Callable<MessageEnvelope> intake) {
+        try {
+            MessageEnvelope envelope = timedValidateXml(intake);
+            if (envelope == null) {
+                return null;
+            }
+            if (bypassService.isBypassEnabled()) {
+                return bypass(envelope);
+            }
+            AdmissionControl.Permit permit = admissionControl.tryAcquire(envelope.getMsgType());
+            if (permit == null) {
+                return rejected(envelope);
+            }
+            ResponseEntity<Response> response = null;
+            try {
+                response = auditAndPublish(envelope).block();
+                return response;
+            } finally {
+                permit.release(succeeded(response));
+            }
+        } catch (RejectedExecutionException ex) {
+            return queueFull(ex);
+        } catch (Exception ex) {
+            return failed(ex);
+        }
+    }
 
+    private ResponseEntity<Response> bypass(MessageEnvelope envelope) {
+        log.info("Bypass strategy enabled — routing message to configured switch/topic");
+        // Timed from subscription to the audit status; the response does not wait for it
+        pipelineMetrics.time(Stage.BYPASS, envelope.getMsgType(),
+                        bypassService.publishToBypassSwitch(envelope.toXmlParts()), AuditStatus::name)
+                .subscribe(status -> log.info("Bypass result for msgId {}: {}", envelope.getMsgId(), status),
+                        error -> log.error("Bypass failed for msgId {}", envelope.getMsgId(), error));
+        return ResponseEntity.ok(new Response("SUCCESS", "Message routed via bypass."));
+    }
 
-                            });
-                })
-                .onErrorResume(ex -> {
-                    log.error("XML Parsing Failed: {}", ex.getMessage(), ex);
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(new Response("ERROR", "Message Processing Failed")));
-                })
-                .doFinally(signal -> log.info("....Processing Completed...."));
+    // In the lane of the message's processor, a lane without limits unless lanes.enabled
+    private Mono<ResponseEntity<Response>> auditAndPublish(MessageEnvelope envelope) {
+        PriorityLanes.Lane lane = priorityLanes.lane(envelope.getMsgType());
+        return lane.database(audit(envelope).subscribeOn(lane.scheduler()))
+                // Sanitize and build JSON on the lane's threads, not the driver thread that completed the audit
+                .publishOn(lane.scheduler())
+                .flatMap(status -> afterAudit(envelope, status, lane));
+    }
+
+    private Mono<AuditStatus> audit(MessageEnvelope envelope) {
+        return pipelineMetrics.time(Stage.AUDIT, envelope.getMsgType(),
+                incomingMsgAudit.auditIncomingMessage(envelope), AuditStatus::name);
+    }
+
+    private Mono<ResponseEntity<Response>> afterAudit(MessageEnvelope envelope, AuditStatus status,
+                                                      PriorityLanes.Lane lane) {
+        switch (status) {
+            case SUCCESS:
+                // Continue for non-duplicate messages
+                String sanitized = pipelineMetrics.record(Stage.SANITIZE, envelope.getMsgType(),
+                        () -> XmlSanitizer.sanitize(envelope.getBody()));
+                envelope.setBody(sanitized);
+                log.info("XmlSanitizer output: {}", sanitized);
+
+                return lane.publish(publishMessage.sendRequest(envelope))
+                        .thenReturn(ResponseEntity.ok(
+                                new Response("SUCCESS", "Message Processed.")));
+            case DUPLICATE:
+                log.warn("Duplicate message detected — skipping further processing.");
+                return Mono.just(ResponseEntity.ok(
+                        new Response("DUPLICATE", "Message already processed.")));
+            case ERROR:
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new Response("ERROR", "Message processing failed.")));
+            default:
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new Response("ERROR", "Message audit failed.")));
+        }
+    }
+
+    private ResponseEntity<Response> failed(Throwable ex) {
+        log.error("XML Parsing Failed: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new Response("ERROR", "Message Processing Failed"));
+    }
+
+    private ResponseEntity<Response> rejected(MessageEnvelope envelope) {
+        log.warn("Rejected msgId={} msgType={}, admission limit of {} reached", envelope.getMsgId(),
+                envelope.getMsgType(), admissionControl.limit(envelope.getMsgType()));
+        return busy();
+    }
+
+    // Rejected by the parsing pool or a lane
+    private ResponseEntity<Response> queueFull(RejectedExecutionException ex) {
+        log.warn("Rejected, queue full: {}", ex.getMessage());
+        return busy();
+    }
+
+    private static boolean succeeded(ResponseEntity<Response> response) {
+        return response != null && response.getStatusCode().is2xxSuccessful();
+    }
+
+    // The sender may send the request again after Retry-After; a message turned away after its audit is still
+    // CAPTURED, which the retry's audit treats as SUCCESS and publishes
+    private ResponseEntity<Response> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(pipelineSchedulers.retryAfterSeconds()))
+                .body(new Response("BUSY", "Service busy, retry later."));
     }
 
     // For testing bypass or flow logic manually
@@ -116,27 +260,27 @@ public class ProcessController {
     public Mono<ResponseEntity<Response>> testProcess(@RequestBody String request) {
         log.info("....Processing Started....");
         return Mono.fromCallable(() -> validateXml(request))
-                .flatMap(xmlString -> {
+                .flatMap(envelope -> {
 
                     //  Bypass strategy check
                     if (bypassService.isBypassEnabled()) {
                         log.info("Bypass strategy enabled — routing message to configured switch/topic");
-                        bypassService.sendToBypassSwitch(xmlString);
+                        bypassService.sendToBypassSwitch(envelope.toXmlParts());
                         return Mono.just(ResponseEntity.ok(
                                 new Response("SUCCESS", "Message routed via bypass.")));
                     }
 
                     // 2️ Normal processing flow
-                    return incomingMsgAudit.auditIncomingMessage(xmlString)
+                    return incomingMsgAudit.auditIncomingMessage(envelope)
                             .flatMap(status -> {
                                 switch (status) {
                                     case SUCCESS:
                                         // Continue for non-duplicate messages
-                                        String sanitized = XmlSanitizer.sanitize(xmlString[1]);
-                                        xmlString[1] = sanitized;
+                                        String sanitized = XmlSanitizer.sanitize(envelope.getBody());
+                                        envelope.setBody(sanitized);
                                         log.info("XmlSanitizer output: {}", sanitized);
 
-                                        return publishMessage.sendRequest(xmlString)
+                                        return publishMessage.sendRequest(envelope)
                                                 .thenReturn(ResponseEntity.ok(
                                                         new Response("SUCCESS", "Message Processed.")));
                                     case DUPLICATE:
@@ -162,8 +306,24 @@ public class ProcessController {
                 .doFinally(signal -> log.info("....Processing Completed...."));
     }
 
+    /**
+     * {@link #validateXml} as the validate stage; a message it routes away as invalid counts as {@code INVALID}.
+     */
+    private MessageEnvelope timedValidateXml(Callable<MessageEnvelope> intake) throws Exception {
+        Timer.Sample sample = pipelineMetrics.start();
+        try {
+            MessageEnvelope envelope = intake.call();
+            pipelineMetrics.stop(sample, Stage.VALIDATE, envelope != null ? envelope.getMsgType() : null,
+                    envelope != null ? PipelineMetrics.SUCCESS : PipelineMetrics.INVALID);
+            return envelope;
+        } catch (Exception e) {
+            pipelineMetrics.stop(sample, Stage.VALIDATE, null, PipelineMetrics.ERROR);
+            throw e;
+        }
+    }
+
     //  XML Validation + Error Routing
-    private String[] validateXml(String request) {
+    private MessageEnvelope validateXml(String request) {
         String xmlMsg = null;
         try {
 
@@ -171,7 +331,7 @@ public class ProcessController {
                 String[] xmlMessage = removeBOM(request);
                 xmlMessage[0] = xmlMessage[0].trim();
                 xmlMessage[1] = xmlMessage[1].trim();
-                return xmlMessage;
+                return messageEnvelopeParser.unparsed(xmlMessage);
             }
  /*           ObjectMapper objectMapper = new ObjectMapper();
             JsonNode rootNode = objectMapper.readTree(request);
@@ -184,33 +344,39 @@ public class ProcessController {
             xmlMessage[0] = xmlMessage[0].trim();
             xmlMessage[1] = xmlMessage[1].trim();
 
-            // Parse XML securely
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            builder.setErrorHandler(new DefaultHandler() {
-                @Override
-                public void error(SAXParseException e) throws SAXException { throw e; }
-                @Override
-                public void fatalError(SAXParseException e) throws SAXException { throw e; }
-                @Override
-                public void warning(SAXParseException e) throws SAXException { throw e; }
-            });
-
-            Document document = builder.parse(new ByteArrayInputStream(xmlMessage[1].getBytes(StandardCharsets.UTF_8)));
-            return xmlMessage;
-
-        } catch (SAXException | IOException | ParserConfigurationException e) {
-            log.info("Calling determineTopic due to XML error");
-            errorMsgAudit.determineTopic(request).subscribe(
-                    nullValue -> {}, // onNext, not used for Mono<Void>
-                    err -> log.error("Error in determineTopic", err),
-                    () -> log.info("determineTopic completed successfully")
-            );
-            return null;
+            // Parse XML securely, once, and keep the extracted header fields for the rest of the pipeline
+            return messageEnvelopeParser.parse(xmlMessage);
+
+        } catch (SAXException | IOException | ParserConfigurationException | XMLStreamException
+                 | XPathExpressionException e) {
+            return routeInvalidXml(request);
         }
     }
 
+    // Same as validateXml(String), without copying the request apart
+    private MessageEnvelope validateXml(RawRequest request) {
+        try {
+            if (bypassService.isBypassEnabled()) {
+                return messageEnvelopeParser.unparsed(new String[]{request.prefix(), request.body()});
+            }
+            return messageEnvelopeParser.parse(request);
+
+        } catch (SAXException | IOException | ParserConfigurationException | XMLStreamException
+                 | XPathExpressionException e) {
+            return routeInvalidXml(request.request());
+        }
+    }
+
+    private MessageEnvelope routeInvalidXml(String request) {
+        log.info("Calling determineTopic due to XML error");
+        errorMsgAudit.determineTopic(request).subscribe(
+                nullValue -> {}, // onNext, not used for Mono<Void>
+                err -> log.error("Error in determineTopic", err),
+                () -> log.info("determineTopic completed successfully")
+        );
+        return null;
+    }
+
     //  Utility: Remove BOM and split header/body
     public static String[] removeBOM(String xml) {
         if (xml == null) return null;
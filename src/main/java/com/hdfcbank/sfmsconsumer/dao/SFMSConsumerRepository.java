@@ -3,20 +3,32 @@ package com.hdfcbank.sfmsconsumer.dao;
 
 import com.hdfcbank.sfmsconsumer.config.BTAllowedMsgType;
 import com.hdfcbank.sfmsconsumer.config.BypassProperties;
+import com.hdfcbank.sfmsconsumer.config.TrackerWriteProperties;
 import com.hdfcbank.sfmsconsumer.exception.SFMSException;
 import com.hdfcbank.sfmsconsumer.model.AdmiTracker;
 import com.hdfcbank.sfmsconsumer.model.AuditStatus;
 import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
+import com.hdfcbank.sfmsconsumer.model.StatusUpdate;
+import com.hdfcbank.sfmsconsumer.utils.OriginalReqCodec;
 import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 
 @Slf4j
@@ -27,14 +39,26 @@ public class SFMSConsumerRepository {
     private final DatabaseClient databaseClient;
     private final BTAllowedMsgType btAllowedMsgType;
     private final BypassProperties bypassProperties;
+    private final TrackerWriteProperties trackerWriteProperties;
+    private final OriginalReqCodec originalReqCodec;
 
     /**
      * Save message in MsgEventTracker & BatchTracker (reactive)
      */
     public Mono<AuditStatus> saveDataInMsgEventTracker(MsgEventTracker msgEventTracker) {
+        return encodeOriginalReq(msgEventTracker.getOrgnlReq(), msgEventTracker::setOrgnlReqBin)
+                .then(Mono.defer(() -> insertMsgEventTracker(msgEventTracker)));
+    }
+
+    private Mono<AuditStatus> insertMsgEventTracker(MsgEventTracker msgEventTracker) {
         LocalDateTime timestamp = LocalDateTime.now();
         boolean allowed = btAllowedMsgType.getAllowedMsgTypes().contains(msgEventTracker.getMsgType());
 
+        if (trackerWriteProperties.isUpsertEnabled()) {
+            return upsertMsgEventTracker(msgEventTracker, timestamp, allowed)
+                    .onErrorResume(ex -> msgEventTrackerError(ex, msgEventTracker.getMsgId()));
+        }
+
         String insertSql = (allowed) ? """
         WITH inserted_mvt_bt_event AS (
             INSERT INTO network_il.msg_event_tracker (
@@ -112,7 +136,7 @@ public class SFMSConsumerRepository {
                     }
 
                     //  Step 2: Insert since no duplicate
-                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql);
+                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(originalReqCodec.sql(insertSql));
                     spec = bindInsertParams(spec, msgEventTracker, timestamp);
 
                     return spec.fetch()
@@ -121,30 +145,227 @@ public class SFMSConsumerRepository {
                 })
                 .switchIfEmpty(Mono.defer(() -> {
                     //  Step 3: Record not found at all → safe to insert
-                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql);
+                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(originalReqCodec.sql(insertSql));
                     spec = bindInsertParams(spec, msgEventTracker, timestamp);
 
                     return spec.fetch()
                             .rowsUpdated()
                             .map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.ERROR);
                 }))
-                .onErrorResume(ex -> {
-                    String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
+                .onErrorResume(ex -> msgEventTrackerError(ex, msgEventTracker.getMsgId()));
+    }
 
-                    if (ex instanceof io.r2dbc.spi.R2dbcNonTransientResourceException
-                            || ex instanceof io.r2dbc.spi.R2dbcTransientResourceException
-                            || msg.contains("Connection refused")
-                            || msg.contains("Connection reset")
-                            || msg.contains("Timed out")) {
+    /**
+     * Inserts the MsgEventTracker row, or on (msg_id, source, target, batch_id) conflict bumps the version of a
+     * row already sent on, in one round trip. {@code xmax = 0} only holds for a freshly inserted tuple, which is
+     * how the statement tells an insert from a conflict; on conflict {@code status} is the existing status.
+     */
+    private Mono<AuditStatus> upsertMsgEventTracker(MsgEventTracker msgEventTracker, LocalDateTime timestamp, boolean allowed) {
+        String upsertSql = """
+        WITH upserted AS (
+            INSERT INTO network_il.msg_event_tracker AS met (
+                msg_id, source, target, batch_id, flow_type, msg_type,
+                original_req, invalid_msg, bypass_enabled, replay_count, original_req_count,
+                consolidate_amt, intermediate_req, intemdiate_count, status,
+                batch_creation_date, batch_timestamp, created_time, modified_timestamp, version
+            )
+            VALUES (:msg_id, :source, :target, :batch_id, :flow_type, :msg_type,
+                    :original_req, :invalid_msg, :bypass_enabled, :replay_count, :original_req_count,
+                    :consolidate_amt, :intermediate_req, :intemdiate_count, :status,
+                    :batch_creation_date, :batch_timestamp, :created_time, :modified_timestamp, :version)
+            ON CONFLICT (msg_id, source, target, batch_id) DO UPDATE
+            SET version = CASE WHEN met.status IN ('SEND_TO_PROCESSOR', 'SEND_TO_DISPATCHER')
+                               THEN met.version + 1 ELSE met.version END,
+                modified_timestamp = CASE WHEN met.status IN ('SEND_TO_PROCESSOR', 'SEND_TO_DISPATCHER')
+                                          THEN NOW() ELSE met.modified_timestamp END
+            RETURNING (xmax = 0) AS inserted, msg_id, msg_type, status, batch_id
+        )""" + (allowed ? """
+        , inserted_bt AS (
+            INSERT INTO network_il.batch_tracker (
+                batch_id, msg_id, msg_type, status, replay_count, created_time, modified_timestamp
+            )
+            SELECT batch_id, msg_id, msg_type, status, :replay_count, :created_time, :modified_timestamp
+            FROM upserted
+            WHERE inserted
+        )""" : "") + """
+        SELECT inserted, status FROM upserted
+        """;
 
-                        log.error("Database is unreachable for msgId {}: {}", msgEventTracker.getMsgId(), msg);
-                        return Mono.error(new SFMSException("DATABASE_DOWN", ex));
+        DatabaseClient.GenericExecuteSpec spec = bindInsertParams(databaseClient.sql(originalReqCodec.sql(upsertSql)), msgEventTracker, timestamp);
+
+        return spec.map(row -> upsertStatus(Boolean.TRUE.equals(row.get("inserted", Boolean.class)),
+                        row.get("status", String.class), msgEventTracker.getMsgId()))
+                .one()
+                .defaultIfEmpty(AuditStatus.ERROR);
+    }
+
+    /**
+     * Writes many MsgEventTracker rows with one multi-row INSERT ... ON CONFLICT, plus the batch_tracker rows of the
+     * newly inserted batch-tracked types, in one round trip. Requires the unique indexes from
+     * db/tracker-upsert-indexes.sql. Statuses are returned in input order with the same meaning as
+     * {@link #saveDataInMsgEventTracker}; a key repeated within the list is written once and its later
+     * occurrences get the status a second, sequential save would have returned.
+     */
+    public Mono<List<AuditStatus>> saveDataInMsgEventTrackerBatch(List<MsgEventTracker> msgEventTrackers) {
+        return Flux.fromIterable(msgEventTrackers)
+                .flatMap(msgEventTracker -> encodeOriginalReq(msgEventTracker.getOrgnlReq(), msgEventTracker::setOrgnlReqBin))
+                .then(Mono.defer(() -> insertMsgEventTrackerBatch(msgEventTrackers)));
+    }
+
+    private Mono<List<AuditStatus>> insertMsgEventTrackerBatch(List<MsgEventTracker> msgEventTrackers) {
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        // ON CONFLICT DO UPDATE cannot touch the same row twice in one statement
+        Map<String, Integer> rowByKey = new LinkedHashMap<>();
+        List<MsgEventTracker> rows = new ArrayList<>();
+        for (MsgEventTracker msgEventTracker : msgEventTrackers) {
+            rowByKey.computeIfAbsent(trackerKey(msgEventTracker.getMsgId(), msgEventTracker.getSource(),
+                    msgEventTracker.getTarget(), msgEventTracker.getBatchId()), key -> {
+                rows.add(msgEventTracker);
+                return rows.size() - 1;
+            });
+        }
+
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            values.append(i == 0 ? "" : ",\n")
+                    .append("(:msg_id_").append(i).append(", :source_").append(i).append(", :target_").append(i)
+                    .append(", :batch_id_").append(i).append(", :flow_type_").append(i).append(", :msg_type_").append(i)
+                    .append(", :original_req_").append(i)
+                    .append(originalReqCodec.isCompressed() ? ", :original_req_bin_" + i : "")
+                    .append(", :invalid_msg_").append(i)
+                    .append(", false, 0, NULL, NULL, NULL, NULL, 'CAPTURED', :batch_creation_date_").append(i)
+                    .append(", :batch_timestamp_").append(i).append(", :created_time, :modified_timestamp, 1.0)");
+        }
+
+        String upsertSql = """
+        WITH upserted AS (
+            INSERT INTO network_il.msg_event_tracker AS met (
+                msg_id, source, target, batch_id, flow_type, msg_type,
+                original_req, invalid_msg, bypass_enabled, replay_count, original_req_count,
+                consolidate_amt, intermediate_req, intemdiate_count, status,
+                batch_creation_date, batch_timestamp, created_time, modified_timestamp, version
+            )
+            VALUES
+        """ + values + """
+
+            ON CONFLICT (msg_id, source, target, batch_id) DO UPDATE
+            SET version = CASE WHEN met.status IN ('SEND_TO_PROCESSOR', 'SEND_TO_DISPATCHER')
+                               THEN met.version + 1 ELSE met.version END,
+                modified_timestamp = CASE WHEN met.status IN ('SEND_TO_PROCESSOR', 'SEND_TO_DISPATCHER')
+                                          THEN NOW() ELSE met.modified_timestamp END
+            RETURNING (xmax = 0) AS inserted, msg_id, source, target, msg_type, status, batch_id
+        ),
+        inserted_bt AS (
+            INSERT INTO network_il.batch_tracker (
+                batch_id, msg_id, msg_type, status, replay_count, created_time, modified_timestamp
+            )
+            SELECT batch_id, msg_id, msg_type, status, 0, :created_time, :modified_timestamp
+            FROM upserted
+            WHERE inserted AND msg_type = ANY(:bt_msg_types::varchar[])
+        )
+        SELECT inserted, msg_id, source, target, batch_id, status FROM upserted
+        """;
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(originalReqCodec.sql(upsertSql))
+                .bind("bt_msg_types", btAllowedMsgType.getAllowedMsgTypes().toArray(new String[0]))
+                .bind("created_time", timestamp)
+                .bind("modified_timestamp", timestamp);
+        for (int i = 0; i < rows.size(); i++) {
+            MsgEventTracker row = rows.get(i);
+            spec = bindNullable(spec, "msg_id_" + i, row.getMsgId(), String.class);
+            spec = bindNullable(spec, "source_" + i, row.getSource(), String.class);
+            spec = bindNullable(spec, "target_" + i, row.getTarget(), String.class);
+            spec = bindNullable(spec, "batch_id_" + i, row.getBatchId(), String.class);
+            spec = bindNullable(spec, "flow_type_" + i, row.getFlowType(), String.class);
+            spec = bindNullable(spec, "msg_type_" + i, row.getMsgType(), String.class);
+            spec = bindOriginalReq(spec, "original_req_" + i, row.getOrgnlReq(), row.getOrgnlReqBin());
+            spec = bindNullable(spec, "invalid_msg_" + i, row.getInvalidReq(), Boolean.class);
+            spec = bindNullable(spec, "batch_creation_date_" + i, row.getBatchCreationDate(), Date.class);
+            spec = bindNullable(spec, "batch_timestamp_" + i, row.getBatchCreationTimestamp(), LocalDateTime.class);
+        }
+
+        return spec.map(row -> Map.entry(
+                        trackerKey(row.get("msg_id", String.class), row.get("source", String.class),
+                                row.get("target", String.class), row.get("batch_id", String.class)),
+                        upsertStatus(Boolean.TRUE.equals(row.get("inserted", Boolean.class)),
+                                row.get("status", String.class), row.get("msg_id", String.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(statusByKey -> {
+                    List<AuditStatus> statuses = new ArrayList<>(msgEventTrackers.size());
+                    Set<String> seen = new HashSet<>();
+                    for (MsgEventTracker msgEventTracker : msgEventTrackers) {
+                        String key = trackerKey(msgEventTracker.getMsgId(), msgEventTracker.getSource(),
+                                msgEventTracker.getTarget(), msgEventTracker.getBatchId());
+                        AuditStatus status = statusByKey.getOrDefault(key, AuditStatus.ERROR);
+                        statuses.add(seen.add(key) ? status : repeatInBatchStatus(status));
                     }
+                    return statuses;
+                })
+                // msgEventTrackerError only ever signals an error
+                .onErrorResume(ex -> msgEventTrackerError(ex, rowByKey.size() + " batched messages").map(List::of));
+    }
 
-                    log.error("Database error for msg_event_tracker msgId {}: {}", msgEventTracker.getMsgId(), msg, ex);
-                    return Mono.error(new SFMSException("DATABASE_ERROR: " + msg, ex));
-                });
+    /**
+     * Status for a key that already occurred earlier in the same batch: a row the batch inserted is CAPTURED by
+     * the time the repeat would have been saved, anything else repeats its first occurrence's status.
+     */
+    static AuditStatus repeatInBatchStatus(AuditStatus first) {
+        return first == AuditStatus.SUCCESS ? AuditStatus.CAPTURED_DUPLICATE : first;
+    }
+
+    private static String trackerKey(String msgId, String source, String target, String batchId) {
+        return msgId + '\u0000' + source + '\u0000' + target + '\u0000' + (batchId != null ? batchId : "");
+    }
+
+    /**
+     * Maps the outcome of a tracker upsert to the same statuses the SELECT-then-INSERT path returns.
+     */
+    static AuditStatus upsertStatus(boolean inserted, String existingStatus, String msgId) {
+        if (inserted) {
+            return AuditStatus.SUCCESS;
+        }
+        AuditStatus status = duplicateStatus(existingStatus, msgId);
+        if (status == null) {
+            // Any other prior status was re-admitted by the old path with a fresh insert
+            log.warn("Existing record with status {} found for msgId: {}, processing again", existingStatus, msgId);
+            return AuditStatus.SUCCESS;
+        }
+        return status;
     }
+
+    private static AuditStatus duplicateStatus(String existingStatus, String msgId) {
+        if ("CAPTURED".equalsIgnoreCase(existingStatus)) {
+            log.warn("Duplicate CAPTURED record found for msgId: {}", msgId);
+            return AuditStatus.CAPTURED_DUPLICATE;
+        } else if ("SEND_TO_PROCESSOR".equalsIgnoreCase(existingStatus)) {
+            log.warn("Duplicate SEND_TO_PROCESSOR record found for msgId: {}, version incremented", msgId);
+            return AuditStatus.SEND_TO_PROCESSOR_DUPLICATE;
+        } else if ("SEND_TO_DISPATCHER".equalsIgnoreCase(existingStatus)) {
+            log.warn("Duplicate SEND_TO_DISPATCHER record found for msgId: {}, version incremented", msgId);
+            return AuditStatus.SEND_TO_DISPATCHER;
+        }
+        return null;
+    }
+
+    private Mono<AuditStatus> msgEventTrackerError(Throwable ex, String msgId) {
+        String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
+
+        if (ex instanceof io.r2dbc.spi.R2dbcNonTransientResourceException
+                || ex instanceof io.r2dbc.spi.R2dbcTransientResourceException
+                || msg.contains("Connection refused")
+                || msg.contains("Connection reset")
+                || msg.contains("Timed out")) {
+
+            log.error("Database is unreachable for msgId {}: {}", msgId, msg);
+            return Mono.error(new SFMSException("DATABASE_DOWN", ex));
+        }
+
+        log.error("Database error for msg_event_tracker msgId {}: {}", msgId, msg, ex);
+        return Mono.error(new SFMSException("DATABASE_ERROR: " + msg, ex));
+    }
+
     private DatabaseClient.GenericExecuteSpec bindInsertParams(DatabaseClient.GenericExecuteSpec spec,
                                                                MsgEventTracker msgEventTracker,
                                                                LocalDateTime timestamp) {
@@ -154,7 +375,7 @@ public class SFMSConsumerRepository {
         spec = bindNullable(spec, "batch_id", msgEventTracker.getBatchId(), String.class);
         spec = bindNullable(spec, "flow_type", msgEventTracker.getFlowType(), String.class);
         spec = bindNullable(spec, "msg_type", msgEventTracker.getMsgType(), String.class);
-        spec = bindNullable(spec, "original_req", msgEventTracker.getOrgnlReq(), String.class);
+        spec = bindOriginalReq(spec, "original_req", msgEventTracker.getOrgnlReq(), msgEventTracker.getOrgnlReqBin());
         spec = bindNullable(spec, "invalid_msg", msgEventTracker.getInvalidReq(), Boolean.class);
         spec = bindNullable(spec, "bypass_enabled", false, Boolean.class);
         spec = bindNullable(spec, "batch_creation_date", msgEventTracker.getBatchCreationDate(), Date.class);
@@ -178,6 +399,11 @@ public class SFMSConsumerRepository {
      * Save message in ADMI tracker (reactive)
      */
     public Mono<AuditStatus> saveDataInAdmiTracker(AdmiTracker admiTracker) {
+        return encodeOriginalReq(admiTracker.getOrgnlReq(), admiTracker::setOrgnlReqBin)
+                .then(Mono.defer(() -> insertAdmiTracker(admiTracker)));
+    }
+
+    private Mono<AuditStatus> insertAdmiTracker(AdmiTracker admiTracker) {
         LocalDateTime timestamp = LocalDateTime.now();
 
         // Step 1 — Check for duplicates
@@ -199,6 +425,25 @@ public class SFMSConsumerRepository {
             )
             """;
 
+        if (trackerWriteProperties.isUpsertEnabled()) {
+            // Anything but a CAPTURED duplicate has its version bumped, as the caller used to do afterwards
+            String upsertSql = insertSql + """
+                ON CONFLICT (msg_id) DO UPDATE
+                SET version = CASE WHEN admi004_tracker.status = 'CAPTURED'
+                                   THEN admi004_tracker.version ELSE admi004_tracker.version + 1 END,
+                    modified_timestamp = CASE WHEN admi004_tracker.status = 'CAPTURED'
+                                              THEN admi004_tracker.modified_timestamp ELSE NOW() END
+                RETURNING (xmax = 0) AS inserted, status
+                """;
+
+            return bindAdmiInsertParams(databaseClient.sql(originalReqCodec.sql(upsertSql)), admiTracker, false, timestamp)
+                    .map(row -> admiUpsertStatus(Boolean.TRUE.equals(row.get("inserted", Boolean.class)),
+                            row.get("status", String.class), admiTracker.getMsgId()))
+                    .one()
+                    .defaultIfEmpty(AuditStatus.ERROR)
+                    .onErrorResume(ex -> admiTrackerError(ex, admiTracker.getMsgId()));
+        }
+
         return databaseClient.sql(duplicateCheckSql)
                 .bind("msg_id", admiTracker.getMsgId())
                 .map(row -> row.get("status", String.class))
@@ -220,21 +465,8 @@ public class SFMSConsumerRepository {
                     }
 
                     // Step 3 — No duplicate, proceed with insert
-                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql);
-
-                    spec = bindNullable(spec, "msg_id", admiTracker.getMsgId(), String.class);
-                    spec = bindNullable(spec, "msg_type", admiTracker.getMsgType(), String.class);
-                    spec = bindNullable(spec, "original_req", admiTracker.getOrgnlReq(), String.class);
-                    spec = bindNullable(spec, "target", admiTracker.getTarget(), String.class);
-                    spec = spec.bind("replay_count", 0);
-                    spec = spec.bind("status", "CAPTURED");
-                    spec = bindNullable(spec, "invalid_msg", admiTracker.getInvalidReq(), Boolean.class);
-                    spec = bindNullable(spec, "bypass_enabled", false, Boolean.class);
-                    spec = bindNullable(spec, "batch_creation_date", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-                    spec = bindNullable(spec, "batch_timestamp", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-                    spec = spec.bind("version", 1.0)
-                            .bind("created_time", timestamp)
-                            .bind("modified_timestamp", timestamp);
+                    DatabaseClient.GenericExecuteSpec spec =
+                            bindAdmiInsertParams(databaseClient.sql(originalReqCodec.sql(insertSql)), admiTracker, false, timestamp);
 
                     return spec.fetch()
                             .rowsUpdated()
@@ -242,47 +474,76 @@ public class SFMSConsumerRepository {
                 })
                 .switchIfEmpty(Mono.defer(() -> {
                     // Step 4 — Insert new if record not found
-                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql);
-
-                    spec = bindNullable(spec, "msg_id", admiTracker.getMsgId(), String.class);
-                    spec = bindNullable(spec, "msg_type", admiTracker.getMsgType(), String.class);
-                    spec = bindNullable(spec, "original_req", admiTracker.getOrgnlReq(), String.class);
-                    spec = bindNullable(spec, "target", admiTracker.getTarget(), String.class);
-                    spec = spec.bind("replay_count", 0);
-                    spec = spec.bind("status", "CAPTURED");
-                    spec = bindNullable(spec, "invalid_msg", admiTracker.getInvalidReq(), Boolean.class);
-                    spec = bindNullable(spec, "bypass_enabled", false, Boolean.class);
-                    spec = bindNullable(spec, "batch_creation_date", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-                    spec = bindNullable(spec, "batch_timestamp", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-                    spec = spec.bind("version", 1.0)
-                            .bind("created_time", timestamp)
-                            .bind("modified_timestamp", timestamp);
+                    DatabaseClient.GenericExecuteSpec spec =
+                            bindAdmiInsertParams(databaseClient.sql(originalReqCodec.sql(insertSql)), admiTracker, false, timestamp);
 
                     return spec.fetch()
                             .rowsUpdated()
                             .map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.ERROR);
                 }))
-                .onErrorResume(ex -> {
-                    String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
+                .onErrorResume(ex -> admiTrackerError(ex, admiTracker.getMsgId()));
+    }
 
-                    if (ex instanceof R2dbcDataIntegrityViolationException || msg.contains("duplicate key")) {
-                        log.warn("Duplicate key detected for msgId: {}", admiTracker.getMsgId());
-                        return Mono.just(AuditStatus.DUPLICATE);
-                    }
+    /**
+     * Whether duplicate handling, including the version bump, already happens inside the tracker write.
+     * Callers then must not increment the version again on {@link AuditStatus#DUPLICATE}.
+     */
+    public boolean isUpsertEnabled() {
+        return trackerWriteProperties.isUpsertEnabled();
+    }
 
-                    // Database connection issues
-                    if (ex instanceof io.r2dbc.spi.R2dbcNonTransientResourceException
-                            || ex instanceof io.r2dbc.spi.R2dbcTransientResourceException
-                            || msg.contains("Connection refused")
-                            || msg.contains("Connection reset")
-                            || msg.contains("Timed out")) {
-                        log.error("Database unreachable for msgId {}: {}", admiTracker.getMsgId(), msg);
-                        return Mono.error(new SFMSException("DATABASE_DOWN", ex));
-                    }
+    static AuditStatus admiUpsertStatus(boolean inserted, String existingStatus, String msgId) {
+        if (inserted) {
+            return AuditStatus.SUCCESS;
+        }
+        AuditStatus status = duplicateStatus(existingStatus, msgId);
+        if (status == null) {
+            // The old insert hit the msg_id key here and the caller bumped the version
+            log.warn("Duplicate key detected for msgId: {}, version incremented", msgId);
+            return AuditStatus.DUPLICATE;
+        }
+        return status;
+    }
 
-                    log.error("Database error for admi_tracker msgId {}: {}", admiTracker.getMsgId(), msg, ex);
-                    return Mono.error(new SFMSException("DATABASE_ERROR: " + msg, ex));
-                });
+    private DatabaseClient.GenericExecuteSpec bindAdmiInsertParams(DatabaseClient.GenericExecuteSpec spec,
+                                                                   AdmiTracker admiTracker,
+                                                                   Boolean bypassEnabled,
+                                                                   LocalDateTime timestamp) {
+        spec = bindNullable(spec, "msg_id", admiTracker.getMsgId(), String.class);
+        spec = bindNullable(spec, "msg_type", admiTracker.getMsgType(), String.class);
+        spec = bindOriginalReq(spec, "original_req", admiTracker.getOrgnlReq(), admiTracker.getOrgnlReqBin());
+        spec = bindNullable(spec, "target", admiTracker.getTarget(), String.class);
+        spec = spec.bind("replay_count", 0);
+        spec = spec.bind("status", "CAPTURED");
+        spec = bindNullable(spec, "invalid_msg", admiTracker.getInvalidReq(), Boolean.class);
+        spec = bindNullable(spec, "bypass_enabled", bypassEnabled, Boolean.class);
+        spec = bindNullable(spec, "batch_creation_date", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
+        spec = bindNullable(spec, "batch_timestamp", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
+        return spec.bind("version", 1.0)
+                .bind("created_time", timestamp)
+                .bind("modified_timestamp", timestamp);
+    }
+
+    private Mono<AuditStatus> admiTrackerError(Throwable ex, String msgId) {
+        String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
+
+        if (ex instanceof R2dbcDataIntegrityViolationException || msg.contains("duplicate key")) {
+            log.warn("Duplicate key detected for msgId: {}", msgId);
+            return Mono.just(AuditStatus.DUPLICATE);
+        }
+
+        // Database connection issues
+        if (ex instanceof io.r2dbc.spi.R2dbcNonTransientResourceException
+                || ex instanceof io.r2dbc.spi.R2dbcTransientResourceException
+                || msg.contains("Connection refused")
+                || msg.contains("Connection reset")
+                || msg.contains("Timed out")) {
+            log.error("Database unreachable for msgId {}: {}", msgId, msg);
+            return Mono.error(new SFMSException("DATABASE_DOWN", ex));
+        }
+
+        log.error("Database error for admi_tracker msgId {}: {}", msgId, msg, ex);
+        return Mono.error(new SFMSException("DATABASE_ERROR: " + msg, ex));
     }
 
 
@@ -323,6 +584,25 @@ public class SFMSConsumerRepository {
                 .onErrorMap(ex -> new SFMSException("DATABASE_ERROR: Failed to increment admi_tracker version", ex));
     }
 
+    /**
+     * Fills the stored form of original_req before a write when compression is on; completes at once otherwise.
+     */
+    private Mono<Void> encodeOriginalReq(String originalReq, Consumer<byte[]> target) {
+        return originalReqCodec.isCompressed()
+                ? originalReqCodec.encode(originalReq).doOnNext(target).then()
+                : Mono.empty();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindOriginalReq(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                              String originalReq, byte[] originalReqBin) {
+        if (!originalReqCodec.isCompressed()) {
+            return bindNullable(spec, name, originalReq, String.class);
+        }
+        // original_req_bin takes the place of the text column
+        return bindNullable(spec.bindNull(name, String.class),
+                name.replace("original_req", "original_req_bin"), originalReqBin, byte[].class);
+    }
+
     private <T> DatabaseClient.GenericExecuteSpec bindNullable(
             DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
         if (value != null) {
@@ -337,6 +617,11 @@ public class SFMSConsumerRepository {
      * Save message in MsgEventTracker, Bypass enabled
      */
     public Mono<AuditStatus> saveDataInMsgEventTrackerByPassEnabled(MsgEventTracker msgEventTracker) {
+        return encodeOriginalReq(msgEventTracker.getOrgnlReq(), msgEventTracker::setOrgnlReqBin)
+                .then(Mono.defer(() -> insertMsgEventTrackerByPassEnabled(msgEventTracker)));
+    }
+
+    private Mono<AuditStatus> insertMsgEventTrackerByPassEnabled(MsgEventTracker msgEventTracker) {
         LocalDateTime timestamp = LocalDateTime.now();
 
         String sql = """
@@ -351,8 +636,15 @@ public class SFMSConsumerRepository {
                         :consolidate_amt, :intermediate_req, :intemdiate_count, :status, 
                         :batch_creation_date, :batch_timestamp, :created_time, :modified_timestamp, :version)
                 """;
+        if (trackerWriteProperties.isUpsertEnabled()) {
+            sql += """
+                ON CONFLICT (msg_id, source, target, batch_id) DO UPDATE
+                SET version = msg_event_tracker.version + 1, modified_timestamp = NOW()
+                RETURNING (xmax = 0) AS inserted
+                """;
+        }
 
-        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(originalReqCodec.sql(sql));
 
         spec = bindNullable(spec, "msg_id", msgEventTracker.getMsgId(), String.class);
         spec = bindNullable(spec, "source", msgEventTracker.getSource(), String.class);
@@ -360,7 +652,7 @@ public class SFMSConsumerRepository {
         spec = bindNullable(spec, "batch_id", msgEventTracker.getBatchId(), String.class);
         spec = bindNullable(spec, "flow_type", msgEventTracker.getFlowType(), String.class);
         spec = bindNullable(spec, "msg_type", msgEventTracker.getMsgType(), String.class);
-        spec = bindNullable(spec, "original_req", msgEventTracker.getOrgnlReq(), String.class);
+        spec = bindOriginalReq(spec, "original_req", msgEventTracker.getOrgnlReq(), msgEventTracker.getOrgnlReqBin());
         spec = bindNullable(spec, "invalid_msg", msgEventTracker.getInvalidReq(), Boolean.class);
         spec = bindNullable(spec, "bypass_enabled", msgEventTracker.getBypassEnabled(), Boolean.class);
         spec = bindNullable(spec, "batch_creation_date", msgEventTracker.getBatchCreationDate(), Date.class);
@@ -377,9 +669,12 @@ public class SFMSConsumerRepository {
                 .bind("modified_timestamp", timestamp)
                 .bind("version", 1);
 
-        return spec.fetch()
-                .rowsUpdated()
-                .map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE)
+        Mono<AuditStatus> result = trackerWriteProperties.isUpsertEnabled()
+                ? spec.map(row -> Boolean.TRUE.equals(row.get("inserted", Boolean.class))
+                        ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE).one().defaultIfEmpty(AuditStatus.ERROR)
+                : spec.fetch().rowsUpdated().map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE);
+
+        return result
                 .onErrorResume(ex -> {
                     String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
                     if (ex instanceof R2dbcDataIntegrityViolationException || msg.contains("duplicate key")) {
@@ -406,6 +701,11 @@ public class SFMSConsumerRepository {
      * Save message in ADMI tracker (reactive)
      */
     public Mono<AuditStatus> saveDataInAdmiTrackerByPassEnabled(AdmiTracker admiTracker) {
+        return encodeOriginalReq(admiTracker.getOrgnlReq(), admiTracker::setOrgnlReqBin)
+                .then(Mono.defer(() -> insertAdmiTrackerByPassEnabled(admiTracker)));
+    }
+
+    private Mono<AuditStatus> insertAdmiTrackerByPassEnabled(AdmiTracker admiTracker) {
         LocalDateTime timestamp = LocalDateTime.now();
 
         String sql = """
@@ -417,27 +717,23 @@ public class SFMSConsumerRepository {
                         :batch_creation_date, :batch_timestamp, :version, :created_time, :modified_timestamp
                     )
                 """;
+        if (trackerWriteProperties.isUpsertEnabled()) {
+            sql += """
+                ON CONFLICT (msg_id) DO UPDATE
+                SET version = admi004_tracker.version + 1, modified_timestamp = NOW()
+                RETURNING (xmax = 0) AS inserted
+                """;
+        }
 
-        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        DatabaseClient.GenericExecuteSpec spec =
+                bindAdmiInsertParams(databaseClient.sql(originalReqCodec.sql(sql)), admiTracker, admiTracker.getBypassEnabled(), timestamp);
 
-        spec = bindNullable(spec, "msg_id", admiTracker.getMsgId(), String.class);
-        spec = bindNullable(spec, "msg_type", admiTracker.getMsgType(), String.class);
-        spec = bindNullable(spec, "original_req", admiTracker.getOrgnlReq(), String.class);
-        spec = bindNullable(spec, "target", admiTracker.getTarget(), String.class);
-        spec = spec.bind("replay_count", 0);
-        spec = spec.bind("status", "CAPTURED");
-        spec = bindNullable(spec, "invalid_msg", admiTracker.getInvalidReq(), Boolean.class);
-        spec = bindNullable(spec, "bypass_enabled", admiTracker.getBypassEnabled(), Boolean.class);
-        spec = bindNullable(spec, "batch_creation_date", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-        spec = bindNullable(spec, "batch_timestamp", admiTracker.getBatchCreationTimestamp(), LocalDateTime.class);
-
-        spec = spec.bind("version", 1.0)
-                .bind("created_time", timestamp)
-                .bind("modified_timestamp", timestamp);
+        Mono<AuditStatus> result = trackerWriteProperties.isUpsertEnabled()
+                ? spec.map(row -> Boolean.TRUE.equals(row.get("inserted", Boolean.class))
+                        ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE).one().defaultIfEmpty(AuditStatus.ERROR)
+                : spec.fetch().rowsUpdated().map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE);
 
-        return spec.fetch()
-                .rowsUpdated()
-                .map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.DUPLICATE)
+        return result
                 .onErrorResume(ex -> {
                     String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
                     if (ex instanceof R2dbcDataIntegrityViolationException || msg.contains("duplicate key")) {
@@ -461,6 +757,13 @@ public class SFMSConsumerRepository {
     }
 
     public Mono<AuditStatus> saveDataInInvalidPayload(String msgId, String msgType, String originalReq, String byPassTarget, Boolean bypassEnabled) {
+        AtomicReference<byte[]> originalReqBin = new AtomicReference<>();
+        return encodeOriginalReq(originalReq, originalReqBin::set)
+                .then(Mono.defer(() -> insertInvalidPayload(msgId, msgType, originalReq, originalReqBin.get(), byPassTarget, bypassEnabled)));
+    }
+
+    private Mono<AuditStatus> insertInvalidPayload(String msgId, String msgType, String originalReq, byte[] originalReqBin,
+                                                   String byPassTarget, Boolean bypassEnabled) {
         LocalDateTime timestamp = LocalDateTime.now();
 
         String sql = """
@@ -470,20 +773,25 @@ public class SFMSConsumerRepository {
                         :msg_id, :msg_type, :original_req, :by_pass_enabled, :target, :created_time
                     )
                 """;
+        if (trackerWriteProperties.isUpsertEnabled()) {
+            // A repeat is reported as DUPLICATE from the row count instead of a unique violation
+            sql += "ON CONFLICT DO NOTHING";
+        }
 
-        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(originalReqCodec.sql(sql));
 
         // Bind all fields with null safety
         spec = bindNullable(spec, "msg_id", msgId, String.class);
         spec = bindNullable(spec, "msg_type", msgType, String.class);
-        spec = bindNullable(spec, "original_req", originalReq, String.class);
+        spec = bindOriginalReq(spec, "original_req", originalReq, originalReqBin);
         spec = bindNullable(spec, "by_pass_enabled", bypassEnabled, Boolean.class);
         spec = bindNullable(spec, "target", byPassTarget, String.class);
         spec = spec.bind("created_time", timestamp);
 
+        AuditStatus noRowStatus = trackerWriteProperties.isUpsertEnabled() ? AuditStatus.DUPLICATE : AuditStatus.ERROR;
         return spec.fetch()
                 .rowsUpdated()
-                .map(rows -> rows > 0 ? AuditStatus.SUCCESS : AuditStatus.ERROR)
+                .map(rows -> rows > 0 ? AuditStatus.SUCCESS : noRowStatus)
                 .onErrorResume(ex -> {
                     String msg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
                     if (ex instanceof R2dbcDataIntegrityViolationException || msg.contains("duplicate key")) {
@@ -589,6 +897,83 @@ public class SFMSConsumerRepository {
     }
 
 
+    /**
+     * Set-based form of {@link #updateStatusToSendToProcessorDynamic}: one UPDATE on admi004_tracker and one
+     * UPDATE on msg_event_tracker (with its batch_tracker rows) for the whole list.
+     * Emits the (msgId, batchId) pairs that matched a row; updates missing from the result matched nothing.
+     * A null batchId matches the "" that the msg_event_tracker insert stores for a message without one, and is
+     * emitted as "".
+     */
+    public Flux<StatusUpdate> updateStatusToSendToProcessorBatch(List<StatusUpdate> updates) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<String> admiMsgIds = new ArrayList<>();
+        List<StatusUpdate> eventUpdates = new ArrayList<>();
+        for (StatusUpdate update : updates) {
+            if (update.getMsgType() != null && update.getMsgType().toUpperCase().startsWith("ADMI")) {
+                admiMsgIds.add(update.getMsgId());
+            } else {
+                eventUpdates.add(update);
+            }
+        }
+
+        Flux<StatusUpdate> admiUpdated = admiMsgIds.isEmpty() ? Flux.empty() : databaseClient.sql("""
+            UPDATE network_il.admi004_tracker
+            SET status = 'SEND_TO_PROCESSOR', modified_timestamp = :modified_timestamp
+            WHERE msg_id = ANY(:msg_ids::varchar[])
+            RETURNING msg_id, msg_type
+        """)
+                .bind("msg_ids", admiMsgIds.toArray(new String[0]))
+                .bind("modified_timestamp", timestamp)
+                .map((row, meta) -> new StatusUpdate(row.get("msg_id", String.class), null, row.get("msg_type", String.class)))
+                .all();
+
+        if (eventUpdates.isEmpty()) {
+            return admiUpdated;
+        }
+
+        String[] msgIds = new String[eventUpdates.size()];
+        String[] batchIds = new String[eventUpdates.size()];
+        Boolean[] batchTracked = new Boolean[eventUpdates.size()];
+        for (int i = 0; i < eventUpdates.size(); i++) {
+            StatusUpdate update = eventUpdates.get(i);
+            msgIds[i] = update.getMsgId();
+            batchIds[i] = update.getBatchId() != null ? update.getBatchId() : "";
+            batchTracked[i] = btAllowedMsgType.getAllowedMsgTypes().contains(update.getMsgType());
+        }
+
+        Flux<StatusUpdate> eventUpdated = databaseClient.sql("""
+            WITH updates AS (
+                SELECT *
+                FROM UNNEST(:msg_ids::varchar[], :batch_ids::varchar[], :batch_tracked::boolean[])
+                    AS u(msg_id, batch_id, batch_tracked)
+            ),
+            updated_event AS (
+                UPDATE network_il.msg_event_tracker m
+                SET status = 'SEND_TO_PROCESSOR', modified_timestamp = :modified_timestamp
+                FROM updates u
+                WHERE m.msg_id = u.msg_id AND m.batch_id = u.batch_id
+                RETURNING m.msg_id, m.batch_id, m.msg_type, u.batch_tracked
+            ),
+            updated_batch AS (
+                UPDATE network_il.batch_tracker bt
+                SET status = 'SEND_TO_PROCESSOR', modified_timestamp = :modified_timestamp
+                FROM updated_event ue
+                WHERE ue.batch_tracked AND bt.msg_id = ue.msg_id AND bt.batch_id = ue.batch_id
+            )
+            SELECT msg_id, batch_id, msg_type FROM updated_event
+        """)
+                .bind("msg_ids", msgIds)
+                .bind("batch_ids", batchIds)
+                .bind("batch_tracked", batchTracked)
+                .bind("modified_timestamp", timestamp)
+                .map((row, meta) -> new StatusUpdate(row.get("msg_id", String.class),
+                        row.get("batch_id", String.class), row.get("msg_type", String.class)))
+                .all();
+
+        return Flux.concat(admiUpdated, eventUpdated);
+    }
+
+
     private Mono<AuditStatus> handleDbError(Throwable ex, String msgId, String tableName) {
         String errMsg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
 
@@ -53,11 +53,11 @@ public class GlobalExceptionHandler {
         try {
             if (message.contains(PAYLOAD_PRE_PROCESSING_EXCEPTION)) {
               //  dao.updateMsgEventTrackerStatusForException(payload); //to do
-                kafkaUtils.publishToKafkaTopic(exceptionPayloadString, config.getExceptionTopic(), payload.getHeader().getMsgId());
+                publishException(exceptionPayloadString, payload);
             } else if (message.contains(PAYLOAD_PRE_PROCESSING_EXCEPTION)) {
                // dao.updateMsgEventTrackerStatusForException(payload); //to do
             }
-            kafkaUtils.publishToKafkaTopic(exceptionPayloadString, config.getExceptionTopic(), payload.getHeader().getMsgId());
+            publishException(exceptionPayloadString, payload);
             return ResponseEntity.status(HttpStatus.OK).body(message);
         } catch (Exception e) {
             log.info("Exception occurred: " + e.getMessage());
@@ -65,6 +65,12 @@ public class GlobalExceptionHandler {
         }
     }
 
+    private void publishException(String exceptionPayloadString, ReqPayload payload) {
+        String msgId = payload.getHeader().getMsgId();
+        kafkaUtils.publishToKafkaTopic(exceptionPayloadString, config.getExceptionTopic(), msgId)
+                .subscribe(unused -> {}, error -> log.error("Failed to publish exception payload for msgId {}", msgId, error));
+    }
+
     public ReqPayload prepareExceptionPayload(SFMSConsumerException.NILException ex) throws JsonProcessingException {
         ReqPayload payload = (ex.getReqPayload() != null) ? ex.getReqPayload() :
                 (ex.getRequest() != null) ?
@@ -0,0 +1,109 @@
+package com.hdfcbank.sfmsconsumer.kafkaproducer;
+
+import com.hdfcbank.sfmsconsumer.config.DaprPublishProperties;
+import com.hdfcbank.sfmsconsumer.utils.MicroBatcher;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import io.dapr.client.domain.CloudEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.CLOUD_EVENT_CONTENT_TYPE;
+
+/**
+ * Groups CloudEvents per topic and sends each group with one bulk-publish call to the sidecar.
+ * A group is sent when it reaches {@code dapr.publish.bulk.max-batch-size} or once its first event
+ * has waited {@code dapr.publish.bulk.linger}. Every caller gets its own outcome: entries the sidecar
+ * reports as failed, or a failed bulk call, error only the affected callers' Monos. Each topic is queued by a
+ * {@link MicroBatcher}, which also restarts the topic's queue if it fails.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "dapr.publish.bulk", name = "enabled", havingValue = "true")
+public class BulkCloudEventPublisher {
+
+    private final DaprPreviewClient daprPreviewClient;
+
+    private final DaprPublishProperties.Bulk bulkProperties;
+
+    private final Map<String, MicroBatcher<QueuedEvent, Void>> batchers = new ConcurrentHashMap<>();
+
+    public BulkCloudEventPublisher(DaprPreviewClient daprPreviewClient, DaprPublishProperties publishProperties) {
+        this.daprPreviewClient = daprPreviewClient;
+        this.bulkProperties = publishProperties.getBulk();
+    }
+
+    /**
+     * Queues the event for the next bulk request to its topic; completes when the sidecar accepted it. Cancelling
+     * before the request is sent, as KafkaUtils' timeout does before a retry, withdraws the event.
+     */
+    public Mono<Void> publish(CloudEvent<?> event, Map<String, String> metadata) {
+        String key = event.getPubsubName() + "/" + event.getTopic();
+        return batchers.computeIfAbsent(key, k -> batcher(event.getPubsubName(), event.getTopic()))
+                .submit(new QueuedEvent(event, metadata));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Closing flushes any partially filled batch; wait for it so nothing queued is dropped
+        Mono.when(batchers.values().stream().map(MicroBatcher::close).toList())
+                .timeout(bulkProperties.getShutdownTimeout(), Mono.fromRunnable(() ->
+                        log.warn("Bulk publisher did not drain within {}", bulkProperties.getShutdownTimeout())))
+                .block();
+    }
+
+    private MicroBatcher<QueuedEvent, Void> batcher(String pubsubName, String topic) {
+        return new MicroBatcher<>("Bulk publisher for topic " + topic, bulkProperties.getMaxBatchSize(),
+                bulkProperties.getLinger(), bulkProperties.getMaxInFlight(), batch -> send(pubsubName, topic, batch));
+    }
+
+    private Mono<Void> send(String pubsubName, String topic, List<MicroBatcher.Entry<QueuedEvent, Void>> batch) {
+        List<BulkPublishEntry<CloudEvent<?>>> entries = new ArrayList<>(batch.size());
+        Map<String, MicroBatcher.Entry<QueuedEvent, Void>> byEntryId = new HashMap<>(batch.size() * 2);
+        for (int i = 0; i < batch.size(); i++) {
+            // msgId is not unique within a batch (retries, duplicates), so entries are keyed by position
+            String entryId = Integer.toString(i);
+            MicroBatcher.Entry<QueuedEvent, Void> pending = batch.get(i);
+            entries.add(new BulkPublishEntry<>(entryId, pending.item().event(), CLOUD_EVENT_CONTENT_TYPE,
+                    pending.item().metadata()));
+            byEntryId.put(entryId, pending);
+        }
+
+        return daprPreviewClient.publishEvents(new BulkPublishRequest<>(pubsubName, topic, entries))
+                .doOnNext(response -> complete(topic, byEntryId, response))
+                .doOnError(e -> log.error("Bulk publish of {} events to topic: {} failed", batch.size(), topic, e))
+                .then();
+    }
+
+    private void complete(String topic, Map<String, MicroBatcher.Entry<QueuedEvent, Void>> byEntryId,
+                          BulkPublishResponse<CloudEvent<?>> response) {
+        List<BulkPublishResponseFailedEntry<CloudEvent<?>>> failedEntries =
+                response.getFailedEntries() != null ? response.getFailedEntries() : List.of();
+        if (!failedEntries.isEmpty()) {
+            log.warn("Bulk publish to topic: {} had {} failed of {} events", topic, failedEntries.size(), byEntryId.size());
+        }
+        for (BulkPublishResponseFailedEntry<CloudEvent<?>> failed : failedEntries) {
+            MicroBatcher.Entry<QueuedEvent, Void> pending = byEntryId.remove(failed.getEntry().getEntryId());
+            if (pending != null) {
+                pending.error(new IllegalStateException("Bulk publish entry failed for msgId "
+                        + pending.item().event().getId() + ": " + failed.getErrorMessage()));
+            }
+        }
+        byEntryId.values().forEach(pending -> pending.success(null));
+    }
+
+    private record QueuedEvent(CloudEvent<?> event, Map<String, String> metadata) {
+    }
+}
@@ -2,16 +2,21 @@ package com.hdfcbank.sfmsconsumer.kafkaproducer;
 
 import com.hdfcbank.messageconnect.config.PubSubOptions;
 import com.hdfcbank.messageconnect.dapr.producer.DaprProducer;
+import com.hdfcbank.sfmsconsumer.config.DaprPublishProperties;
 import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
 import com.hdfcbank.sfmsconsumer.exception.SFMSConsumerException;
 import com.hdfcbank.sfmsconsumer.utils.Constants;
+import com.hdfcbank.sfmsconsumer.utils.PipelineSchedulers;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.dapr.client.domain.CloudEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +32,16 @@ public class KafkaUtils {
     @Autowired
     private SFMSConsumerRepository sfmsConsumerRepository;
 
+    @Autowired
+    private DaprPublishProperties publishProperties;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    // Present only when dapr.publish.bulk.enabled=true
+    @Autowired(required = false)
+    private BulkCloudEventPublisher bulkPublisher;
+
 
     public Mono<Void> publishToKafkaTopic(String message, String topic, String msgid) {
 
@@ -43,23 +58,54 @@ public class KafkaUtils {
                         log.info("Mock publish success for msgId={} topic={}", msgid, topic)
                 )
                 .then();*/
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("partitionKey", msgid);
+        return publish(message, message, topic, msgid);
+    }
+
+    /**
+     * Publishes a JSON document already encoded as UTF-8, such as the processor envelope. With
+     * {@code dapr.publish.raw-json-data} the bytes become the CloudEvent data as they are; otherwise the data is
+     * the same JSON string {@link #publishToKafkaTopic} would send. Without raw-json-data, callers that build the
+     * JSON themselves should build a String and use {@link #publishToKafkaTopic}, which saves decoding the bytes.
+     */
+    public Mono<Void> publishJsonToKafkaTopic(byte[] json, String topic, String msgid) {
+        Object data = json == null ? null
+                : publishProperties.isRawJsonData() ? new RawValue(new RawJsonData(json))
+                : new String(json, StandardCharsets.UTF_8);
+        return publish(data, data instanceof RawValue raw ? raw.rawValue() : data, topic, msgid);
+    }
 
-        var cloudEvents = buildCloudEvent(topic, message, msgid);
-        var resp = daprProducer.invokeDaprPublishEvent(cloudEvents, metadata);
+    private Mono<Void> publish(Object data, Object message, String topic, String msgid) {
+        // Nothing is sent until subscription; completes once the sidecar acks the publish
+        return Mono.defer(() -> {
+                    Map<String, String> metadata = new HashMap<>();
+                    metadata.put("partitionKey", msgid);
 
-        resp.doOnSuccess(res -> log.info("Message published successfully to topic: {}", topic))
+                    var cloudEvents = buildCloudEvent(topic, data, msgid);
+                    return bulkPublisher != null
+                            ? bulkPublisher.publish(cloudEvents, metadata)
+                            : daprProducer.invokeDaprPublishEvent(cloudEvents, metadata);
+                })
+                // pipeline.publish.executor, the calling thread by default
+                .subscribeOn(pipelineSchedulers.publish())
+                .timeout(publishProperties.getTimeout())
+                .retryWhen(Retry.backoff(publishProperties.getMaxRetries(), publishProperties.getRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Retrying publish to topic: {} msgId: {} attempt: {}",
+                                topic, msgid, signal.totalRetries() + 1))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(res -> log.info("Message published successfully to topic: {}", topic))
                 .onErrorMap(e -> {
                     log.error("Error while publishing message to Kafka topic: {}", topic, e);
-                    throw new SFMSConsumerException.KafkaException(e.getMessage(),message, e);
+                    return new SFMSConsumerException.KafkaException(e.getMessage(), message != null ? message.toString() : null, e);
                 })
-                .share().block(); // executes synchronously
-        return null;
+                .then();
     }
 
     public CloudEvent buildCloudEvent(String kafkaTopic, String events, String msgId) {
-        var cloudEvent = new CloudEvent();
+        return buildCloudEvent(kafkaTopic, (Object) events, msgId);
+    }
+
+    private CloudEvent<Object> buildCloudEvent(String kafkaTopic, Object events, String msgId) {
+        var cloudEvent = new CloudEvent<Object>();
         cloudEvent.setId(msgId);
         cloudEvent.setTraceParent(msgId);
         //   cloudEvent.setTraceId(msgId); //Deprecated
@@ -18,6 +18,7 @@ public class AdmiTracker {
     private String msgId;
     private String msgType;
     private String orgnlReq;
+    private byte[] orgnlReqBin;
     private String target;
     private BigDecimal version;
     private Integer replayCount;
@@ -0,0 +1,29 @@
+package com.hdfcbank.sfmsconsumer.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Inbound SFMS message parsed once at intake. Carries the raw prefix/body together with the
+ * AppHdr fields and batch id so that audit, JSON build and publish never re-parse the XML.
+ * The DOM itself is not retained: only the extracted values travel with the request.
+ */
+@Data
+@Builder
+public class MessageEnvelope {
+
+    private String prefix;
+    private String body;
+    private String msgId;
+    private String msgType;
+    private String batchId;
+    private String batchCreDt;
+
+    public String getOriginalReq() {
+        return prefix + body;
+    }
+
+    public String[] toXmlParts() {
+        return new String[]{prefix, body};
+    }
+}
@@ -22,6 +22,7 @@ public class MsgEventTracker {
     private String flowType;
     private String msgType;
     private String orgnlReq;
+    private byte[] orgnlReqBin;
     private String batchId;
     private Integer orgnlReqCount;
     private BigDecimal consolidateAmt;
@@ -0,0 +1,99 @@
+package com.hdfcbank.sfmsconsumer.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@code /process} body as received, in UTF-8, split into the SFMS prefix and the XML body by offset instead of
+ * by copying. A leading BOM is skipped, the body starts at the first {@code '<'} (a byte that never occurs inside
+ * a multi-byte UTF-8 sequence) and both parts are trimmed as {@code String.trim} would, so the parts are the ones
+ * the String intake produces.
+ * <p>
+ * Parsers read the body through {@link #bodyStream()}; it is decoded to a String once, when first asked for.
+ */
+public final class RawRequest {
+
+    private final byte[] bytes;
+
+    private final int prefixFrom;
+
+    private final int prefixTo;
+
+    private final int bodyFrom;
+
+    private final int bodyTo;
+
+    private String body;
+
+    private RawRequest(byte[] bytes, int prefixFrom, int prefixTo, int bodyFrom, int bodyTo) {
+        this.bytes = bytes;
+        this.prefixFrom = prefixFrom;
+        this.prefixTo = prefixTo;
+        this.bodyFrom = bodyFrom;
+        this.bodyTo = bodyTo;
+    }
+
+    /**
+     * Wraps the bytes without copying them; they must not change afterwards.
+     */
+    public static RawRequest of(byte[] bytes) {
+        int start = hasBom(bytes) ? 3 : 0;
+        int split = start;
+        while (split < bytes.length && bytes[split] != '<') {
+            split++;
+        }
+        int prefixFrom = skipLeading(bytes, start, split);
+        int prefixTo = skipTrailing(bytes, prefixFrom, split);
+        int bodyTo = skipTrailing(bytes, split, bytes.length);
+        return new RawRequest(bytes, prefixFrom, prefixTo, split, bodyTo);
+    }
+
+    public String prefix() {
+        return new String(bytes, prefixFrom, prefixTo - prefixFrom, StandardCharsets.UTF_8);
+    }
+
+    public String body() {
+        if (body == null) {
+            body = new String(bytes, bodyFrom, bodyLength(), StandardCharsets.UTF_8);
+        }
+        return body;
+    }
+
+    /**
+     * The body bytes, read in place.
+     */
+    public InputStream bodyStream() {
+        return new ByteArrayInputStream(bytes, bodyFrom, bodyLength());
+    }
+
+    public int bodyLength() {
+        return bodyTo - bodyFrom;
+    }
+
+    /**
+     * The whole request, BOM included, as the String intake binds it; for the error routes only.
+     */
+    public String request() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean hasBom(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
+    }
+
+    // Bytes up to ' ' are exactly the chars String.trim removes; none of them is part of a multi-byte sequence
+    private static int skipLeading(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipTrailing(byte[] bytes, int from, int to) {
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,15 @@
+package com.hdfcbank.sfmsconsumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class StatusUpdate {
+
+    private String msgId;
+    private String batchId;
+    private String msgType;
+}
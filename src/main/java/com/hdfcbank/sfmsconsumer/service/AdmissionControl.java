@@ -0,0 +1,177 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.AdmissionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-flight limits on {@code /process} per MsgDefIdr family, taken once a message is validated and held until its
+ * response, so a burst of one family cannot take every database connection and the heap its payloads need. A
+ * message over the limit is turned away before anything is written for it.
+ * <p>
+ * With {@code admission.adaptive.mode=AIMD} each limit follows the latency of its own family: one more for a
+ * message completed within the threshold while the limit is in use, a multiplicative cut for a slow or failed one.
+ */
+@Slf4j
+@Component
+public class AdmissionControl implements MeterBinder {
+
+    private static final Permit UNLIMITED = new Permit(null);
+
+    private final AdmissionProperties properties;
+
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+
+    public AdmissionControl(AdmissionProperties properties) {
+        this.properties = properties;
+        properties.getLimits().forEach((family, limit) -> limits.put(family, new Limit(family, limit)));
+        limits.computeIfAbsent(AdmissionProperties.OTHER, family -> new Limit(family, AdmissionProperties.DEFAULT_OTHER_LIMIT));
+    }
+
+    /**
+     * A permit for a message of this type, or null when its family is at its limit. The permit must be released
+     * exactly once, when the response is known.
+     */
+    public Permit tryAcquire(String msgType) {
+        if (!properties.isEnabled()) {
+            return UNLIMITED;
+        }
+        Limit limit = limits.get(family(msgType));
+        if (limit == null) {
+            limit = limits.get(AdmissionProperties.OTHER);
+        }
+        return limit.tryAcquire() ? new Permit(limit) : null;
+    }
+
+    /**
+     * The family's current limit, for the rejection log.
+     */
+    public int limit(String msgType) {
+        Limit limit = limits.getOrDefault(family(msgType), limits.get(AdmissionProperties.OTHER));
+        return limit.current();
+    }
+
+    static String family(String msgType) {
+        if (msgType == null) {
+            return AdmissionProperties.OTHER;
+        }
+        String type = msgType.trim();
+        int dot = type.indexOf('.');
+        return (dot < 0 ? type : type.substring(0, dot)).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        limits.values().forEach(limit -> {
+            Gauge.builder("sfms.admission.limit", limit, Limit::current)
+                    .description("Messages of the family allowed in flight")
+                    .tag("family", limit.family)
+                    .register(registry);
+            Gauge.builder("sfms.admission.in.flight", limit.inFlight, AtomicInteger::get)
+                    .description("Messages of the family in flight")
+                    .tag("family", limit.family)
+                    .register(registry);
+            FunctionCounter.builder("sfms.admission.rejected", limit.rejected, AtomicLong::get)
+                    .description("Messages of the family answered 503 at the limit")
+                    .tag("family", limit.family)
+                    .register(registry);
+        });
+    }
+
+    public static final class Permit {
+
+        private final Limit limit;
+
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Releases the permit; a failed message counts as a slow one for AIMD.
+         */
+        public void release(boolean success) {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.release(success, System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * Releases the permit without a sample, for a message whose outcome is not known, e.g. cancelled.
+         */
+        public void abandon() {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private final class Limit {
+
+        private final String family;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        // Fractional so that the multiplicative cut of a small limit still moves it
+        private double limit;
+
+        private Limit(String family, int limit) {
+            this.family = family;
+            this.limit = Math.max(1, limit);
+        }
+
+        private synchronized int current() {
+            return (int) limit;
+        }
+
+        private boolean tryAcquire() {
+            int max = current();
+            for (int current = inFlight.get(); current < max; current = inFlight.get()) {
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        private void release(boolean success, long nanos) {
+            int inFlightBefore = inFlight.getAndDecrement();
+            AdmissionProperties.Adaptive adaptive = properties.getAdaptive();
+            if (adaptive.getMode() != AdmissionProperties.Adaptive.Mode.AIMD) {
+                return;
+            }
+            synchronized (this) {
+                double before = limit;
+                if (!success || nanos > adaptive.getLatencyThreshold().toNanos()) {
+                    limit = Math.max(adaptive.getMinLimit(), limit * adaptive.getBackoffRatio());
+                } else if (inFlightBefore * 2 >= limit) {
+                    // Only grow a limit that is being used, or an idle family would grow without bound
+                    limit = Math.min(adaptive.getMaxLimit(), limit + 1);
+                }
+                if ((int) before != (int) limit) {
+                    log.debug("Admission limit for {} now {}", family, (int) limit);
+                }
+            }
+        }
+    }
+}
@@ -2,13 +2,19 @@ package com.hdfcbank.sfmsconsumer.service;
 
 import com.hdfcbank.sfmsconsumer.config.BatchIdXPathConfig;
 import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 
-import static com.hdfcbank.sfmsconsumer.utils.Constants.MSGDEFIDR_XPATH;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
 import static com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility.toXmlDocument;
 
 @Slf4j
@@ -21,6 +27,21 @@ public class BatchIdXmlFieldExtractor {
 
     private final BatchIdXPathConfig batchIdXPathMap;
 
+    /**
+     * Compiles the header XPaths and every configured batch id XPath so bad config stops startup.
+     */
+    @PostConstruct
+    public void precompileXPaths() {
+        List<String> expressions = new ArrayList<>(List.of(MSGID_XPATH, MSGDEFIDR_XPATH, BATCH_CREDT_XPATH));
+        if (batchIdXPathMap.getXpaths() != null) {
+            batchIdXPathMap.getXpaths().values().stream()
+                    .filter(Objects::nonNull)
+                    .filter(xpath -> !xpath.trim().isEmpty())
+                    .forEach(expressions::add);
+        }
+        sfmsConsmrCommonUtility.precompile(expressions);
+        log.info("Precompiled {} XPath expressions", expressions.size());
+    }
 
     public String extractFieldByFileType(String xmlString) throws Exception {
         Document document = toXmlDocument(xmlString);
@@ -31,6 +52,13 @@ public class BatchIdXmlFieldExtractor {
             return null;
         }
 
+        return extractFieldByFileType(document, msgDefIdr);
+    }
+
+    /**
+     * Same as {@link #extractFieldByFileType(String)} for an already parsed document whose MsgDefIdr is known.
+     */
+    public String extractFieldByFileType(Document document, String msgDefIdr) throws XPathExpressionException {
         String targetXPath = batchIdXPathMap.getXPathForFileType(msgDefIdr.trim());
 
         if (targetXPath == null || targetXPath.trim().isEmpty()) {
@@ -42,4 +70,3 @@ public class BatchIdXmlFieldExtractor {
         return sfmsConsmrCommonUtility.getValueByXPath(document, targetXPath);
     }
 }
-
@@ -1,6 +1,5 @@
 package com.hdfcbank.sfmsconsumer.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hdfcbank.sfmsconsumer.config.InvalidAndExceptionMsgTopic;
 import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
 import com.hdfcbank.sfmsconsumer.exception.SFMSException;
@@ -8,99 +7,105 @@ import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
 import com.hdfcbank.sfmsconsumer.model.Body;
 import com.hdfcbank.sfmsconsumer.model.ExceptionDetail;
 import com.hdfcbank.sfmsconsumer.model.Header;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
 import com.hdfcbank.sfmsconsumer.model.ReqPayload;
-import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import com.hdfcbank.sfmsconsumer.utils.ReqPayloadJson;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
-import static com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility.toXmlDocument;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class BuildJsonReq {
 
-    @Autowired
-    private SfmsConsmrCommonUtility sfmsConsmrCommonUtility;
-
     @Autowired
     KafkaUtils kafkaUtils;
 
-    @Autowired
-    BatchIdXmlFieldExtractor batchIdXmlFieldExtractor;
-
     private final TargetProcessorTopicConfig config;
 
     private final InvalidAndExceptionMsgTopic topicDetails;
 
-    public String buildRequest(String xml[]) {
-        String xmlMessage = xml[0] + xml[1];
-        String json = null;
-        String msgId = null;
-        String msgDefIdr = null;
-        String target = null;
-        String batchId = null;
-        String batchDateTime = null;
+    public String buildRequest(MessageEnvelope envelope) {
+        return buildRequest(envelope, ReqPayloadJson::write);
+    }
+
+    /**
+     * Builds the processor request as UTF-8 JSON bytes, for {@code dapr.publish.raw-json-data} where they are
+     * published as they are, without a {@code String} copy of the envelope. Returns null after routing the message
+     * to the exception topic if serialization fails.
+     */
+    public byte[] buildRequestJson(MessageEnvelope envelope) {
+        return buildRequest(envelope, ReqPayloadJson::writeUtf8);
+    }
+
+    private <T> T buildRequest(MessageEnvelope envelope, PayloadWriter<T> writer) {
+        T json = null;
+        String msgId = envelope.getMsgId();
+        String msgDefIdr = envelope.getMsgType();
+        String batchId = envelope.getBatchId();
+        String batchDateTime = envelope.getBatchCreDt();
         try {
-            Document document = toXmlDocument(xml[1]);
-            msgDefIdr = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
-            msgId = sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH);
-            target = config.getProcessorFileType(msgDefIdr.trim());
-            batchId = batchIdXmlFieldExtractor.extractFieldByFileType(xml[1]);
-            batchDateTime = sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH);
+            String target = config.getProcessorFileType(msgDefIdr.trim());
 
             log.info("msgDefIdr : {}", msgDefIdr);
             // log.info("Xml Message : " + xmlMessage);
 
-
-            Header header = Header.builder()
-                    .msgId(msgId)
-                    .msgType(msgDefIdr)
-                    .source(SFMS)
-                    .target(target)
-                    .flowType(INWARD)
-                    .replayInd(false)
-                    .replayCount(0)
-                    .prefix(xml[0])
-                    .status(CAPTURED)
-                    .batchCreDt(batchDateTime)
-                    .batchId(batchId)
-                    .build();
-
-            Body body = Body.builder()
-                    .payload(xml[1])
-                    .build();
-
-            ExceptionDetail exceptionDetail = ExceptionDetail.builder()
-                    .exceptionType(null)
-                    .exceptionDesc(null)
-                    .build();
-
-            ReqPayload reqPayload = ReqPayload.builder()
-                    .header(header)
-                    .body(body)
-                    .exceptionDetail(exceptionDetail)
-                    .build();
-
-            ObjectMapper mapper = new ObjectMapper();
-            json = mapper.writeValueAsString(reqPayload);
-            log.info("Json : {}", json);
+            json = writer.write(buildReqPayload(envelope, target));
+            log.info("Json built for msgId {}", msgId);
+            if (log.isDebugEnabled()) {
+                log.debug("Json : {}", json instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : json);
+            }
 
         } catch (Exception e) {
             log.error(e.toString());
             log.error("Error generating JSON ");
             log.error("Routing failed message to exception topic due to error: {}", e.getMessage());
-            String errjson = handleExceptionRouting(xml, e, msgId, msgDefIdr, batchId, batchDateTime, JSON_PROCESSING_ERROR);
-            kafkaUtils.publishToKafkaTopic(errjson, topicDetails.getExceptionTopic(), msgId);
+            String errjson = handleExceptionRouting(envelope.toXmlParts(), e, msgId, msgDefIdr, batchId, batchDateTime, JSON_PROCESSING_ERROR);
+            kafkaUtils.publishToKafkaTopic(errjson, topicDetails.getExceptionTopic(), msgId)
+                    .subscribe(unused -> {}, error -> log.error("Failed to route msgId {} to exception topic", msgId, error));
         }
 
         return json;
     }
 
+    private ReqPayload buildReqPayload(MessageEnvelope envelope, String target) {
+        Header header = Header.builder()
+                .msgId(envelope.getMsgId())
+                .msgType(envelope.getMsgType())
+                .source(SFMS)
+                .target(target)
+                .flowType(INWARD)
+                .replayInd(false)
+                .replayCount(0)
+                .prefix(envelope.getPrefix())
+                .status(CAPTURED)
+                .batchCreDt(envelope.getBatchCreDt())
+                .batchId(envelope.getBatchId())
+                .build();
+
+        Body body = Body.builder()
+                .payload(envelope.getBody())
+                .build();
+
+        ExceptionDetail exceptionDetail = ExceptionDetail.builder()
+                .exceptionType(null)
+                .exceptionDesc(null)
+                .build();
+
+        return ReqPayload.builder()
+                .header(header)
+                .body(body)
+                .exceptionDetail(exceptionDetail)
+                .build();
+    }
+
     /**
      * Handles routing failed messages to Kafka exception topic with code.
      *
@@ -139,8 +144,7 @@ public class BuildJsonReq {
             reqPayload.setExceptionDetail(exceptionDetail);
 
             //Send it to Exception Topic
-            ObjectMapper mapper = new ObjectMapper();
-            json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(reqPayload);
+            json = ReqPayloadJson.write(reqPayload);
 
         } catch (Exception e) {
             log.error("Json Processing Error: {}", e.getMessage(), e);
@@ -148,4 +152,10 @@ public class BuildJsonReq {
         }
         return json;
     }
+
+    @FunctionalInterface
+    private interface PayloadWriter<T> {
+
+        T write(ReqPayload reqPayload) throws IOException;
+    }
 }
@@ -4,10 +4,12 @@ package com.hdfcbank.sfmsconsumer.service;
 import com.hdfcbank.sfmsconsumer.config.BypassProperties;
 import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
 import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.exception.SFMSConsumerException;
 import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
 import com.hdfcbank.sfmsconsumer.model.AdmiTracker;
 import com.hdfcbank.sfmsconsumer.model.AuditStatus;
 import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
+import com.hdfcbank.sfmsconsumer.utils.DocumentBuilderPool;
 import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import io.r2dbc.spi.R2dbcTransientResourceException;
@@ -20,8 +22,6 @@ import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 import reactor.core.publisher.Mono;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.StringReader;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -58,58 +58,70 @@ public class BypassService {
     }
 
     public void sendToBypassSwitch(String xml[]) {
+        publishToBypassSwitch(xml)
+                .subscribe(status -> {
+                    log.info("Insert result: {}", status);
+                }, error -> {
+                    log.error("Error in insert", error);
+                });
+    }
 
-        String topic = null;
-        String msgId = null;
-        String target = null;
-        String msgType = null;
-        String batchId = null;
-        try {
-            String switchName = bypassProperties.getDefaultSwitch();
-            if (switchName == null || switchName.isBlank()) {
-                throw new IllegalStateException("No default switch configured in application.yml");
-            }
-
-            topic = bypassProperties.getTopicForSwitch(switchName);
-            if (topic == null) {
-                throw new IllegalArgumentException("No topic configured for switch: " + switchName);
+    /**
+     * Publishes the message to the default switch's topic, then audits it. Completes with the audit status, or
+     * ERROR once a message that could not be published or parsed has been routed as invalid. Nothing is sent
+     * until subscription.
+     */
+    public Mono<AuditStatus> publishToBypassSwitch(String xml[]) {
+        return Mono.defer(() -> {
+            String topic = null;
+            String msgId = null;
+            String target = null;
+            String msgType = null;
+            String batchId = null;
+            try {
+                String switchName = bypassProperties.getDefaultSwitch();
+                if (switchName == null || switchName.isBlank()) {
+                    throw new IllegalStateException("No default switch configured in application.yml");
+                }
+
+                topic = bypassProperties.getTopicForSwitch(switchName);
+                if (topic == null) {
+                    throw new IllegalArgumentException("No topic configured for switch: " + switchName);
+                }
+
+                Document document = DocumentBuilderPool.parse(new InputSource(new StringReader(xml[1])), false);
+
+                msgId = sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH);
+                msgType = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
+                target = bypassProperties.getDefaultSwitch();
+                batchId = batchIdXmlFieldExtractor.extractFieldByFileType(document, msgType);
+                String batchDateTime = sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH);
+                Instant instant = Instant.parse(batchDateTime);
+                LocalDateTime localDateTime = instant.atZone(ZoneId.of("UTC")).toLocalDateTime();
+
+
+                log.info("Bypass enabled — sending message to switch '{}' (topic '{}')", switchName, topic);
+                Mono<AuditStatus> auditStatusMono = msgType.contains(ADMI)
+                        ? handleAdmiTracker(xml, msgId, msgType, target, localDateTime, topic)
+                        : handleMsgEventTracker(xml, msgId, msgType, target, batchId, localDateTime, topic);
+
+                final String finalMsgId = msgId;
+                final String finalTopic = topic;
+                final String finalMsgType = msgType;
+                final String finalTarget = target;
+                return kafkaUtils.publishToKafkaTopic(xml[0] + xml[1], topic, msgId)
+                        .then(auditStatusMono)
+                        .onErrorResume(SFMSConsumerException.KafkaException.class, e -> {
+                            saveInvalidByPassMsgAndSendToKafka(xml, finalMsgId, finalTopic, finalMsgType, finalTarget, null);
+                            return Mono.just(AuditStatus.ERROR);
+                        });
+
+            } catch (Exception e) {
+
+                saveInvalidByPassMsgAndSendToKafka(xml, msgId, topic, msgType, target,null);
+                return Mono.just(AuditStatus.ERROR);
             }
-
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = null;
-
-            builder = factory.newDocumentBuilder();
-
-            Document document = builder.parse(new InputSource(new StringReader(xml[1])));
-
-            msgId = sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH);
-            msgType = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
-            target = bypassProperties.getDefaultSwitch();
-            batchId = batchIdXmlFieldExtractor.extractFieldByFileType(xml[1]);
-            String batchDateTime = sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH);
-            Instant instant = Instant.parse(batchDateTime);
-            LocalDateTime localDateTime = instant.atZone(ZoneId.of("UTC")).toLocalDateTime();
-
-
-            log.info("Bypass enabled — sending message to switch '{}' (topic '{}')", switchName, topic);
-            kafkaUtils.publishToKafkaTopic(topic, xml[0] + xml[1], msgId);
-            Mono<AuditStatus> auditStatusMono = msgType.contains(ADMI)
-                    ? handleAdmiTracker(xml, msgId, msgType, target, localDateTime, topic)
-                    : handleMsgEventTracker(xml, msgId, msgType, target, batchId, localDateTime, topic);
-
-            auditStatusMono.subscribe(status -> {
-                log.info("Insert result: {}", status);
-            }, error -> {
-                log.error("Error in insert", error);
-            });
-
-        } catch (Exception e) {
-
-            saveInvalidByPassMsgAndSendToKafka(xml, msgId, topic, msgType, target,null);
-
-        }
-
+        });
     }
 
 
@@ -128,7 +140,7 @@ public class BypassService {
 
         return sfmsConsumerRepository.saveDataInAdmiTrackerByPassEnabled(admiTracker)
                 .flatMap(status -> {
-                    if (status == AuditStatus.DUPLICATE) {
+                    if (status == AuditStatus.DUPLICATE && !sfmsConsumerRepository.isUpsertEnabled()) {
                         log.warn("Duplicate entry for msgId: {} — updating version", msgId);
                         return sfmsConsumerRepository.incrementAdmiTrackerVersion(msgId)
                                 .thenReturn(AuditStatus.DUPLICATE);
@@ -178,7 +190,7 @@ public class BypassService {
 
         return sfmsConsumerRepository.saveDataInMsgEventTrackerByPassEnabled(msgEventTracker)
                 .flatMap(status -> {
-                    if (status == AuditStatus.DUPLICATE) {
+                    if (status == AuditStatus.DUPLICATE && !sfmsConsumerRepository.isUpsertEnabled()) {
                         log.warn("Duplicate entry for msgId: {} — updating version", msgId);
                         return sfmsConsumerRepository.incrementMsgEventTrackerVersion(msgId)
                                 .thenReturn(AuditStatus.DUPLICATE);
@@ -212,27 +224,29 @@ public class BypassService {
 
 
     private void saveInvalidByPassMsgAndSendToKafka(String[] xml, String msgId, String topic, String msgType, String target, String batchId) {
-        String messageId = "";
-
-        if (msgId == null || msgId.isBlank()) {
-            // Try extracting from concatenated XML parts
-            messageId = sfmsConsmrCommonUtility.getMsgId(xml[0] + xml[1]);
-            msgId = messageId;
-            if (messageId == null || messageId.isBlank()) {
-                log.warn("MsgId is Null");
+        String message = xml[0] + xml[1];
+
+        if (msgId == null || msgId.isBlank() || msgType == null) {
+            // Try extracting from concatenated XML parts, in one pass for both fields
+            SfmsConsmrCommonUtility.FallbackFields fields = sfmsConsmrCommonUtility.extractFallbackFields(message);
+            if (msgId == null || msgId.isBlank()) {
+                msgId = fields.msgId();
+                if (msgId == null || msgId.isBlank()) {
+                    log.warn("MsgId is Null");
+                }
             }
+            if (msgType == null)
+                msgType = fields.msgType();
         }
         if (target==null)
             target=bypassProperties.getDefaultSwitch();
 
-        if(msgType==null)
-            msgType= sfmsConsmrCommonUtility.getMsgType(xml[0]+xml[1]);
-
-        kafkaUtils.publishToKafkaTopic(xml[0] + xml[1], topic, msgId);
+        String finalMsgId = msgId;
+        kafkaUtils.publishToKafkaTopic(message, topic, msgId)
+                .subscribe(unused -> {}, error -> log.error("Failed to publish bypass payload for msgId {}", finalMsgId, error));
 
 
-        String finalMsgId = msgId;
-        sfmsConsumerRepository.saveDataInInvalidPayload(msgId, msgType, xml[0] + xml[1], target, true)
+        sfmsConsumerRepository.saveDataInInvalidPayload(msgId, msgType, message, target, true)
                 .subscribe(status -> log.info("Bypass record saved for msgId {}: {}", finalMsgId, status),
                         error -> log.error("Failed to save bypass payload for msgId {}: {}", finalMsgId, error.getMessage(), error));
     }
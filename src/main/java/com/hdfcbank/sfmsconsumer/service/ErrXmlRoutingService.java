@@ -2,12 +2,12 @@ package com.hdfcbank.sfmsconsumer.service;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hdfcbank.sfmsconsumer.config.InvalidAndExceptionMsgTopic;
 import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
 import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
 import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
 import com.hdfcbank.sfmsconsumer.model.*;
+import com.hdfcbank.sfmsconsumer.utils.ReqPayloadJson;
 import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +42,9 @@ public class ErrXmlRoutingService {
 
     private final InvalidAndExceptionMsgTopic topicDetails;
 
+    // Every write below waits for a database permit of the message's lane
+    private final PriorityLanes priorityLanes;
+
     /**
      * Determine the topic based on keyword matches in raw XML.
      */
@@ -50,14 +53,12 @@ public class ErrXmlRoutingService {
 
         try {
             log.info("Error message received: determineTopic");
-            String lowerMsg = xmlMessage.toLowerCase();
-
             // Step 1: Find matching processor from config
-            Optional<Map.Entry<String, String>> targetProcessor = config.getProcessor().entrySet().stream()
-                    .filter(e -> lowerMsg.contains(e.getKey().toLowerCase()))
-                    .findFirst();
-            String msgId = sfmsConsmrCommonUtility.getMsgId(xmlMessage);
-            String messageType = sfmsConsmrCommonUtility.getMsgType(xmlMessage);
+            Optional<Map.Entry<String, String>> targetProcessor = config.findProcessorIn(xmlMessage);
+            // One pass over the (possibly large, malformed) payload for every field needed below
+            SfmsConsmrCommonUtility.FallbackFields fields = sfmsConsmrCommonUtility.extractFallbackFields(xmlMessage);
+            String msgId = fields.msgId();
+            String messageType = fields.msgType();
             String defaultTarget=  topicDetails.getDefaultInvalidMsgSwitch();
             // Case 1: No matching processor — route to default invalid topic
             if (targetProcessor.isEmpty() || (msgId == null || messageType ==null)) {
@@ -65,7 +66,8 @@ public class ErrXmlRoutingService {
 
                     return kafkaUtils.publishToKafkaTopic(xmlMessage, topicDetails.getDefaultInvalidMsgTopic(), msgId)
                             .then(
-                                    sfmsConsumerRepository.saveDataInInvalidPayload(msgId, messageType, xmlMessage, defaultTarget, false)
+                                    priorityLanes.lane(messageType).databaseFollowUp(
+                                            sfmsConsumerRepository.saveDataInInvalidPayload(msgId, messageType, xmlMessage, defaultTarget, false))
                                             .doOnSuccess(status ->
                                                     log.info("Message saved in invalid_payload and sent to default switch {}", defaultTarget)
                                             )
@@ -81,33 +83,33 @@ public class ErrXmlRoutingService {
             String target = targetProcessor.map(Map.Entry::getValue).orElse(null);
             String msgType = targetProcessor.get().getKey();
             String topic = config.getTopicFileType(target);
-            if (msgType == null) msgType = sfmsConsmrCommonUtility.getMsgType(xmlMessage);
+            if (msgType == null) msgType = messageType;
 
-            reqPayload = setReqPayloadFields(xmlMessage, msgType, target);
-            ObjectMapper mapper = new ObjectMapper();
-            String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(reqPayload);
+            reqPayload = setReqPayloadFields(xmlMessage, msgId, msgType, target);
+            String json = ReqPayloadJson.write(reqPayload);
 
-            String batchId = sfmsConsmrCommonUtility.extractBatchIdValue(xmlMessage);
+            String batchId = fields.batchId();
 
             log.info("msgId: {}, msgType: {}, reqPayload: {}", msgId, msgType, reqPayload);
 
             // Update status after publishing
             String finalMsgId = msgId;
+            PriorityLanes.Lane lane = priorityLanes.lane(msgType);
             if (msgType.toLowerCase().contains("admi")) {
-                return admiErrorMessageAudit(xmlMessage, msgType, msgId,target)
+                return lane.databaseFollowUp(admiErrorMessageAudit(xmlMessage, msgType, msgId,target))
                         .doOnSubscribe(sub -> log.info("Auditing ADMI message for msgId={}", finalMsgId))
                         .then(kafkaUtils.publishToKafkaTopic(json, topic, finalMsgId))
                         .doOnSuccess(unused -> log.info(" Published ADMI message to topic={} for msgId={}", topic, finalMsgId))
-                        .then(sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType)
+                        .then(lane.databaseFollowUp(sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType))
                                 .doOnNext(status -> log.info(" Updated status to SEND_TO_PROCESSOR for msgId={} status={}", finalMsgId, status)))
                         .then();
             } else {
 
-                return mvtErrorMessageAudit(xmlMessage, msgType,msgId,target)
+                return lane.databaseFollowUp(mvtErrorMessageAudit(xmlMessage, msgType, msgId, target, batchId))
                         .doOnSubscribe(sub -> log.info("Auditing MVT message for msgId={}", finalMsgId))
                         .then(kafkaUtils.publishToKafkaTopic(json, topic, finalMsgId))
                         .doOnSuccess(unused -> log.info(" Published MVT message to topic={} for msgId={}", topic, finalMsgId))
-                        .then(sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType)
+                        .then(lane.databaseFollowUp(sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType))
                                 .doOnNext(status -> log.info(" Updated status to SEND_TO_PROCESSOR for msgId={} status={}", finalMsgId, status)))
                         .then();
             }
@@ -133,7 +135,10 @@ public class ErrXmlRoutingService {
      * Save MVT error message and handle duplicates by incrementing version.
      */
     public Mono<AuditStatus> mvtErrorMessageAudit(String errorReq, String msgType, String msgId, String target) {
-        String batchId = sfmsConsmrCommonUtility.extractBatchIdValue(errorReq);
+        return mvtErrorMessageAudit(errorReq, msgType, msgId, target, sfmsConsmrCommonUtility.extractBatchIdValue(errorReq));
+    }
+
+    private Mono<AuditStatus> mvtErrorMessageAudit(String errorReq, String msgType, String msgId, String target, String batchId) {
         MsgEventTracker tracker = MsgEventTracker.builder()
                 .msgId(msgId)
                 .orgnlReq(errorReq)
@@ -147,7 +152,7 @@ public class ErrXmlRoutingService {
 
         return sfmsConsumerRepository.saveDataInMsgEventTracker(tracker)
                 .flatMap(status -> {
-                    if (status == AuditStatus.DUPLICATE) {
+                    if (status == AuditStatus.DUPLICATE && !sfmsConsumerRepository.isUpsertEnabled()) {
                         log.warn("Duplicate entry detected for msgId {} — incrementing version", tracker.getMsgId());
                         return sfmsConsumerRepository.incrementMsgEventTrackerVersion(tracker.getMsgId())
                                 .thenReturn(AuditStatus.DUPLICATE);
@@ -174,7 +179,7 @@ public class ErrXmlRoutingService {
 
         return sfmsConsumerRepository.saveDataInAdmiTracker(admiTracker)
                 .flatMap(status -> {
-                    if (status == AuditStatus.DUPLICATE) {
+                    if (status == AuditStatus.DUPLICATE && !sfmsConsumerRepository.isUpsertEnabled()) {
                         log.warn("Duplicate entry detected for msgId {} — incrementing version", admiTracker.getMsgId());
                         return sfmsConsumerRepository.incrementAdmiTrackerVersion(admiTracker.getMsgId())
                                 .thenReturn(AuditStatus.DUPLICATE);
@@ -187,8 +192,7 @@ public class ErrXmlRoutingService {
                 });
     }
 
-    private ReqPayload setReqPayloadFields(String xmlMessage, String msgType, String targetProcessor) {
-        String msgId = sfmsConsmrCommonUtility.getMsgId(xmlMessage);
+    private ReqPayload setReqPayloadFields(String xmlMessage, String msgId, String msgType, String targetProcessor) {
         Header header = Header.builder()
                 .msgId(msgId)
                 .msgType(msgType)
@@ -1,25 +1,22 @@
 package com.hdfcbank.sfmsconsumer.service;
 
 
+import com.hdfcbank.sfmsconsumer.config.DuplicateCacheProperties;
 import com.hdfcbank.sfmsconsumer.config.InvalidAndExceptionMsgTopic;
 import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
 import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
 import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
 import com.hdfcbank.sfmsconsumer.model.AdmiTracker;
 import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
 import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
-import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 import reactor.core.publisher.Mono;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.StringReader;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -34,14 +31,8 @@ public class IncomingMsgAudit {
     @Autowired
     private final SFMSConsumerRepository sfmsConsumerRepository;
 
-    @Autowired
-    private final SfmsConsmrCommonUtility sfmsConsmrCommonUtility;
-
     private final TargetProcessorTopicConfig config;
 
-    @Autowired
-    private final BatchIdXmlFieldExtractor batchIdXmlFieldExtractor;
-
     @Autowired
     private final BuildJsonReq buildJsonReq;
 
@@ -51,30 +42,26 @@ public class IncomingMsgAudit {
     @Autowired
     private InvalidAndExceptionMsgTopic topic;
 
+    @Autowired
+    private final RecentMessageCache recentMessageCache;
+
+    // Has a bean only when tracker.batch-insert.enabled and tracker.upsert-enabled are true
+    private final ObjectProvider<MsgEventTrackerBatchWriter> msgEventTrackerBatchWriter;
 
-    public Mono<AuditStatus> auditIncomingMessage(String[] xmlMessage) {
+
+    public Mono<AuditStatus> auditIncomingMessage(MessageEnvelope envelope) {
         return Mono.defer(() -> {
-            String jsonReq = null;
-            String msgId = null;
-            String msgType = null;
+            String[] xmlMessage = envelope.toXmlParts();
+            String msgId = envelope.getMsgId();
+            String msgType = envelope.getMsgType();
             String target = null;
-            String batchId = null;
-            String batchDateTime = null;
+            String batchId = envelope.getBatchId();
+            String batchDateTime = envelope.getBatchCreDt();
             try {
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                factory.setNamespaceAware(true);
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                Document document = builder.parse(new InputSource(new StringReader(xmlMessage[1])));
-
-                msgId = sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH);
-                msgType = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
                 target = config.getProcessorFileType(msgType);
-                batchId = batchIdXmlFieldExtractor.extractFieldByFileType(xmlMessage[1]);
-                batchDateTime = sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH);
 
                 Instant instant = Instant.parse(batchDateTime);
                 LocalDateTime localDateTime = instant.atZone(ZoneId.of("UTC")).toLocalDateTime();
-                jsonReq = buildJsonReq.buildRequest(xmlMessage);
 
                 return msgType.contains(ADMI)
                         ? handleAdmiTracker(xmlMessage, msgId, msgType, target, localDateTime)
@@ -84,8 +71,8 @@ public class IncomingMsgAudit {
                 log.error("Error during message audit: {}", e.getMessage(), e);
                 log.error("Routing failed message to exception topic due to error: {}", e.getMessage());
                 String errjson = buildJsonReq.handleExceptionRouting(xmlMessage, e, msgId, msgType, batchId, batchDateTime, DATABASE_ERROR);
-                kafkaUtils.publishToKafkaTopic(errjson, topic.getExceptionTopic(), msgId);
-                return Mono.just(AuditStatus.ERROR);
+                return kafkaUtils.publishToKafkaTopic(errjson, topic.getExceptionTopic(), msgId)
+                        .thenReturn(AuditStatus.ERROR);
             }
         });
     }
@@ -114,7 +101,7 @@ public class IncomingMsgAudit {
                     } else if (status == AuditStatus.SEND_TO_DISPATCHER) {
                         log.info("SEND_TO_DISPATCHER detected for msgId: {} — treating as DUPLICATE", msgId);
                         return Mono.just(AuditStatus.DUPLICATE);
-                    } else if (status == AuditStatus.DUPLICATE) {
+                    } else if (status == AuditStatus.DUPLICATE && !sfmsConsumerRepository.isUpsertEnabled()) {
                         log.warn("Generic DUPLICATE detected for msgId: {} — incrementing version", msgId);
                         return sfmsConsumerRepository.incrementAdmiTrackerVersion(msgId)
                                 .thenReturn(AuditStatus.DUPLICATE);
@@ -138,8 +125,8 @@ public class IncomingMsgAudit {
                     if (isDbDown) {
                         // Database down → publish original XML to negative ACK topic
                         log.error("Database DOWN detected for msgId {}: {}", msgId, errMsg);
-                        kafkaUtils.publishToKafkaTopic(xmlMessage[0] + xmlMessage[1], target, msgId);
-                        return Mono.just(AuditStatus.ERROR);
+                        return kafkaUtils.publishToKafkaTopic(xmlMessage[0] + xmlMessage[1], target, msgId)
+                                .thenReturn(AuditStatus.ERROR);
                     }
 
                     // Other database or runtime exceptions
@@ -150,8 +137,8 @@ public class IncomingMsgAudit {
                             xmlMessage, ex, msgId, msgType, null,
                             batchDateTime != null ? batchDateTime.toString() : "", DATABASE_ERROR);
 
-                    kafkaUtils.publishToKafkaTopic(errJson, topic.getExceptionTopic(), msgId);
-                    return Mono.just(AuditStatus.ERROR);
+                    return kafkaUtils.publishToKafkaTopic(errJson, topic.getExceptionTopic(), msgId)
+                            .thenReturn(AuditStatus.ERROR);
                 });
     }
 
@@ -171,8 +158,22 @@ public class IncomingMsgAudit {
                 .batchCreationTimestamp(batchDateTime)
                 .build();
 
-        return sfmsConsumerRepository.saveDataInMsgEventTracker(msgEventTracker)
+        AuditStatus cached = recentMessageCache.predict(msgId, SFMS, target, batchId);
+        if (cached != null && recentMessageCache.mode() == DuplicateCacheProperties.Mode.ENFORCE) {
+            recentMessageCache.recordShortCircuit(msgId);
+            return Mono.just(cached);
+        }
+
+        MsgEventTrackerBatchWriter batchWriter = msgEventTrackerBatchWriter.getIfAvailable();
+        Mono<AuditStatus> saved = batchWriter != null
+                ? batchWriter.save(msgEventTracker)
+                : sfmsConsumerRepository.saveDataInMsgEventTracker(msgEventTracker);
+
+        return saved
                 .flatMap(status -> {
+                    if (status == AuditStatus.SUCCESS) {
+                        recentMessageCache.captured(msgId, SFMS, target, batchId);
+                    }
 
                     // New handling logic for specific duplicate types
                     if (status == AuditStatus.CAPTURED_DUPLICATE) {
@@ -188,6 +189,7 @@ public class IncomingMsgAudit {
 
                     return Mono.just(status);
                 })
+                .doOnNext(status -> recentMessageCache.verify(msgId, cached, status))
                 .onErrorResume(ex -> {
 
                     String errMsg = ex.getMessage() != null ? ex.getMessage() : "Unknown database error";
@@ -203,17 +205,16 @@ public class IncomingMsgAudit {
                     if (isDbDown) {
                         // Database down → send original XML to negative ACK topic
                         log.error("Database DOWN detected for msgId {}: {}", msgId, errMsg);
-                        kafkaUtils.publishToKafkaTopic(xmlMessage[0] + xmlMessage[1], target, msgId);
-                        return Mono.just(AuditStatus.ERROR);
+                        return kafkaUtils.publishToKafkaTopic(xmlMessage[0] + xmlMessage[1], target, msgId)
+                                .thenReturn(AuditStatus.ERROR);
                     }
 
                     log.error("Error while saving MsgEventTracker for msgId {}: {}", msgId, ex.getMessage(), ex);
                     log.error("Routing failed message to exception topic due to error");
                     String errJson = buildJsonReq.handleExceptionRouting(
                             xmlMessage, ex, msgId, msgType, batchId, batchDateTime.toString(), DATABASE_ERROR);
-                    kafkaUtils.publishToKafkaTopic(errJson, topic.getExceptionTopic(), msgId);
-
-                    return Mono.just(AuditStatus.ERROR);
+                    return kafkaUtils.publishToKafkaTopic(errJson, topic.getExceptionTopic(), msgId)
+                            .thenReturn(AuditStatus.ERROR);
                 });
     }
 
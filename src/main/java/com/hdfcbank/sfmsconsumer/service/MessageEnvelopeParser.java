@@ -0,0 +1,130 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.HeaderExtractionProperties;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import com.hdfcbank.sfmsconsumer.model.RawRequest;
+import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPathExpressionException;
+import java.io.IOException;
+import java.util.Objects;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
+import static com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility.toStrictXmlDocument;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class MessageEnvelopeParser {
+
+    private final SfmsConsmrCommonUtility sfmsConsmrCommonUtility;
+
+    private final BatchIdXmlFieldExtractor batchIdXmlFieldExtractor;
+
+    private final StreamingHeaderExtractor streamingHeaderExtractor;
+
+    private final HeaderExtractionProperties headerExtractionProperties;
+
+    /**
+     * Validates the body and extracts every header field the pipeline needs in a single parse.
+     */
+    public MessageEnvelope parse(String[] xmlMessage)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException, XMLStreamException {
+        switch (headerExtractionProperties.getMode()) {
+            case STREAMING -> {
+                MessageEnvelope envelope = streamingHeaderExtractor.extract(xmlMessage, true);
+                return envelope != null ? envelope : parseWithXPath(xmlMessage);
+            }
+            case COMPARE -> {
+                MessageEnvelope expected = parseWithXPath(xmlMessage);
+                compare(xmlMessage, expected);
+                return expected;
+            }
+            default -> {
+                return parseWithXPath(xmlMessage);
+            }
+        }
+    }
+
+    /**
+     * As {@link #parse(String[])}, with the parsers reading the request bytes in place. COMPARE, a diagnostic
+     * mode, decodes the parts and takes the String route.
+     */
+    public MessageEnvelope parse(RawRequest request)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException, XMLStreamException {
+        switch (headerExtractionProperties.getMode()) {
+            case STREAMING -> {
+                MessageEnvelope envelope = streamingHeaderExtractor.extract(request, true);
+                return envelope != null ? envelope : parseWithXPath(request);
+            }
+            case COMPARE -> {
+                return parse(new String[]{request.prefix(), request.body()});
+            }
+            default -> {
+                return parseWithXPath(request);
+            }
+        }
+    }
+
+    /**
+     * Wraps a message without parsing it, used when the bypass strategy handles its own extraction.
+     */
+    public MessageEnvelope unparsed(String[] xmlMessage) {
+        return MessageEnvelope.builder()
+                .prefix(xmlMessage[0])
+                .body(xmlMessage[1])
+                .build();
+    }
+
+    private MessageEnvelope parseWithXPath(String[] xmlMessage)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
+        return fieldsByXPath(toStrictXmlDocument(xmlMessage[1])).prefix(xmlMessage[0]).body(xmlMessage[1]).build();
+    }
+
+    private MessageEnvelope parseWithXPath(RawRequest request)
+            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException {
+        Document document = toStrictXmlDocument(request.bodyStream());
+        return fieldsByXPath(document).prefix(request.prefix()).body(request.body()).build();
+    }
+
+    private MessageEnvelope.MessageEnvelopeBuilder fieldsByXPath(Document document) throws XPathExpressionException {
+        String msgType = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
+        String batchId = msgType != null ? batchIdXmlFieldExtractor.extractFieldByFileType(document, msgType) : null;
+
+        return MessageEnvelope.builder()
+                .msgId(sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH))
+                .msgType(msgType)
+                .batchId(batchId)
+                .batchCreDt(sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH));
+    }
+
+    private void compare(String[] xmlMessage, MessageEnvelope expected) {
+        try {
+            MessageEnvelope streamed = streamingHeaderExtractor.extract(xmlMessage, true);
+            if (streamed == null) {
+                log.warn("Streaming extraction not applicable for msgId {}", expected.getMsgId());
+                return;
+            }
+            logMismatch("msgId", expected.getMsgId(), streamed.getMsgId(), expected);
+            logMismatch("msgType", expected.getMsgType(), streamed.getMsgType(), expected);
+            logMismatch("batchId", expected.getBatchId(), streamed.getBatchId(), expected);
+            logMismatch("batchCreDt", expected.getBatchCreDt(), streamed.getBatchCreDt(), expected);
+        } catch (XMLStreamException e) {
+            log.warn("Streaming extraction failed for msgId {} where XPath succeeded: {}", expected.getMsgId(), e.getMessage());
+        }
+    }
+
+    private void logMismatch(String field, String expected, String actual, MessageEnvelope envelope) {
+        if (!Objects.equals(expected, actual)) {
+            log.warn("Header extraction mismatch for msgId {} on {}: xpath='{}' streaming='{}'",
+                    envelope.getMsgId(), field, expected, actual);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.TrackerWriteProperties;
+import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
+import com.hdfcbank.sfmsconsumer.utils.MicroBatcher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects concurrent msg_event_tracker audits and writes each group with
+ * {@link SFMSConsumerRepository#saveDataInMsgEventTrackerBatch}. A group is written when it reaches
+ * {@code tracker.batch-insert.max-batch-size} or once its first audit has waited {@code tracker.batch-insert.linger}.
+ * Every caller gets its own status; a failed statement errors every caller of that group, which then takes the
+ * same database-error route as a failed single insert. Queuing, and restarting the queue if it fails, is done by
+ * {@link MicroBatcher}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "tracker", name = {"upsert-enabled", "batch-insert.enabled"}, havingValue = "true")
+public class MsgEventTrackerBatchWriter {
+
+    private final SFMSConsumerRepository sfmsConsumerRepository;
+
+    private final TrackerWriteProperties.BatchInsert properties;
+
+    private final MicroBatcher<MsgEventTracker, AuditStatus> batcher;
+
+    public MsgEventTrackerBatchWriter(SFMSConsumerRepository sfmsConsumerRepository,
+                                      TrackerWriteProperties trackerWriteProperties) {
+        this.sfmsConsumerRepository = sfmsConsumerRepository;
+        this.properties = trackerWriteProperties.getBatchInsert();
+        this.batcher = new MicroBatcher<>("Batch audit writer", properties.getMaxBatchSize(), properties.getLinger(),
+                properties.getMaxInFlight(), this::write);
+    }
+
+    /**
+     * Queues the row for the next batch; completes with the status {@code saveDataInMsgEventTracker} would return.
+     */
+    public Mono<AuditStatus> save(MsgEventTracker msgEventTracker) {
+        return batcher.submit(msgEventTracker);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Closing writes any partially filled batch; wait for it so no caller is left without a status
+        batcher.close()
+                .timeout(properties.getShutdownTimeout(), Mono.fromRunnable(() ->
+                        log.warn("Batch audit writer did not drain within {}", properties.getShutdownTimeout())))
+                .block();
+    }
+
+    private Mono<Void> write(List<MicroBatcher.Entry<MsgEventTracker, AuditStatus>> batch) {
+        List<MsgEventTracker> rows = new ArrayList<>(batch.size());
+        batch.forEach(pending -> rows.add(pending.item()));
+
+        return sfmsConsumerRepository.saveDataInMsgEventTrackerBatch(rows)
+                .doOnNext(statuses -> {
+                    log.debug("Audited {} messages in one statement", batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).success(statuses.get(i));
+                    }
+                })
+                .then();
+    }
+}
@@ -0,0 +1,185 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.LaneProperties;
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.pool.InstrumentedPool;
+import reactor.pool.PoolBuilder;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Lanes keyed by the target processor of a message. A lane has its own threads, a limit on its database statements
+ * running at once, which is its slice of the R2DBC pool, and a limit on its publishes, so traffic of one lane waits
+ * only for its own. The limits are reactor-pool pools of permits, the same queueing r2dbc-pool uses for connections.
+ * A message entering a lane is turned away with a {@link RejectedExecutionException} once queue-capacity messages
+ * already wait for the permit it needs.
+ * <p>
+ * Validation comes first and is shared, as the processor is known only once the AppHdr has been read.
+ */
+@Slf4j
+@Component
+public class PriorityLanes implements MeterBinder, DisposableBean {
+
+    private static final Lane UNLIMITED = new Lane("none", Schedulers.immediate(), null, null, Integer.MAX_VALUE);
+
+    private final LaneProperties properties;
+
+    private final TargetProcessorTopicConfig config;
+
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    private final Map<String, Lane> byProcessor = new HashMap<>();
+
+    public PriorityLanes(LaneProperties properties, TargetProcessorTopicConfig config) {
+        this.properties = properties;
+        this.config = config;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, LaneProperties.Lane> definitions = new LinkedHashMap<>(properties.getDefinitions());
+        definitions.computeIfAbsent(properties.getDefaultLane(), name -> new LaneProperties.Lane());
+        definitions.forEach((name, definition) -> {
+            Lane lane = Lane.create(name, definition);
+            lanes.put(name, lane);
+            definition.getProcessors().forEach(processor -> byProcessor.put(processor.trim(), lane));
+            log.info("Lane {}: processors {}, {} database, {} publish, queue {}", name, definition.getProcessors(),
+                    definition.getDbConnections(), definition.getPublishConcurrency(), definition.getQueueCapacity());
+        });
+    }
+
+    /**
+     * The lane of a message type, the default lane for an unmapped one; a lane without limits when lanes are off.
+     */
+    public Lane lane(String msgType) {
+        if (!properties.isEnabled()) {
+            return UNLIMITED;
+        }
+        String processor = msgType != null ? config.getProcessorFileType(msgType.trim()) : null;
+        Lane lane = processor != null ? byProcessor.get(processor.trim()) : null;
+        return lane != null ? lane : lanes.get(properties.getDefaultLane());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lanes.values().forEach(lane -> {
+            bindPermits(registry, "sfms.lane.db", lane.name, lane.database);
+            bindPermits(registry, "sfms.lane.publish", lane.name, lane.publish);
+        });
+    }
+
+    private static void bindPermits(MeterRegistry registry, String prefix, String lane, InstrumentedPool<Object> pool) {
+        Gauge.builder(prefix + ".acquired", pool, permits -> permits.metrics().acquiredSize())
+                .description("Permits of the lane in use")
+                .tag("lane", lane)
+                .register(registry);
+        Gauge.builder(prefix + ".pending", pool, permits -> permits.metrics().pendingAcquireSize())
+                .description("Messages of the lane waiting for a permit")
+                .tag("lane", lane)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        lanes.values().forEach(Lane::dispose);
+    }
+
+    public static final class Lane {
+
+        private static final Object PERMIT = new Object();
+
+        private final String name;
+
+        private final Scheduler scheduler;
+
+        private final InstrumentedPool<Object> database;
+
+        private final InstrumentedPool<Object> publish;
+
+        private final int queueCapacity;
+
+        private Lane(String name, Scheduler scheduler, InstrumentedPool<Object> database,
+                     InstrumentedPool<Object> publish, int queueCapacity) {
+            this.name = name;
+            this.scheduler = scheduler;
+            this.database = database;
+            this.publish = publish;
+            this.queueCapacity = queueCapacity;
+        }
+
+        private static Lane create(String name, LaneProperties.Lane definition) {
+            int threads = definition.getThreads() > 0
+                    ? definition.getThreads() : Runtime.getRuntime().availableProcessors();
+            int queueCapacity = Math.max(1, definition.getQueueCapacity());
+            return new Lane(name, Schedulers.newBoundedElastic(threads, queueCapacity, "sfms-lane-" + name),
+                    permits(definition.getDbConnections()), permits(definition.getPublishConcurrency()), queueCapacity);
+        }
+
+        private static InstrumentedPool<Object> permits(int size) {
+            return PoolBuilder.from(Mono.just(PERMIT))
+                    .sizeBetween(0, Math.max(1, size))
+                    .maxPendingAcquireUnbounded()
+                    .buildPool();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Scheduler scheduler() {
+            return scheduler;
+        }
+
+        /**
+         * Runs {@code work}, which holds at most one connection, once the lane has a database permit free. Errors
+         * with a {@link RejectedExecutionException} when queue-capacity messages already wait for one.
+         */
+        public <T> Mono<T> database(Mono<T> work) {
+            return Mono.defer(() -> isFull(database) ? Mono.error(full("database")) : withPermit(database, work));
+        }
+
+        /**
+         * As {@link #database}, but waits however many are queued, for the later statements of a message already
+         * under way; turning those away would leave it half-processed.
+         */
+        public <T> Mono<T> databaseFollowUp(Mono<T> work) {
+            return withPermit(database, work);
+        }
+
+        public <T> Mono<T> publish(Mono<T> work) {
+            return Mono.defer(() -> isFull(publish) ? Mono.error(full("publish")) : withPermit(publish, work));
+        }
+
+        private boolean isFull(InstrumentedPool<Object> permits) {
+            // Checked before acquiring; a few concurrent arrivals may pass together, which only bends the cap
+            return permits != null && permits.metrics().pendingAcquireSize() >= queueCapacity;
+        }
+
+        private RejectedExecutionException full(String permit) {
+            return new RejectedExecutionException("Lane " + name + " has " + queueCapacity + " messages waiting for a "
+                    + permit + " permit");
+        }
+
+        private static <T> Mono<T> withPermit(InstrumentedPool<Object> permits, Mono<T> work) {
+            // singleOrEmpty, not Mono.from, which would cancel the work after its value and before it completes
+            return permits == null ? work : permits.withPoolable(permit -> work).singleOrEmpty();
+        }
+
+        private void dispose() {
+            scheduler.dispose();
+            database.dispose();
+            publish.dispose();
+        }
+    }
+}
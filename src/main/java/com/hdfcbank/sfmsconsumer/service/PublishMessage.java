@@ -1,23 +1,22 @@
 package com.hdfcbank.sfmsconsumer.service;
 
+import com.hdfcbank.sfmsconsumer.config.DaprPublishProperties;
 import com.hdfcbank.sfmsconsumer.config.InvalidAndExceptionMsgTopic;
 import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
 import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
 import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
 import com.hdfcbank.sfmsconsumer.model.AuditStatus;
-import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics.Stage;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
-
-import javax.xml.xpath.XPathExpressionException;
 
 import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
-import static com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility.toXmlDocument;
 
 
 @Slf4j
@@ -26,43 +25,52 @@ import static com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility.toXmlDocum
 public class PublishMessage {
     private final TargetProcessorTopicConfig config;
 
-    @Autowired
-    SfmsConsmrCommonUtility sfmsConsmrCommonUtility;
-
     @Autowired
     KafkaUtils kafkaUtils;
 
     @Autowired
     BuildJsonReq buildJsonReq;
 
-    @Autowired
-    private final BatchIdXmlFieldExtractor batchIdXmlFieldExtractor;
-
     private final InvalidAndExceptionMsgTopic topicDetails;
 
     @Autowired
     private SFMSConsumerRepository sfmsConsumerRepository;
 
-    public Mono<Void> sendRequest(String[] xml) {
+    @Autowired
+    private DaprPublishProperties publishProperties;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    // Has a bean only when tracker.write-behind.enabled=true
+    private final ObjectProvider<SendToProcessorStatusWriter> statusWriter;
+
+    public Mono<Void> sendRequest(MessageEnvelope envelope) {
         return Mono.defer(() -> {
-            String msgId = null, msgType = null, batchId = null, batchDateTime = null;
-
-            try {
-                Document document = toXmlDocument(xml[1]);
-                msgId = sfmsConsmrCommonUtility.getValueByXPath(document, MSGID_XPATH);
-                msgType = sfmsConsmrCommonUtility.getValueByXPath(document, MSGDEFIDR_XPATH);
-                batchId = batchIdXmlFieldExtractor.extractFieldByFileType(xml[1]);
-                batchDateTime = sfmsConsmrCommonUtility.getValueByXPath(document, BATCH_CREDT_XPATH);
-            } catch (Exception e) {
-                log.error("XML parsing failed: {}", e.getMessage(), e);
-                String errJson = buildJsonReq.handleExceptionRouting(
-                        xml, e, msgId, msgType, batchId, batchDateTime, "XPATH_PARSING_ERROR");
-                return kafkaUtils.publishToKafkaTopic(
-                        errJson, topicDetails.getExceptionTopic(), msgId
-                ).then();
-            }
-
-            String jsonReq = buildJsonReq.buildRequest(xml);
+            SendToProcessorStatusWriter writer = statusWriter.getIfAvailable();
+            String[] xml = envelope.toXmlParts();
+            String msgId = envelope.getMsgId();
+            String msgType = envelope.getMsgType();
+            String batchId = envelope.getBatchId();
+            String batchDateTime = envelope.getBatchCreDt();
+
+            // raw-json-data publishes the UTF-8 bytes as they are; by default the data is the JSON as a string
+            boolean rawJson = publishProperties.isRawJsonData();
+            // Both builders return null once they have routed a failed build to the exception topic
+            byte[] rawJsonReq = rawJson
+                    ? pipelineMetrics.record(Stage.BUILD_JSON, msgType, () -> buildJsonReq.buildRequestJson(envelope),
+                            PublishMessage::buildOutcome)
+                    : null;
+            String jsonReq = rawJson
+                    ? null
+                    : pipelineMetrics.record(Stage.BUILD_JSON, msgType, () -> buildJsonReq.buildRequest(envelope),
+                            PublishMessage::buildOutcome);
             String target = config.getProcessorFileType(msgType.trim());
             String topic = config.getTopicFileType(target.trim());
 
@@ -71,23 +79,36 @@ public class PublishMessage {
             final String finalBatchId = batchId;
             final String finalBatchDateTime = batchDateTime;
 
-            return kafkaUtils.publishToKafkaTopic(jsonReq, topic, msgId)
-                    .then(
+            Mono<AuditStatus> statusUpdate = pipelineMetrics.time(Stage.STATUS_UPDATE, msgType, writer != null
+                            ? writer.submit(msgId, batchId, msgType)
+                            // Counted against the lane's database permits like its audit
+                            : priorityLanes.lane(msgType).databaseFollowUp(
+                                    sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType)),
+                            AuditStatus::name)
+                    .doOnNext(status -> {
+                        log.info("Updated SEND_TO_PROCESSOR for msgId={} batchId={} status={}",
+                                finalMsgId, finalBatchId, status);
+                        if (status == AuditStatus.SUCCESS && !msgType.contains(ADMI)) {
+                            recentMessageCache.sentToProcessor(finalMsgId, SFMS, target, finalBatchId);
+                        }
+                    })
+                    // Optionally, treat failure as non-blocking but loggable
+                    .onErrorResume(ex -> {
+                        log.error("DB update failed for msgId={} batchId={}: {}",
+                                finalMsgId, finalBatchId, ex.getMessage(), ex);
+                        return Mono.just(AuditStatus.ERROR);
+                    });
+
+            return pipelineMetrics.time(Stage.PUBLISH, msgType, rawJson
+                            ? kafkaUtils.publishJsonToKafkaTopic(rawJsonReq, topic, msgId)
+                            : kafkaUtils.publishToKafkaTopic(jsonReq, topic, msgId))
+                    .then(writer != null
+                            // Write-behind: the response does not wait for the queued update
+                            ? Mono.fromRunnable(statusUpdate::subscribe)
                             // Chain repository update
-                            sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType)
-                                    .doOnNext(status ->
-                                            log.info("Updated SEND_TO_PROCESSOR for msgId={} batchId={} status={}",
-                                                    finalMsgId, finalBatchId, status))
-                                    // Optionally, treat failure as non-blocking but loggable
-                                    .onErrorResume(ex -> {
-                                        log.error("DB update failed for msgId={} batchId={}: {}",
-                                                finalMsgId, finalBatchId, ex.getMessage(), ex);
-                                        return Mono.just(AuditStatus.ERROR);
-                                    })
-                    )
+                            : statusUpdate)
                     // ignore result (AuditStatus) — you only need completion signal
                     .then()
-                    .subscribeOn(Schedulers.boundedElastic())
                     .onErrorResume(ex -> {
                         log.error("Error in sendRequest: {}", ex.getMessage(), ex);
                         String errJson = buildJsonReq.handleExceptionRouting(
@@ -99,6 +120,7 @@ public class PublishMessage {
         });
     }
 
-
-
-}
\ No newline at end of file
+    private static String buildOutcome(Object json) {
+        return json != null ? PipelineMetrics.SUCCESS : PipelineMetrics.ERROR;
+    }
+}
@@ -0,0 +1,126 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hdfcbank.sfmsconsumer.config.DuplicateCacheProperties;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
+
+/**
+ * Bounded, TTL-evicted record of the last known msg_event_tracker status per
+ * (msgId, source, target, batchId), filled after the audit insert and after SEND_TO_PROCESSOR.
+ * Only repeats whose cached status is already forwarded are answered from the cache; anything else
+ * still goes to the database, which stays the source of truth. The cache is local to the instance.
+ */
+@Slf4j
+@Component
+public class RecentMessageCache implements MeterBinder {
+
+    private static final String SEND_TO_PROCESSOR = "SEND_TO_PROCESSOR";
+    private static final String SEND_TO_DISPATCHER = "SEND_TO_DISPATCHER";
+
+    private final DuplicateCacheProperties properties;
+
+    private final Cache<Key, String> statuses;
+
+    private final AtomicLong verifyMatches = new AtomicLong();
+    private final AtomicLong verifyMismatches = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+
+    public RecentMessageCache(DuplicateCacheProperties properties) {
+        this.properties = properties;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public DuplicateCacheProperties.Mode mode() {
+        return properties.getMode();
+    }
+
+    /**
+     * The answer the audit would give for this message from the cache alone, or {@code null} when the
+     * database has to be asked.
+     */
+    public AuditStatus predict(String msgId, String source, String target, String batchId) {
+        if (properties.getMode() == DuplicateCacheProperties.Mode.OFF) {
+            return null;
+        }
+        String status = statuses.getIfPresent(new Key(msgId, source, target, batchId));
+        return SEND_TO_PROCESSOR.equals(status) || SEND_TO_DISPATCHER.equals(status) ? AuditStatus.DUPLICATE : null;
+    }
+
+    public void recordShortCircuit(String msgId) {
+        shortCircuits.incrementAndGet();
+        log.info("Duplicate answered from cache for msgId: {}", msgId);
+    }
+
+    /**
+     * VERIFY mode: compares a cache prediction with what the database path returned.
+     */
+    public void verify(String msgId, AuditStatus predicted, AuditStatus actual) {
+        if (predicted == null) {
+            return;
+        }
+        if (predicted == actual) {
+            verifyMatches.incrementAndGet();
+        } else {
+            verifyMismatches.incrementAndGet();
+            log.warn("Duplicate cache mismatch for msgId: {} cache={} db={}", msgId, predicted, actual);
+        }
+    }
+
+    long shortCircuits() {
+        return shortCircuits.get();
+    }
+
+    long verifyMismatches() {
+        return verifyMismatches.get();
+    }
+
+    public void captured(String msgId, String source, String target, String batchId) {
+        put(msgId, source, target, batchId, CAPTURED);
+    }
+
+    public void sentToProcessor(String msgId, String source, String target, String batchId) {
+        put(msgId, source, target, batchId, SEND_TO_PROCESSOR);
+    }
+
+    private void put(String msgId, String source, String target, String batchId, String status) {
+        if (properties.getMode() != DuplicateCacheProperties.Mode.OFF && msgId != null) {
+            statuses.put(new Key(msgId, source, target, batchId), status);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, statuses, "sfms.duplicate.cache");
+        FunctionCounter.builder("sfms.duplicate.cache.short.circuit", shortCircuits, AtomicLong::get)
+                .description("Repeats answered as DUPLICATE without a database round trip")
+                .register(registry);
+        FunctionCounter.builder("sfms.duplicate.cache.verify", verifyMatches, AtomicLong::get)
+                .tag("result", "match")
+                .register(registry);
+        FunctionCounter.builder("sfms.duplicate.cache.verify", verifyMismatches, AtomicLong::get)
+                .tag("result", "mismatch")
+                .register(registry);
+    }
+
+    private record Key(String msgId, String source, String target, String batchId) {
+        Key {
+            // The tracker stores a missing batch id as ''
+            batchId = batchId != null ? batchId : "";
+        }
+    }
+}
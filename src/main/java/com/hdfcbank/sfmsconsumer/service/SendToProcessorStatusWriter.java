@@ -0,0 +1,101 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.TrackerWriteProperties;
+import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.StatusUpdate;
+import com.hdfcbank.sfmsconsumer.utils.MicroBatcher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Write-behind for the SEND_TO_PROCESSOR status update. Updates are queued and applied with
+ * {@link SFMSConsumerRepository#updateStatusToSendToProcessorBatch} once {@code tracker.write-behind.max-batch-size}
+ * are waiting or the first has waited {@code tracker.write-behind.flush-interval}.
+ * <p>
+ * Durability: the request is answered before its update is written. Shutdown flushes the queue, but updates
+ * queued when the process dies, or in a flush that fails, are lost and the tracker row stays CAPTURED. If the
+ * queue itself fails, the updates it held are written one by one with
+ * {@link SFMSConsumerRepository#updateStatusToSendToProcessorDynamic} while it restarts.
+ * A redelivery of such a message is then treated as CAPTURED_DUPLICATE and published again, so the effect is
+ * at-least-once delivery to the processor rather than a lost message.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "tracker.write-behind", name = "enabled", havingValue = "true")
+public class SendToProcessorStatusWriter {
+
+    private final SFMSConsumerRepository sfmsConsumerRepository;
+
+    private final TrackerWriteProperties.WriteBehind properties;
+
+    private final MicroBatcher<StatusUpdate, AuditStatus> batcher;
+
+    public SendToProcessorStatusWriter(SFMSConsumerRepository sfmsConsumerRepository,
+                                       TrackerWriteProperties trackerWriteProperties) {
+        this.sfmsConsumerRepository = sfmsConsumerRepository;
+        this.properties = trackerWriteProperties.getWriteBehind();
+        // One flush at a time, as with the single-row updates it replaces
+        this.batcher = new MicroBatcher<>("Status write-behind", properties.getMaxBatchSize(),
+                properties.getFlushInterval(), 1, this::flush);
+    }
+
+    /**
+     * Queues the update; completes with SUCCESS once written, ERROR if no row matched or the flush failed.
+     * An update the queue could not take, or lost when its pipeline was restarted, is written directly instead.
+     */
+    public Mono<AuditStatus> submit(String msgId, String batchId, String msgType) {
+        return batcher.submit(new StatusUpdate(msgId, batchId, msgType))
+                .onErrorResume(ex -> {
+                    log.warn("Status write-behind could not take msgId={} ({}); updating directly", msgId, ex.getMessage());
+                    return sfmsConsumerRepository.updateStatusToSendToProcessorDynamic(msgId, batchId, msgType);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Closing flushes the partially filled batch; wait for it so nothing queued is dropped
+        batcher.close()
+                .timeout(properties.getShutdownTimeout(), Mono.fromRunnable(() ->
+                        log.warn("Status write-behind did not drain within {}", properties.getShutdownTimeout())))
+                .block();
+    }
+
+    private Mono<Void> flush(List<MicroBatcher.Entry<StatusUpdate, AuditStatus>> batch) {
+        List<StatusUpdate> updates = new ArrayList<>(batch.size());
+        batch.forEach(pending -> updates.add(pending.item()));
+
+        return sfmsConsumerRepository.updateStatusToSendToProcessorBatch(updates)
+                .map(updated -> key(updated.getMsgId(), updated.getBatchId()))
+                .collect(HashSet<String>::new, Set::add)
+                .timeout(properties.getStatementTimeout())
+                .doOnNext(updated -> {
+                    log.info("Flushed SEND_TO_PROCESSOR for {} messages, {} rows matched", batch.size(), updated.size());
+                    for (MicroBatcher.Entry<StatusUpdate, AuditStatus> pending : batch) {
+                        StatusUpdate update = pending.item();
+                        boolean admi = update.getMsgType() != null && update.getMsgType().toUpperCase().startsWith("ADMI");
+                        String key = key(update.getMsgId(), admi ? null : update.getBatchId());
+                        pending.success(updated.contains(key) ? AuditStatus.SUCCESS : AuditStatus.ERROR);
+                    }
+                })
+                .doOnError(ex -> {
+                    log.error("SEND_TO_PROCESSOR flush of {} messages failed: {}", batch.size(), ex.getMessage(), ex);
+                    batch.forEach(pending -> pending.success(AuditStatus.ERROR));
+                })
+                .then()
+                .onErrorResume(ex -> Mono.empty());
+    }
+
+    // The batch update matches a missing batch id as "", the value the audit insert stores for it
+    private static String key(String msgId, String batchId) {
+        return msgId + '\u0000' + (batchId != null ? batchId : "");
+    }
+}
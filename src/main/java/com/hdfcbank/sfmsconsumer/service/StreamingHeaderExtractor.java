@@ -0,0 +1,296 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.BatchIdXPathConfig;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import com.hdfcbank.sfmsconsumer.model.RawRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
+
+/**
+ * Reads BizMsgIdr, MsgDefIdr, CreDt and the configured batch id element in one forward StAX pass.
+ * No DOM is built; the configured XPath expressions are translated into element paths made of
+ * {@code local-name()} steps, which is the only form used in {@code file-type.xpaths}.
+ */
+@Slf4j
+@Service
+public class StreamingHeaderExtractor {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final String XPATH_STEPS = "(?://?\\*\\[local-name\\(\\)='[^']+'\\])+";
+
+    private static final Pattern SUPPORTED_XPATH =
+            Pattern.compile("^(?:\\(\\.?" + XPATH_STEPS + "\\)|\\.?" + XPATH_STEPS + ")(?:\\[1\\])?$");
+
+    private static final Pattern XPATH_STEP = Pattern.compile("(//?)\\*\\[local-name\\(\\)='([^']+)'\\]");
+
+    private static final ElementPath MSGID_PATH = ElementPath.compile(MSGID_XPATH).orElseThrow();
+    private static final ElementPath MSGDEFIDR_PATH = ElementPath.compile(MSGDEFIDR_XPATH).orElseThrow();
+    private static final ElementPath BATCH_CREDT_PATH = ElementPath.compile(BATCH_CREDT_XPATH).orElseThrow();
+
+    private final BatchIdXPathConfig batchIdXPathMap;
+
+    private final Map<String, Optional<ElementPath>> compiledBatchPaths = new ConcurrentHashMap<>();
+
+    public StreamingHeaderExtractor(BatchIdXPathConfig batchIdXPathMap) {
+        this.batchIdXPathMap = batchIdXPathMap;
+    }
+
+    /**
+     * Extracts the header fields and batch id. When {@code validateRemainder} is false the reader stops
+     * as soon as every field is known; when true the rest of the document is still streamed so that
+     * malformed XML is rejected exactly as a full parse would.
+     *
+     * @return the populated envelope, or {@code null} when the batch id XPath configured for the message
+     * type cannot be evaluated by streaming and the caller has to fall back to XPath
+     */
+    public MessageEnvelope extract(String[] xmlMessage, boolean validateRemainder) throws XMLStreamException {
+        MessageEnvelope.MessageEnvelopeBuilder fields =
+                extract(INPUT_FACTORY.createXMLStreamReader(new StringReader(xmlMessage[1])), validateRemainder);
+        return fields == null ? null : fields.prefix(xmlMessage[0]).body(xmlMessage[1]).build();
+    }
+
+    /**
+     * As {@link #extract(String[], boolean)}, reading the body bytes in place; the body is decoded to a String
+     * only once the fields are known.
+     */
+    public MessageEnvelope extract(RawRequest request, boolean validateRemainder) throws XMLStreamException {
+        MessageEnvelope.MessageEnvelopeBuilder fields = extract(
+                INPUT_FACTORY.createXMLStreamReader(request.bodyStream(), StandardCharsets.UTF_8.name()), validateRemainder);
+        return fields == null ? null : fields.prefix(request.prefix()).body(request.body()).build();
+    }
+
+    private MessageEnvelope.MessageEnvelopeBuilder extract(XMLStreamReader reader, boolean validateRemainder)
+            throws XMLStreamException {
+        Target msgId = new Target(MSGID_PATH);
+        Target msgType = new Target(MSGDEFIDR_PATH);
+        Target batchCreDt = new Target(BATCH_CREDT_PATH);
+
+        List<Target> targets = new ArrayList<>(List.of(msgId, msgType, batchCreDt));
+        Map<String, Target> batchTargets = new LinkedHashMap<>();
+        if (batchIdXPathMap.getXpaths() != null) {
+            for (String xpath : batchIdXPathMap.getXpaths().values()) {
+                if (xpath == null || xpath.trim().isEmpty() || batchTargets.containsKey(xpath)) {
+                    continue;
+                }
+                compile(xpath).ifPresent(path -> {
+                    Target target = new Target(path);
+                    batchTargets.put(xpath, target);
+                    targets.add(target);
+                });
+            }
+        }
+
+        try {
+            String[] stack = new String[16];
+            int depth = 0;
+            boolean fieldsComplete = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (fieldsComplete) {
+                    // Only checking well-formedness of the remainder
+                    continue;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == stack.length) {
+                        String[] grown = new String[depth * 2];
+                        System.arraycopy(stack, 0, grown, 0, depth);
+                        stack = grown;
+                    }
+                    stack[depth++] = reader.getLocalName();
+                    for (Target target : targets) {
+                        target.onStart(stack, depth);
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS
+                        || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    for (Target target : targets) {
+                        target.onText(reader);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    for (Target target : targets) {
+                        target.onEnd(depth);
+                    }
+                    depth--;
+                    if (isComplete(msgId, msgType, batchCreDt, batchTargets)) {
+                        if (!validateRemainder) {
+                            break;
+                        }
+                        fieldsComplete = true;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        String msgDefIdr = msgType.value();
+        String batchId = null;
+        if (msgDefIdr != null) {
+            String targetXPath = batchIdXPathMap.getXPathForFileType(msgDefIdr.trim());
+            if (targetXPath == null || targetXPath.trim().isEmpty()) {
+                batchId = "";
+            } else {
+                Target batchTarget = batchTargets.get(targetXPath);
+                if (batchTarget == null) {
+                    log.warn("Batch id XPath for {} cannot be streamed: {}", msgDefIdr, targetXPath);
+                    return null;
+                }
+                batchId = batchTarget.value();
+            }
+        }
+
+        return MessageEnvelope.builder()
+                .msgId(msgId.value())
+                .msgType(msgDefIdr)
+                .batchId(batchId)
+                .batchCreDt(batchCreDt.value());
+    }
+
+    /**
+     * Whether an XPath expression is in the {@code local-name()} step form understood by this extractor.
+     */
+    public boolean supports(String xpath) {
+        return compile(xpath).isPresent();
+    }
+
+    private Optional<ElementPath> compile(String xpath) {
+        return compiledBatchPaths.computeIfAbsent(xpath, ElementPath::compile);
+    }
+
+    private boolean isComplete(Target msgId, Target msgType, Target batchCreDt, Map<String, Target> batchTargets) {
+        if (!msgId.done || !msgType.done || !batchCreDt.done) {
+            return false;
+        }
+        String msgDefIdr = msgType.value();
+        if (msgDefIdr == null) {
+            return true;
+        }
+        String targetXPath = batchIdXPathMap.getXPathForFileType(msgDefIdr.trim());
+        if (targetXPath == null || targetXPath.trim().isEmpty()) {
+            return true;
+        }
+        Target batchTarget = batchTargets.get(targetXPath);
+        return batchTarget == null || batchTarget.done;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Chain of {@code local-name()} steps joined by child ({@code /}) or descendant ({@code //}) axes.
+     */
+    private static final class ElementPath {
+
+        private final String[] names;
+        private final boolean[] descendant;
+
+        private ElementPath(String[] names, boolean[] descendant) {
+            this.names = names;
+            this.descendant = descendant;
+        }
+
+        static Optional<ElementPath> compile(String xpath) {
+            String expression = xpath.trim();
+            if (!SUPPORTED_XPATH.matcher(expression).matches()) {
+                return Optional.empty();
+            }
+            List<String> names = new ArrayList<>();
+            List<Boolean> axes = new ArrayList<>();
+            Matcher matcher = XPATH_STEP.matcher(expression);
+            while (matcher.find()) {
+                axes.add(matcher.group(1).length() == 2);
+                names.add(matcher.group(2));
+            }
+            boolean[] descendant = new boolean[axes.size()];
+            for (int i = 0; i < descendant.length; i++) {
+                descendant[i] = axes.get(i);
+            }
+            return Optional.of(new ElementPath(names.toArray(new String[0]), descendant));
+        }
+
+        boolean matches(String[] stack, int depth) {
+            return matchStep(stack, names.length - 1, depth - 1);
+        }
+
+        private boolean matchStep(String[] stack, int step, int pos) {
+            if (!names[step].equals(stack[pos])) {
+                return false;
+            }
+            if (step == 0) {
+                return descendant[0] || pos == 0;
+            }
+            if (!descendant[step]) {
+                return pos > 0 && matchStep(stack, step - 1, pos - 1);
+            }
+            for (int p = pos - 1; p >= 0; p--) {
+                if (matchStep(stack, step - 1, p)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * String value of the first element, in document order, matching a path.
+     */
+    private static final class Target {
+
+        private final ElementPath path;
+        private final StringBuilder text = new StringBuilder();
+        private int captureDepth = -1;
+        private boolean done;
+
+        Target(ElementPath path) {
+            this.path = path;
+        }
+
+        void onStart(String[] stack, int depth) {
+            if (!done && captureDepth < 0 && path.matches(stack, depth)) {
+                captureDepth = depth;
+            }
+        }
+
+        void onText(XMLStreamReader reader) {
+            if (captureDepth > 0) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+
+        void onEnd(int depth) {
+            if (captureDepth == depth) {
+                captureDepth = -1;
+                done = true;
+            }
+        }
+
+        // Same normalisation as SfmsConsmrCommonUtility.getValueByXPath
+        String value() {
+            return done && !text.isEmpty() ? text.toString().trim() : null;
+        }
+    }
+}
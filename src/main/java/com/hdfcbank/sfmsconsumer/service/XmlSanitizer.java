@@ -1,47 +1,330 @@
 package com.hdfcbank.sfmsconsumer.service;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 
+/**
+ * Cleans escape sequences left in the XML by the upstream transport, in a single pass.
+ * <p>
+ * The first {@code <sig:XMLSgntrs>...</sig:XMLSgntrs>} block is copied through untouched. Everywhere else the
+ * rules below are applied in this order, each one to the output of the previous, exactly as the former chain of
+ * {@code replace}/{@code replaceAll} calls did; the result is then trimmed.
+ * <ol>
+ *     <li>literal {@code \\n} → newline, {@code \\r} → carriage return, {@code \"} → {@code "}</li>
+ *     <li>literal {@code \r\n}, then {@code \n}, then {@code \r} removed</li>
+ * </ol>
+ * Every rule is a small streaming matcher chained to the next, so no intermediate copy of the document is made,
+ * and text between backslashes is copied in bulk.
+ * {@link #sanitize(Reader, Writer)} does the same over a stream; it holds back only the signature block and
+ * trailing whitespace.
+ */
 public class XmlSanitizer {
+
+    private static final String SIG_OPEN = "<sig:XMLSgntrs>";
+
+    private static final String SIG_CLOSE = "</sig:XMLSgntrs>";
+
+    private static final int READ_BUFFER = 8192;
+
     /**
-     * Removes all \n and \r from the XML except inside <sig:XMLSgntrs>...</sig:XMLSgntrs> blocks.
+     * Removes literal \n and \r escapes from the XML except inside the <sig:XMLSgntrs>...</sig:XMLSgntrs> block.
      */
     public static String sanitize(String input) {
-        // Regex to match the signature block (non-greedy, DOTALL for multiline)
-        Pattern sigPattern = Pattern.compile("(<sig:XMLSgntrs>.*?</sig:XMLSgntrs>)", Pattern.DOTALL);
-        Matcher matcher = sigPattern.matcher(input);
+        StringBuilder out = new StringBuilder(input.length());
+        Rules rules = new Rules(out);
+
+        int open = input.indexOf(SIG_OPEN);
+        int close = open < 0 ? -1 : input.indexOf(SIG_CLOSE, open + SIG_OPEN.length());
+        if (close < 0) {
+            rules.text(input, 0, input.length());
+        } else {
+            int end = close + SIG_CLOSE.length();
+            rules.text(input, 0, open);
+            rules.verbatim(input, open, end);
+            rules.text(input, end, input.length());
+        }
+        rules.finish();
+        return out.toString();
+    }
+
+    /**
+     * Streaming form of {@link #sanitize(String)}; writes the same characters to {@code out}. Neither stream is
+     * closed.
+     */
+    public static void sanitize(Reader in, Writer out) throws IOException {
+        Rules rules = new Rules(out);
+        StringBuilder block = null;
+        int openMatched = 0;
+        char[] buffer = new char[READ_BUFFER];
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        try {
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                int i = 0;
+                while (i < read) {
+                    if (openMatched < 0) {
+                        // The signature block is behind us
+                        rules.text(chars, i, read);
+                        i = read;
+                    } else if (block != null) {
+                        // Inside the first signature block: hold it back until it is closed
+                        char c = buffer[i++];
+                        block.append(c);
+                        if (c == '>' && block.length() >= SIG_OPEN.length() + SIG_CLOSE.length() && endsWith(block, SIG_CLOSE)) {
+                            rules.verbatim(block, 0, block.length());
+                            block = null;
+                            openMatched = -1;
+                        }
+                    } else if (openMatched == 0) {
+                        int next = indexOf(chars, SIG_OPEN.charAt(0), i, read);
+                        rules.text(chars, i, next);
+                        if (next < read) {
+                            openMatched = 1;
+                        }
+                        i = next + 1;
+                    } else if (buffer[i] == SIG_OPEN.charAt(openMatched)) {
+                        i++;
+                        if (++openMatched == SIG_OPEN.length()) {
+                            block = new StringBuilder(SIG_OPEN);
+                        }
+                    } else {
+                        // SIG_OPEN has no repeated '<', so only the current char can start a new candidate
+                        rules.text(SIG_OPEN, 0, openMatched);
+                        openMatched = 0;
+                    }
+                }
+            }
+            // An unclosed signature block, or a partial opening tag, is ordinary text
+            if (block != null) {
+                rules.text(block, 0, block.length());
+            } else if (openMatched > 0) {
+                rules.text(SIG_OPEN, 0, openMatched);
+            }
+            rules.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int to) {
+        if (text instanceof String string) {
+            int index = string.indexOf(c, from);
+            return index < 0 || index > to ? to : index;
+        }
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
 
-        String sigBlock = "";
-        if (matcher.find()) {
-            sigBlock = matcher.group(1);
-            // Remove the signature block from the input
-            input = matcher.replaceFirst("___SIG_PLACEHOLDER___");
+    private static boolean endsWith(StringBuilder text, String suffix) {
+        int offset = text.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (text.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * The escape rules chained in order, ending in the trim. Every rule starts with a backslash, so while no rule
+     * holds a partial match, everything up to the next backslash is copied to the output in bulk.
+     */
+    private static final class Rules {
+
+        private final Trim trim;
+
+        private final Replace[] stages;
 
-        // Step 1: Unescape if clearly escaped (Java-style: \\n, \\r, \")
-        if (input.contains("\\\\n") || input.contains("\\\\r") || input.contains("\\\"")) {
-            input = input
-                    .replace("\\\\n", "\n")   // literal \n → real newline
-                    .replace("\\\\r", "\r")   // literal \r → real carriage return
-                    .replace("\\\"", "\"");   // literal \" → real quote
+        Rules(Appendable out) {
+            trim = new Trim(out);
+            Replace removeCr = new Replace("\\r", "", trim);
+            Replace removeLf = new Replace("\\n", "", removeCr);
+            Replace removeCrLf = new Replace("\\r\\n", "", removeLf);
+            Replace unescapeQuote = new Replace("\\\"", "\"", removeCrLf);
+            Replace unescapeCr = new Replace("\\\\r", "\r", unescapeQuote);
+            Replace unescapeLf = new Replace("\\\\n", "\n", unescapeCr);
+            stages = new Replace[]{unescapeLf, unescapeCr, unescapeQuote, removeCrLf, removeLf, removeCr};
         }
 
-        // Step 2: Remove *unwanted* literal escape sequences if any remain
-        String cleanedXml = input
-                .replaceAll("\\\\r\\\\n", "") // literal "\r\n"
-                .replaceAll("\\\\n", "")      // literal "\n"
-                .replaceAll("\\\\r", "");     // literal "\r"
+        void text(CharSequence text, int from, int to) {
+            int i = from;
+            while (i < to) {
+                if (idle()) {
+                    int next = indexOf(text, '\\', i, to);
+                    if (next > i) {
+                        trim.append(text, i, next);
+                        i = next;
+                        continue;
+                    }
+                }
+                stages[0].accept(text.charAt(i++));
+            }
+        }
+
+        /**
+         * Copies text through untouched; a pending partial match before it is written out as it is.
+         */
+        void verbatim(CharSequence text, int from, int to) {
+            stages[0].flush();
+            trim.append(text, from, to);
+        }
 
-        //  Important: do NOT remove real \r or \n here unless you
-        // want a fully single-line XML. If you do, uncomment:
-        // input = input.replaceAll("[\\r\\n]", "");
+        void finish() {
+            stages[0].flush();
+        }
 
-        // Restore the signature block
-        if (!sigBlock.isEmpty()) {
-            cleanedXml = cleanedXml.replace("___SIG_PLACEHOLDER___", sigBlock);
+        private boolean idle() {
+            for (Replace stage : stages) {
+                if (stage.matched != 0) {
+                    return false;
+                }
+            }
+            return true;
         }
+    }
+
+    private interface CharSink {
+
+        void accept(char c);
 
-        return cleanedXml.trim();
+        /**
+         * Ends the current run of text: partial matches are written out as they are, as at the end of a string.
+         */
+        void flush();
+    }
+
+    /**
+     * {@code String.replace(target, replacement)} as a stream: leftmost, non-overlapping matches, scanning on
+     * after each replacement. Only a prefix of the target is ever pending.
+     */
+    private static final class Replace implements CharSink {
+
+        private final String target;
+
+        private final String replacement;
+
+        private final CharSink next;
+
+        private int matched;
+
+        Replace(String target, String replacement, CharSink next) {
+            this.target = target;
+            this.replacement = replacement;
+            this.next = next;
+        }
+
+        @Override
+        public void accept(char c) {
+            if (c == target.charAt(matched)) {
+                if (++matched == target.length()) {
+                    matched = 0;
+                    for (int i = 0; i < replacement.length(); i++) {
+                        next.accept(replacement.charAt(i));
+                    }
+                }
+                return;
+            }
+            if (matched == 0) {
+                next.accept(c);
+                return;
+            }
+            // The candidate starting at the first pending char failed; rescan from the one after it
+            int pending = matched;
+            matched = 0;
+            next.accept(target.charAt(0));
+            for (int i = 1; i < pending; i++) {
+                accept(target.charAt(i));
+            }
+            accept(c);
+        }
+
+        @Override
+        public void flush() {
+            for (int i = 0; i < matched; i++) {
+                next.accept(target.charAt(i));
+            }
+            matched = 0;
+            next.flush();
+        }
+    }
+
+    /**
+     * {@code String.trim()} as a stream: drops leading whitespace and holds back each whitespace run until a
+     * later character shows it is not trailing.
+     */
+    private static final class Trim implements CharSink {
+
+        private final Appendable out;
+
+        private final StringBuilder whitespace = new StringBuilder();
+
+        private boolean started;
+
+        Trim(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(char c) {
+            try {
+                if (c <= ' ') {
+                    if (started) {
+                        whitespace.append(c);
+                    }
+                    return;
+                }
+                started = true;
+                if (!whitespace.isEmpty()) {
+                    out.append(whitespace);
+                    whitespace.setLength(0);
+                }
+                out.append(c);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void append(CharSequence text, int from, int to) {
+            int end = to;
+            while (end > from && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            try {
+                if (end == from) {
+                    if (started) {
+                        whitespace.append(text, from, to);
+                    }
+                    return;
+                }
+                int start = from;
+                if (!started) {
+                    while (text.charAt(start) <= ' ') {
+                        start++;
+                    }
+                    started = true;
+                } else if (!whitespace.isEmpty()) {
+                    out.append(whitespace);
+                    whitespace.setLength(0);
+                }
+                out.append(text, start, end);
+                whitespace.append(text, end, to);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+            // Whitespace is only written once more text follows
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DocumentBuilderPoolMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sfms.xml.parser.pool.hits", DocumentBuilderPool.class, pool -> DocumentBuilderPool.hits())
+                .description("DocumentBuilder borrows served from the pool")
+                .register(registry);
+        FunctionCounter.builder("sfms.xml.parser.pool.misses", DocumentBuilderPool.class, pool -> DocumentBuilderPool.misses())
+                .description("DocumentBuilder borrows that had to create a new builder")
+                .register(registry);
+        Gauge.builder("sfms.xml.parser.pool.idle", DocumentBuilderPool.class, pool -> DocumentBuilderPool.idle())
+                .description("DocumentBuilders currently idle in the pool")
+                .register(registry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import java.util.List;
+
+/**
+ * Case-insensitive search for a fixed set of keywords, without copying or lowercasing the text and without
+ * allocating. Immutable and safe to share between threads.
+ * <p>
+ * Every MsgDefIdr contains '.', so when all keywords share such a caseless punctuation char the text is scanned
+ * for that anchor with {@code String.indexOf}, which the JIT vectorizes, and keywords are only compared around
+ * each occurrence. Keyword sets without one are searched keyword by keyword. Case is folded per char, which for
+ * ASCII keywords is the same as lowercasing both sides.
+ */
+public final class KeywordMatcher {
+
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private static final char NO_ANCHOR = 0;
+
+    private final List<String> keywords;
+
+    private final char anchor;
+
+    // Position of the first anchor in each keyword
+    private final int[] anchorOffsets;
+
+    private KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords;
+        this.anchor = anchor(keywords);
+        this.anchorOffsets = keywords.stream().mapToInt(keyword -> keyword.indexOf(anchor)).toArray();
+    }
+
+    public static KeywordMatcher of(List<String> keywords) {
+        return new KeywordMatcher(List.copyOf(keywords));
+    }
+
+    /**
+     * Returns the lowest index of a keyword occurring anywhere in the text, or -1 if none does. This is the
+     * keyword a {@code findFirst} over the list with {@code contains} would pick.
+     */
+    public int firstKeywordIn(String text) {
+        return anchor != NO_ANCHOR ? firstKeywordAroundAnchors(text) : firstKeywordByScan(text);
+    }
+
+    private int firstKeywordAroundAnchors(String text) {
+        int best = NONE;
+        for (int at = text.indexOf(anchor); at >= 0 && best > 0; at = text.indexOf(anchor, at + 1)) {
+            // Only a lower index than the best so far can change the result
+            for (int k = 0; k < Math.min(best, keywords.size()); k++) {
+                String keyword = keywords.get(k);
+                int start = at - anchorOffsets[k];
+                if (start >= 0 && text.regionMatches(true, start, keyword, 0, keyword.length())) {
+                    best = k;
+                    break;
+                }
+            }
+        }
+        return best == NONE ? -1 : best;
+    }
+
+    private int firstKeywordByScan(String text) {
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            for (int start = 0, last = text.length() - keyword.length(); start <= last; start++) {
+                if (text.regionMatches(true, start, keyword, 0, keyword.length())) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A caseless, non-alphanumeric char found in every keyword, or {@link #NO_ANCHOR}.
+     */
+    private static char anchor(List<String> keywords) {
+        if (keywords.isEmpty()) {
+            return NO_ANCHOR;
+        }
+        String first = keywords.get(0);
+        for (int i = 0; i < first.length(); i++) {
+            char c = first.charAt(i);
+            if (c != NO_ANCHOR && !Character.isLetterOrDigit(c) && !Character.isWhitespace(c)
+                    && Character.toLowerCase(c) == Character.toUpperCase(c)
+                    && keywords.stream().allMatch(keyword -> keyword.indexOf(c) >= 0)) {
+                return c;
+            }
+        }
+        return NO_ANCHOR;
+    }
+}
@@ -0,0 +1,181 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Collects items submitted concurrently and hands them to a handler in groups: a group is handed over when it
+ * reaches {@code maxBatchSize} or once its first item has waited {@code linger}, and at most {@code maxInFlight}
+ * groups are handled at once. Each submitter waits for the handler to complete its own {@link Entry}.
+ * <p>
+ * Buffering is fair, so while every in-flight slot is busy items wait in the queue rather than overflowing the
+ * buffer. A group whose handler fails errors its remaining entries. If the pipeline itself terminates, the entries
+ * it holds are errored and a new pipeline takes over, so later submissions are still accepted. Entries whose
+ * submitter cancelled, e.g. on a timeout before a retry, are dropped before the handler sees them.
+ */
+@Slf4j
+public final class MicroBatcher<T, R> {
+
+    private final String name;
+
+    private final int maxBatchSize;
+
+    private final Duration linger;
+
+    private final int maxInFlight;
+
+    private final Function<List<Entry<T, R>>, Mono<Void>> handler;
+
+    private final Sinks.Empty<Void> drained = Sinks.empty();
+
+    private volatile Sinks.Many<Entry<T, R>> queue;
+
+    private volatile boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration linger, int maxInFlight,
+                        Function<List<Entry<T, R>>, Mono<Void>> handler) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.linger = linger;
+        this.maxInFlight = maxInFlight;
+        this.handler = handler;
+        this.queue = start();
+    }
+
+    /**
+     * Queues the item for the next group; completes with whatever the handler completes its entry with.
+     */
+    public Mono<R> submit(T item) {
+        return Mono.create(sink -> {
+            Entry<T, R> entry = new Entry<>(item, sink);
+            sink.onCancel(entry::cancel);
+            emit(entry);
+        });
+    }
+
+    /**
+     * Stops accepting items and hands the partially filled group to the handler; completes once every queued
+     * group has been handled.
+     */
+    public Mono<Void> close() {
+        closed = true;
+        queue.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        return drained.asMono();
+    }
+
+    private Sinks.Many<Entry<T, R>> start() {
+        Sinks.Many<Entry<T, R>> sink = Sinks.many().unicast().onBackpressureBuffer();
+        sink.asFlux()
+                .bufferTimeout(maxBatchSize, linger, true)
+                .flatMap(this::handle, maxInFlight)
+                .doOnDiscard(Object.class, this::discard)
+                .subscribe(unused -> {}, this::restart, drained::tryEmitEmpty);
+        return sink;
+    }
+
+    private void emit(Entry<T, R> entry) {
+        Sinks.Many<Entry<T, R>> target = queue;
+        Sinks.EmitResult result = target.tryEmitNext(entry);
+        while (result.isFailure()) {
+            if (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                // Concurrent submitters race for the sink; the winner's emit is a few instructions long
+                Thread.onSpinWait();
+            } else if (queue != target && !closed) {
+                // Read the queue just before the pipeline was restarted
+                target = queue;
+            } else {
+                entry.error(new IllegalStateException(name + " not accepting items: " + result));
+                return;
+            }
+            result = target.tryEmitNext(entry);
+        }
+    }
+
+    private Mono<Void> handle(List<Entry<T, R>> batch) {
+        // Already completed here means the submitter cancelled
+        batch.removeIf(Entry::isDone);
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        return handler.apply(batch)
+                .onErrorResume(e -> {
+                    batch.forEach(entry -> entry.error(e));
+                    return Mono.empty();
+                })
+                .doOnSuccess(unused -> batch.forEach(entry ->
+                        entry.error(new IllegalStateException(name + " handler did not complete the entry"))))
+                .doOnCancel(() -> batch.forEach(entry -> entry.error(terminated())));
+    }
+
+    private void restart(Throwable error) {
+        if (closed) {
+            log.error("{} stopped while closing", name, error);
+            drained.tryEmitEmpty();
+            return;
+        }
+        log.error("{} pipeline terminated; restarting it", name, error);
+        queue = start();
+    }
+
+    // Entries still queued or buffered when the pipeline terminates; a failed handler call discards its whole group
+    private void discard(Object discarded) {
+        if (discarded instanceof Entry<?, ?> entry) {
+            entry.error(terminated());
+        } else if (discarded instanceof Collection<?> batch) {
+            batch.forEach(this::discard);
+        }
+    }
+
+    private IllegalStateException terminated() {
+        return new IllegalStateException(name + " pipeline terminated");
+    }
+
+    /**
+     * One submitted item; the handler completes it exactly once, later completions are ignored.
+     */
+    public static final class Entry<T, R> {
+
+        private final T item;
+
+        private final MonoSink<R> sink;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Entry(T item, MonoSink<R> sink) {
+            this.item = item;
+            this.sink = sink;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public void success(R value) {
+            if (done.compareAndSet(false, true)) {
+                sink.success(value);
+            }
+        }
+
+        public void error(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                sink.error(error);
+            }
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        private void cancel() {
+            done.set(true);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.OriginalReqStorageProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Stored form of original_req when {@code original-req.compressed} is on: a format marker byte followed by either
+ * the UTF-8 bytes ({@link #RAW}) or the 4-byte UTF-8 length and an LZ4 block ({@link #LZ4}).
+ * Nothing is decompressed on the write path; readers call {@link #read} only when they need the XML.
+ */
+@Component
+public class OriginalReqCodec {
+
+    public static final byte RAW = 0;
+    public static final byte LZ4 = 1;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    // original_req as a column or a named parameter, not original_req_count or original_req_<n>
+    private static final Pattern ORIGINAL_REQ = Pattern.compile("(:?)\\boriginal_req\\b");
+
+    private final OriginalReqStorageProperties properties;
+
+    private final Timer compressTimer;
+
+    private final DistributionSummary compressionRatio;
+
+    public OriginalReqCodec(OriginalReqStorageProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.compressTimer = Timer.builder("sfms.original.req.compress")
+                .description("Time to encode original_req for storage")
+                .register(registry);
+        this.compressionRatio = DistributionSummary.builder("sfms.original.req.compression.ratio")
+                .description("UTF-8 size of original_req divided by its stored size")
+                .register(registry);
+    }
+
+    public boolean isCompressed() {
+        return properties.isCompressed();
+    }
+
+    /**
+     * Encodes on the parallel scheduler so large batches are not compressed on a caller or connection thread.
+     * Empty for a null payload.
+     */
+    public Mono<byte[]> encode(String originalReq) {
+        return Mono.fromCallable(() -> originalReq == null ? null : compressTimer.record(() -> encodeNow(originalReq)))
+                .subscribeOn(Schedulers.parallel());
+    }
+
+    /**
+     * Adds original_req_bin next to every original_req column and parameter of an INSERT when compression is on.
+     */
+    public String sql(String sql) {
+        return properties.isCompressed() ? ORIGINAL_REQ.matcher(sql).replaceAll("$1original_req, $1original_req_bin") : sql;
+    }
+
+    byte[] encodeNow(String originalReq) {
+        byte[] utf8 = originalReq.getBytes(StandardCharsets.UTF_8);
+        byte[] stored = null;
+        if (utf8.length >= properties.getMinCompressSize()) {
+            byte[] compressed = new byte[5 + COMPRESSOR.maxCompressedLength(utf8.length)];
+            int length = COMPRESSOR.compress(utf8, 0, utf8.length, compressed, 5);
+            if (length + 5 < utf8.length + 1) {
+                compressed[0] = LZ4;
+                ByteBuffer.wrap(compressed, 1, 4).putInt(utf8.length);
+                stored = Arrays.copyOf(compressed, length + 5);
+            }
+        }
+        if (stored == null) {
+            // Short or incompressible payload
+            stored = new byte[utf8.length + 1];
+            stored[0] = RAW;
+            System.arraycopy(utf8, 0, stored, 1, utf8.length);
+        }
+        compressionRatio.record(stored.length == 0 ? 1.0 : (double) utf8.length / stored.length);
+        return stored;
+    }
+
+    /**
+     * The original XML of a row: the text column when it is set, otherwise the decoded bytea column.
+     */
+    public static String read(String originalReq, byte[] originalReqBin) {
+        return originalReq != null || originalReqBin == null ? originalReq : decode(originalReqBin);
+    }
+
+    public static String decode(byte[] stored) {
+        if (stored.length == 0) {
+            throw new IllegalArgumentException("Empty original_req_bin");
+        }
+        switch (stored[0]) {
+            case RAW:
+                return new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+            case LZ4:
+                int length = ByteBuffer.wrap(stored, 1, 4).getInt();
+                byte[] utf8 = new byte[length];
+                DECOMPRESSOR.decompress(stored, 5, utf8, 0, length);
+                return new String(utf8, StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException("Unknown original_req_bin format " + stored[0]);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of {@code /process}, published as {@code sfms.process.stage} with tags {@code stage},
+ * {@code msg.type}, {@code target} and {@code outcome}.
+ * <p>
+ * Cardinality is bounded by construction: {@code msg.type} is a MsgDefIdr from {@code file-type.processor}, or
+ * {@code other} / {@code unknown}; {@code target} is the processor configured for it, or {@code none}; and
+ * {@code outcome} is an {@link com.hdfcbank.sfmsconsumer.model.AuditStatus} name or one of the constants below.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "sfms.process.stage";
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String ERROR = "ERROR";
+    public static final String INVALID = "INVALID";
+    public static final String CANCELLED = "CANCELLED";
+
+    static final String OTHER = "other";
+    static final String UNKNOWN = "unknown";
+    static final String NONE = "none";
+
+    public enum Stage {
+        VALIDATE, BYPASS, AUDIT, SANITIZE, BUILD_JSON, PUBLISH, STATUS_UPDATE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry registry;
+
+    private final TargetProcessorTopicConfig config;
+
+    private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry registry, TargetProcessorTopicConfig config) {
+        this.registry = registry;
+        this.config = config;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, String msgType, String outcome) {
+        sample.stop(timer(stage, msgType, outcome));
+    }
+
+    /**
+     * Times a synchronous stage: {@link #SUCCESS} when it returns, {@link #ERROR} when it throws.
+     */
+    public <T> T record(Stage stage, String msgType, Supplier<T> call) {
+        return record(stage, msgType, call, result -> SUCCESS);
+    }
+
+    /**
+     * As {@link #record(Stage, String, Supplier)}, with the outcome of the returned value, null included, given
+     * by {@code outcome}.
+     */
+    public <T> T record(Stage stage, String msgType, Supplier<T> call, Function<? super T, String> outcome) {
+        Timer.Sample sample = start();
+        try {
+            T result = call.get();
+            stop(sample, stage, msgType, outcome.apply(result));
+            return result;
+        } catch (RuntimeException e) {
+            stop(sample, stage, msgType, ERROR);
+            throw e;
+        }
+    }
+
+    public void record(Stage stage, String msgType, Runnable call) {
+        record(stage, msgType, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Times a stage from subscription to its signal: {@link #SUCCESS} on completion, {@link #ERROR} on error,
+     * {@link #CANCELLED} on cancel.
+     */
+    public <T> Mono<T> time(Stage stage, String msgType, Mono<T> source) {
+        return time(stage, msgType, source, value -> SUCCESS);
+    }
+
+    /**
+     * As {@link #time(Stage, String, Mono)}, with the outcome of a value given by {@code outcome}.
+     */
+    public <T> Mono<T> time(Stage stage, String msgType, Mono<T> source, Function<? super T, String> outcome) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = start();
+            return source
+                    .doOnSuccess(value -> stop(sample, stage, msgType, value == null ? SUCCESS : outcome.apply(value)))
+                    .doOnError(e -> stop(sample, stage, msgType, ERROR))
+                    .doOnCancel(() -> stop(sample, stage, msgType, CANCELLED));
+        });
+    }
+
+    Timer timer(Stage stage, String msgType, String outcome) {
+        String type = msgType == null ? UNKNOWN : msgType.trim();
+        String target = config.getProcessor() != null ? config.getProcessor().get(type) : null;
+        if (target == null) {
+            type = msgType == null ? UNKNOWN : OTHER;
+            target = NONE;
+        }
+        return timers.computeIfAbsent(new Key(stage, type, target, outcome), key -> Timer.builder(STAGE_TIMER)
+                .description("Time spent in one stage of /process")
+                .tag("stage", key.stage().tag)
+                .tag("msg.type", key.msgType())
+                .tag("target", key.target())
+                .tag("outcome", key.outcome())
+                .register(registry));
+    }
+
+    private record Key(Stage stage, String msgType, String target, String outcome) {
+    }
+}
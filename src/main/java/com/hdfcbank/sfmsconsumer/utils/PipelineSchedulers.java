@@ -0,0 +1,125 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.PipelineSchedulerProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The threads each stage of {@code /process} runs on.
+ * <ul>
+ *     <li>Intake: the servlet thread binds the body and returns the {@code Mono}.</li>
+ *     <li>Validate, bypass and the audit up to its first statement: the parsing pool when
+ *     {@code pipeline.parsing.enabled}, otherwise the servlet thread. A request the pool cannot queue is rejected
+ *     before any work is done.</li>
+ *     <li>Audit, status update and tracker batches: R2DBC I/O; what follows a statement, sanitize and build JSON
+ *     included, continues on the driver thread that completed it, or with {@code lanes.enabled} on the threads of
+ *     the message's lane, see {@link com.hdfcbank.sfmsconsumer.service.PriorityLanes}.</li>
+ *     <li>Original request compression: {@link Schedulers#parallel()}, see {@link OriginalReqCodec}.</li>
+ *     <li>Publish: subscribed on {@link #publish()}, which is the calling thread unless
+ *     {@code pipeline.publish.executor} says otherwise; the sidecar ack arrives on the Dapr client's threads.</li>
+ * </ul>
+ * With {@code pipeline.mode=IMPERATIVE} every stage starts on the request thread, which waits for each database
+ * statement and publish in turn; the parsing pool is not used.
+ */
+@Slf4j
+@Component
+public class PipelineSchedulers implements MeterBinder, DisposableBean {
+
+    private final PipelineSchedulerProperties properties;
+
+    private final ThreadPoolExecutor parsingExecutor;
+
+    private final Scheduler parsing;
+
+    private final Scheduler publish;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PipelineSchedulers(PipelineSchedulerProperties properties) {
+        this.properties = properties;
+        PipelineSchedulerProperties.Parsing config = properties.getParsing();
+        if (config.isEnabled()) {
+            int threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+            parsingExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getQueueCapacity()), new CustomizableThreadFactory("sfms-parse-"),
+                    (task, executor) -> {
+                        rejected.incrementAndGet();
+                        throw new RejectedExecutionException("Parsing queue full");
+                    });
+            parsing = Schedulers.fromExecutorService(parsingExecutor, "sfms-parse");
+            log.info("Parsing on {} threads with a queue of {}", threads, config.getQueueCapacity());
+        } else {
+            parsingExecutor = null;
+            parsing = Schedulers.immediate();
+        }
+        publish = switch (properties.getPublish().getExecutor()) {
+            case CALLER -> Schedulers.immediate();
+            case BOUNDED_ELASTIC -> Schedulers.boundedElastic();
+            case VIRTUAL -> {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sfms-publish-");
+                // Fails here, at startup, on a JVM without virtual threads
+                executor.setVirtualThreads(true);
+                yield Schedulers.fromExecutor(executor);
+            }
+        };
+    }
+
+    /**
+     * Where validation and audit start. Scheduling on it fails with a {@link RejectedExecutionException} when the
+     * queue is full.
+     */
+    public Scheduler parsing() {
+        return parsing;
+    }
+
+    public Scheduler publish() {
+        return publish;
+    }
+
+    /**
+     * The Retry-After value for a rejected request, in whole seconds.
+     */
+    public long retryAfterSeconds() {
+        Duration retryAfter = properties.getRetryAfter();
+        return Math.max(1, retryAfter.plusMillis(999).toSeconds());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (parsingExecutor == null) {
+            return;
+        }
+        Gauge.builder("sfms.pipeline.parsing.queued", parsingExecutor, executor -> executor.getQueue().size())
+                .description("Requests waiting for a parsing thread")
+                .register(registry);
+        Gauge.builder("sfms.pipeline.parsing.active", parsingExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Parsing threads running a request")
+                .register(registry);
+        FunctionCounter.builder("sfms.pipeline.parsing.rejected", rejected, AtomicLong::get)
+                .description("Requests answered 503 because the parsing queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (parsingExecutor != null) {
+            parsing.dispose();
+        }
+    }
+}
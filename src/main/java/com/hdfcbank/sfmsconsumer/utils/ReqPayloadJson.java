@@ -0,0 +1,75 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hdfcbank.sfmsconsumer.model.Body;
+import com.hdfcbank.sfmsconsumer.model.ExceptionDetail;
+import com.hdfcbank.sfmsconsumer.model.Header;
+import com.hdfcbank.sfmsconsumer.model.ReqPayload;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared writer for every {@link ReqPayload} sent to Kafka. An {@link ObjectWriter} is immutable and thread-safe;
+ * it is created and exercised once at class load so serializer lookup and bean introspection are not paid per
+ * message. Output is compact: consumers parse the JSON, so indentation only added bytes to each event.
+ * <p>
+ * {@link #writeUtf8} streams the JSON, with the XML body escaped on the fly, straight into a pooled growable
+ * buffer and returns the exact UTF-8 bytes; no intermediate {@code String} of the envelope is built.
+ */
+public final class ReqPayloadJson {
+
+    private static final ObjectWriter WRITER = createWriter();
+
+    static final int POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    // Buffers that grew past this for an unusually large file are dropped instead of pooled
+    static final int MAX_POOLED_BUFFER = 4 * 1024 * 1024;
+
+    private static final BlockingQueue<ByteArrayBuilder> BUFFERS = new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    private ReqPayloadJson() {
+    }
+
+    public static String write(ReqPayload reqPayload) throws JsonProcessingException {
+        return WRITER.writeValueAsString(reqPayload);
+    }
+
+    public static byte[] writeUtf8(ReqPayload reqPayload) throws IOException {
+        ByteArrayBuilder buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new ByteArrayBuilder(16 * 1024);
+        }
+        int written = 0;
+        try {
+            WRITER.writeValue(buffer, reqPayload);
+            written = buffer.size();
+            return buffer.toByteArray();
+        } finally {
+            // reset keeps the last (largest) block for the next message
+            buffer.reset();
+            if (written <= MAX_POOLED_BUFFER) {
+                BUFFERS.offer(buffer);
+            }
+        }
+    }
+
+    private static ObjectWriter createWriter() {
+        ObjectWriter writer = new ObjectMapper().writerFor(ReqPayload.class);
+        try {
+            // Resolves and caches the serializers of Header, Body and ExceptionDetail
+            writer.writeValueAsString(ReqPayload.builder()
+                    .header(Header.builder().build())
+                    .body(Body.builder().build())
+                    .exceptionDetail(ExceptionDetail.builder().build())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("ReqPayload is not serializable", e);
+        }
+        return writer;
+    }
+}
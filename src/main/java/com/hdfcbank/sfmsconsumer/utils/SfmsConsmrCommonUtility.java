@@ -3,20 +3,19 @@ package com.hdfcbank.sfmsconsumer.utils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,37 +25,76 @@ import java.util.regex.Pattern;
 public class SfmsConsmrCommonUtility {
 
     public String getValueByXPath(Document document, String xpathExpression) throws XPathExpressionException {
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        String value = (String) xpath.evaluate(xpathExpression, document, XPathConstants.STRING);
+        String value = XPathPool.evaluate(document, xpathExpression);
         return value != null && !value.isEmpty() ? value.trim() : null;
     }
 
+    /**
+     * Compiles the given expressions into the shared XPath pool, failing on the first invalid one.
+     */
+    public void precompile(Collection<String> xpathExpressions) {
+        XPathPool.precompile(xpathExpressions);
+    }
+
 
     public static Document toXmlDocument(String xmlString) {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = null;
         try {
-            builder = factory.newDocumentBuilder();
-
-            return builder.parse(new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8)));
-
+            return DocumentBuilderPool.parse(utf8Source(xmlString), false);
         } catch (ParserConfigurationException | SAXException | IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Parses the XML treating warnings and recoverable errors as fatal, as required at intake.
+     */
+    public static Document toStrictXmlDocument(String xmlString) throws ParserConfigurationException, SAXException, IOException {
+        return DocumentBuilderPool.parse(utf8Source(xmlString), true);
+    }
+
+    /**
+     * As {@link #toStrictXmlDocument(String)}, reading UTF-8 bytes in place.
+     */
+    public static Document toStrictXmlDocument(InputStream utf8) throws ParserConfigurationException, SAXException, IOException {
+        InputSource source = new InputSource(utf8);
+        source.setEncoding(StandardCharsets.UTF_8.name());
+        return DocumentBuilderPool.parse(source, true);
+    }
+
+    private static InputSource utf8Source(String xmlString) {
+        return new InputSource(new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final Pattern MSG_ID_PATTERN =
+            Pattern.compile("<\\s*BizMsgIdr\\s*>(.*?)<\\s*/\\s*BizMsgIdr\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern MSG_TYPE_PATTERN =
+            Pattern.compile("<\\s*MsgDefIdr\\s*>(.*?)<\\s*/\\s*MsgDefIdr\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern BATCH_ID_PATTERN = Pattern.compile("<(Ustrd|AddtlInf)>(.*?)</\\1>", Pattern.DOTALL);
+
+    // The three patterns above as alternatives of one; at any position at most one of them can match
+    private static final Pattern FALLBACK_FIELDS_PATTERN = Pattern.compile(
+            "<(?:\\s*(?i:BizMsgIdr)\\s*>(.*?)<\\s*/\\s*(?i:BizMsgIdr)\\s*>"
+                    + "|\\s*(?i:MsgDefIdr)\\s*>(.*?)<\\s*/\\s*(?i:MsgDefIdr)\\s*>"
+                    + "|(Ustrd|AddtlInf)>(.*?)</\\3>)",
+            Pattern.DOTALL);
+
+    /**
+     * Header fields recovered from a payload that could not be parsed.
+     */
+    public record FallbackFields(String msgId, String msgType, String batchId) {
+    }
+
     public String getMsgId(String xmlMessage) {
-        Pattern pattern = Pattern.compile("<\\s*BizMsgIdr\\s*>(.*?)<\\s*/\\s*BizMsgIdr\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(xmlMessage);
+        Matcher matcher = MSG_ID_PATTERN.matcher(xmlMessage);
         if (matcher.find()) return matcher.group(1);
         log.error("MsgId not found in XML");
         return null;
     }
 
     public String extractBatchIdValue(String xml) {
-        Pattern pattern = Pattern.compile("<(Ustrd|AddtlInf)>(.*?)</\\1>", Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(xml);
+        Matcher matcher = BATCH_ID_PATTERN.matcher(xml);
         if (matcher.find()) return matcher.group(2);
         return "";
     }
@@ -64,11 +102,36 @@ public class SfmsConsmrCommonUtility {
 
 
     public String getMsgType(String xmlMessage) {
-        Pattern pattern = Pattern.compile("<\\s*MsgDefIdr\\s*>(.*?)<\\s*/\\s*MsgDefIdr\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(xmlMessage);
+        Matcher matcher = MSG_TYPE_PATTERN.matcher(xmlMessage);
         if (matcher.find()) return matcher.group(1);
         log.error("MsgDefIdr not found in XML");
         return null;
     }
 
+    /**
+     * Same results as {@link #getMsgId}, {@link #getMsgType} and {@link #extractBatchIdValue}, found in a single
+     * pass over the payload that stops once all three are known.
+     */
+    public FallbackFields extractFallbackFields(String xmlMessage) {
+        String msgId = null;
+        String msgType = null;
+        String batchId = null;
+        Matcher matcher = FALLBACK_FIELDS_PATTERN.matcher(xmlMessage);
+        int from = 0;
+        while ((msgId == null || msgType == null || batchId == null) && matcher.find(from)) {
+            if (matcher.start(1) >= 0) {
+                if (msgId == null) msgId = matcher.group(1);
+            } else if (matcher.start(2) >= 0) {
+                if (msgType == null) msgType = matcher.group(2);
+            } else if (batchId == null) {
+                batchId = matcher.group(4);
+            }
+            // Resume just past the '<' so tags nested in a matched element are still seen, as by the single patterns
+            from = matcher.start() + 1;
+        }
+        if (msgId == null) log.error("MsgId not found in XML");
+        if (msgType == null) log.error("MsgDefIdr not found in XML");
+        return new FallbackFields(msgId, msgType, batchId != null ? batchId : "");
+    }
+
 }
@@ -0,0 +1,107 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import org.w3c.dom.Document;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded pool of XPath evaluators shared by all threads. XPath and XPathExpression are not thread-safe, so an
+ * evaluator, with its own compiled copy of every expression seen so far, is borrowed for one evaluation. A new
+ * evaluator compiles the known expressions when it is created, so a request never compiles one it has seen,
+ * whichever thread, platform or virtual, it runs on.
+ */
+final class XPathPool {
+
+    static final int CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final XPathFactory FACTORY = XPathFactory.newInstance();
+
+    // Compiled successfully at least once
+    private static final Set<String> EXPRESSIONS = ConcurrentHashMap.newKeySet();
+
+    private static final BlockingQueue<Evaluator> POOL = new ArrayBlockingQueue<>(CAPACITY);
+
+    private XPathPool() {
+    }
+
+    static String evaluate(Document document, String xpathExpression) throws XPathExpressionException {
+        Evaluator evaluator = borrow();
+        try {
+            return (String) evaluator.compile(xpathExpression).evaluate(document, XPathConstants.STRING);
+        } finally {
+            POOL.offer(evaluator);
+        }
+    }
+
+    /**
+     * Compiles the expressions, failing on the first invalid one, and fills the pool with evaluators that
+     * have them compiled.
+     */
+    static void precompile(Iterable<String> xpathExpressions) {
+        Evaluator evaluator = borrow();
+        try {
+            for (String xpathExpression : xpathExpressions) {
+                try {
+                    evaluator.compile(xpathExpression);
+                } catch (XPathExpressionException e) {
+                    throw new IllegalStateException("Invalid XPath expression: " + xpathExpression, e);
+                }
+            }
+        } finally {
+            POOL.offer(evaluator);
+        }
+        while (POOL.size() < CAPACITY && POOL.offer(new Evaluator())) {
+            // filled up to capacity
+        }
+    }
+
+    static int idle() {
+        return POOL.size();
+    }
+
+    private static Evaluator borrow() {
+        Evaluator evaluator = POOL.poll();
+        return evaluator != null ? evaluator : new Evaluator();
+    }
+
+    private static final class Evaluator {
+
+        private final XPath xpath;
+
+        private final Map<String, XPathExpression> compiled = new HashMap<>();
+
+        private Evaluator() {
+            synchronized (FACTORY) {
+                // XPathFactory is not thread-safe
+                xpath = FACTORY.newXPath();
+            }
+            for (String xpathExpression : EXPRESSIONS) {
+                try {
+                    compile(xpathExpression);
+                } catch (XPathExpressionException e) {
+                    throw new IllegalStateException("XPath expression compiled before fails now: " + xpathExpression, e);
+                }
+            }
+        }
+
+        private XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expression = compiled.get(xpathExpression);
+            if (expression == null) {
+                expression = xpath.compile(xpathExpression);
+                compiled.put(xpathExpression, expression);
+                EXPRESSIONS.add(xpathExpression);
+            }
+            return expression;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Column written instead of original_req when original-req.compressed=true.
+-- First byte is the format marker: 0 = UTF-8 as is, 1 = LZ4 block preceded by the 4-byte UTF-8 length.
+-- Rows written before the switch keep their text in original_req.
+
+ALTER TABLE network_il.msg_event_tracker ADD COLUMN IF NOT EXISTS original_req_bin bytea;
+
+ALTER TABLE network_il.admi004_tracker ADD COLUMN IF NOT EXISTS original_req_bin bytea;
+
+ALTER TABLE network_il.invalid_payload ADD COLUMN IF NOT EXISTS original_req_bin bytea;
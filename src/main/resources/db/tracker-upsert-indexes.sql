@@ -0,0 +1,11 @@
+-- Unique keys required when tracker.upsert-enabled=true.
+-- Existing duplicate rows must be resolved before the index can be built.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_msg_event_tracker_msg_source_target_batch
+    ON network_il.msg_event_tracker (msg_id, source, target, batch_id);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_admi004_tracker_msg_id
+    ON network_il.admi004_tracker (msg_id);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_invalid_payload_msg_id
+    ON network_il.invalid_payload (msg_id);
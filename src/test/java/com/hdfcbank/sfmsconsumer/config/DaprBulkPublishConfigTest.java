@@ -0,0 +1,42 @@
+package com.hdfcbank.sfmsconsumer.config;
+
+import io.dapr.config.Properties;
+import io.dapr.config.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaprBulkPublishConfigTest {
+
+    @Test
+    void testOverrides_useSidecarSettings() {
+        DaprSidecarProperties sidecar = new DaprSidecarProperties();
+        sidecar.setHost("10.0.0.5");
+        sidecar.setHttpPort(3600);
+        sidecar.setGrpcPort(50011);
+        sidecar.setApiToken("secret");
+
+        Map<Property<?>, String> overrides = DaprBulkPublishConfig.overrides(sidecar);
+
+        assertEquals("10.0.0.5", overrides.get(Properties.SIDECAR_IP));
+        assertEquals("3600", overrides.get(Properties.HTTP_PORT));
+        assertEquals("50011", overrides.get(Properties.GRPC_PORT));
+        assertEquals("secret", overrides.get(Properties.API_TOKEN));
+        assertFalse(overrides.containsKey(Properties.GRPC_ENDPOINT));
+    }
+
+    @Test
+    void testOverrides_blankOptionalSettingsLeftToSdk() {
+        DaprSidecarProperties sidecar = new DaprSidecarProperties();
+        sidecar.setGrpcEndpoint("");
+        sidecar.setApiToken("");
+
+        Map<Property<?>, String> overrides = DaprBulkPublishConfig.overrides(sidecar);
+
+        assertEquals("127.0.0.1", overrides.get(Properties.SIDECAR_IP));
+        assertFalse(overrides.containsKey(Properties.GRPC_ENDPOINT));
+        assertFalse(overrides.containsKey(Properties.API_TOKEN));
+    }
+}
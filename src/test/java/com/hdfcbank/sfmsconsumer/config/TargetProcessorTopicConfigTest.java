@@ -4,7 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,4 +86,43 @@ class TargetProcessorTopicConfigTest {
         config.setTopic(null);
         assertNull(config.getTopicFileType("pacs.002.001.09"));
     }
+
+    @Test
+    void testFindProcessorIn_firstConfiguredKeyInMessage() {
+        Map<String, String> processorMap = new LinkedHashMap<>();
+        processorMap.put("pacs.008.001.09", "pacs008Processor");
+        processorMap.put("admi.004.001.02", "admi004Processor");
+        config.setProcessor(processorMap);
+
+        Optional<Map.Entry<String, String>> found =
+                config.findProcessorIn("<MsgDefIdr>ADMI.004.001.02</MsgDefIdr><Ustrd>pacs.008.001.09</Ustrd>");
+
+        assertTrue(found.isPresent());
+        assertEquals("pacs.008.001.09", found.get().getKey());
+        assertEquals("pacs008Processor", found.get().getValue());
+        assertTrue(config.findProcessorIn("<MsgDefIdr>camt.059.001.06</MsgDefIdr>").isEmpty());
+    }
+
+    @Test
+    void testFindProcessorIn_noProcessorsConfigured() {
+        assertTrue(config.findProcessorIn("pacs.008.001.09").isEmpty());
+    }
+
+    @Test
+    void testFindProcessorIn_seesSameSizeChangesMadeInPlace() {
+        Map<String, String> processorMap = new LinkedHashMap<>();
+        processorMap.put("pacs.008.001.09", "pacs008Processor");
+        processorMap.put("admi.004.001.02", "admi004Processor");
+        config.setProcessor(processorMap);
+        assertEquals("pacs008Processor", config.findProcessorIn("pacs.008.001.09").orElseThrow().getValue());
+
+        // A rebind that replaces a value, or swaps a key, keeps the map and its size
+        processorMap.put("pacs.008.001.09", "pacs008ProcessorV2");
+        assertEquals("pacs008ProcessorV2", config.findProcessorIn("pacs.008.001.09").orElseThrow().getValue());
+
+        processorMap.remove("admi.004.001.02");
+        processorMap.put("camt.054.001.08", "camt054Processor");
+        assertTrue(config.findProcessorIn("admi.004.001.02").isEmpty());
+        assertEquals("camt054Processor", config.findProcessorIn("camt.054.001.08").orElseThrow().getValue());
+    }
 }
@@ -2,24 +2,49 @@ package com.hdfcbank.sfmsconsumer.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hdfcbank.sfmsconsumer.config.AdmissionProperties;
+import com.hdfcbank.sfmsconsumer.config.IntakeProperties;
+import com.hdfcbank.sfmsconsumer.config.LaneProperties;
+import com.hdfcbank.sfmsconsumer.config.PipelineSchedulerProperties;
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
 import com.hdfcbank.sfmsconsumer.model.Response;
+import com.hdfcbank.sfmsconsumer.service.AdmissionControl;
+import com.hdfcbank.sfmsconsumer.service.BypassService;
 import com.hdfcbank.sfmsconsumer.service.ErrXmlRoutingService;
 import com.hdfcbank.sfmsconsumer.service.IncomingMsgAudit;
+import com.hdfcbank.sfmsconsumer.service.MessageEnvelopeParser;
+import com.hdfcbank.sfmsconsumer.service.PriorityLanes;
 import com.hdfcbank.sfmsconsumer.service.PublishMessage;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics;
+import com.hdfcbank.sfmsconsumer.utils.PipelineSchedulers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import javax.xml.xpath.XPathExpressionException;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class ProcessControllerTest {
@@ -33,6 +58,32 @@ class ProcessControllerTest {
     @Mock
     private ErrXmlRoutingService errorMsgAudit;
 
+    @Mock
+    private BypassService bypassService;
+
+    @Mock
+    private MessageEnvelopeParser messageEnvelopeParser;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(registry, new TargetProcessorTopicConfig());
+
+    @Spy
+    private IntakeProperties intakeProperties = new IntakeProperties();
+
+    @Spy
+    private PipelineSchedulerProperties pipelineProperties = new PipelineSchedulerProperties();
+
+    @Spy
+    private PipelineSchedulers pipelineSchedulers = new PipelineSchedulers(new PipelineSchedulerProperties());
+
+    @Spy
+    private AdmissionControl admissionControl = new AdmissionControl(admissionProperties());
+
+    @Spy
+    private PriorityLanes priorityLanes = new PriorityLanes(new LaneProperties(), new TargetProcessorTopicConfig());
+
     @InjectMocks
     private ProcessController controller;
 
@@ -72,6 +123,168 @@ class ProcessControllerTest {
         assertEquals("Success", response.getBody());
     }
 
+    @Test
+    void testProcess_bypass_timesSubscribedPublish() throws Exception {
+        String request = "{A:CBS}<RequestPayload/>";
+        when(messageEnvelopeParser.unparsed(any(String[].class))).thenReturn(MessageEnvelope.builder()
+                .prefix("{A:CBS}").body("<RequestPayload/>").msgId("MSG1").msgType("pacs.008.001.09").build());
+        when(bypassService.isBypassEnabled()).thenReturn(true);
+        Sinks.One<AuditStatus> published = Sinks.one();
+        when(bypassService.publishToBypassSwitch(any())).thenReturn(published.asMono());
+
+        ResponseEntity<Response> response = controller.process(request).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // Answered before the switch publish finished, which is what the timer waits for
+        assertNull(registry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "bypass").timer());
+        published.tryEmitValue(AuditStatus.ERROR);
+        assertEquals(1, registry.get(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "bypass", "outcome", "ERROR").timer().count());
+    }
+
+    @Test
+    void testProcess_imperative_success() throws Exception {
+        pipelineProperties.setMode(PipelineSchedulerProperties.Mode.IMPERATIVE);
+        MessageEnvelope envelope = pacs008();
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+        when(incomingMsgAudit.auditIncomingMessage(envelope)).thenReturn(Mono.just(AuditStatus.SUCCESS));
+        when(publishMessage.sendRequest(envelope)).thenReturn(Mono.empty());
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("SUCCESS", response.getBody().getStatus());
+        verify(publishMessage).sendRequest(envelope);
+        assertPermitReleased();
+    }
+
+    @Test
+    void testProcess_imperative_duplicate() throws Exception {
+        pipelineProperties.setMode(PipelineSchedulerProperties.Mode.IMPERATIVE);
+        MessageEnvelope envelope = pacs008();
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+        when(incomingMsgAudit.auditIncomingMessage(envelope)).thenReturn(Mono.just(AuditStatus.DUPLICATE));
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("DUPLICATE", response.getBody().getStatus());
+        verifyNoInteractions(publishMessage);
+        assertPermitReleased();
+    }
+
+    @Test
+    void testProcess_imperative_busyAtAdmissionLimit() throws Exception {
+        pipelineProperties.setMode(PipelineSchedulerProperties.Mode.IMPERATIVE);
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(pacs008());
+        AdmissionControl.Permit held = admissionControl.tryAcquire("pacs.008.001.09");
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("BUSY", response.getBody().getStatus());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(incomingMsgAudit, publishMessage);
+        held.release(true);
+    }
+
+    @Test
+    void testProcess_imperative_laneQueueFull_busyAndReleasesPermit() throws Exception {
+        pipelineProperties.setMode(PipelineSchedulerProperties.Mode.IMPERATIVE);
+        MessageEnvelope envelope = pacs008();
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+        when(incomingMsgAudit.auditIncomingMessage(envelope))
+                .thenReturn(Mono.error(new RejectedExecutionException("lane bulk full")));
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("BUSY", response.getBody().getStatus());
+        verifyNoInteractions(publishMessage);
+        assertPermitReleased();
+    }
+
+    @Test
+    void testProcess_reactive_laneQueueFull_busyAndReleasesPermit() throws Exception {
+        MessageEnvelope envelope = pacs008();
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+        when(incomingMsgAudit.auditIncomingMessage(envelope))
+                .thenReturn(Mono.error(new RejectedExecutionException("lane bulk full")));
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertPermitReleased();
+    }
+
+    @Test
+    void testProcess_laneDatabaseQueueFull_busyWithoutAudit() throws Exception {
+        LaneProperties.Lane definition = new LaneProperties.Lane();
+        definition.setThreads(1);
+        definition.setDbConnections(1);
+        definition.setQueueCapacity(1);
+        LaneProperties laneProperties = new LaneProperties();
+        laneProperties.setEnabled(true);
+        laneProperties.setDefinitions(new LinkedHashMap<>(Map.of("bulk", definition)));
+        PriorityLanes enabled = new PriorityLanes(laneProperties, new TargetProcessorTopicConfig());
+        try {
+            PriorityLanes.Lane bulk = enabled.lane("pacs.008.001.09");
+            doReturn(bulk).when(priorityLanes).lane(any());
+            // One message holds the lane's only database permit and one more waits for it
+            bulk.database(Sinks.one().asMono()).subscribe();
+            bulk.database(Mono.just("waiting")).subscribe();
+            MessageEnvelope envelope = pacs008();
+            when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+            AtomicBoolean audited = new AtomicBoolean();
+            when(incomingMsgAudit.auditIncomingMessage(envelope))
+                    .thenReturn(Mono.fromCallable(() -> {
+                        audited.set(true);
+                        return AuditStatus.SUCCESS;
+                    }));
+
+            ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("BUSY", response.getBody().getStatus());
+            assertFalse(audited.get(), "audit ran although the lane was full");
+            verifyNoInteractions(publishMessage);
+            assertPermitReleased();
+        } finally {
+            enabled.destroy();
+        }
+    }
+
+    @Test
+    void testProcess_imperative_failureReleasesPermit() throws Exception {
+        pipelineProperties.setMode(PipelineSchedulerProperties.Mode.IMPERATIVE);
+        MessageEnvelope envelope = pacs008();
+        when(messageEnvelopeParser.parse(any(String[].class))).thenReturn(envelope);
+        when(incomingMsgAudit.auditIncomingMessage(envelope)).thenReturn(Mono.just(AuditStatus.SUCCESS));
+        when(publishMessage.sendRequest(envelope)).thenReturn(Mono.error(new IllegalStateException("sidecar down")));
+
+        ResponseEntity<Response> response = controller.process("{A:CBS}<RequestPayload/>").block();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        // With a limit of 1, a permit kept by the failed message would turn this one away
+        when(publishMessage.sendRequest(envelope)).thenReturn(Mono.empty());
+        assertEquals(HttpStatus.OK, controller.process("{A:CBS}<RequestPayload/>").block().getStatusCode());
+        assertPermitReleased();
+    }
+
+    @Test
+    void testProcess_xpathFailure_routedAsInvalid() throws Exception {
+        String request = "{A:CBS}<RequestPayload/>";
+        when(messageEnvelopeParser.parse(any(String[].class))).thenThrow(new XPathExpressionException("bad xpath"));
+        when(errorMsgAudit.determineTopic(request)).thenReturn(Mono.empty());
+
+        ResponseEntity<Response> response = controller.process(request).block();
+
+        assertNull(response);
+        verify(errorMsgAudit).determineTopic(request);
+        verifyNoInteractions(incomingMsgAudit, publishMessage);
+    }
+
  /*   @Test
     void testProcess_success() throws JsonProcessingException {
         Mono<ResponseEntity<Response>> responseMono = controller.process(validRequestJson);
@@ -112,4 +325,23 @@ class ProcessControllerTest {
         verify(publishMessage, times(1)).sendRequest(any(String[].class));
         verifyNoInteractions(errorMsgAudit);
     }*/
+
+    private void assertPermitReleased() {
+        AdmissionControl.Permit permit = admissionControl.tryAcquire("pacs.008.001.09");
+        assertNotNull(permit, "permit of the last message still held");
+        permit.release(true);
+    }
+
+    private static MessageEnvelope pacs008() {
+        return MessageEnvelope.builder().prefix("{A:CBS}").body("<RequestPayload/>").msgId("MSG1")
+                .msgType("pacs.008.001.09").batchId("B1").build();
+    }
+
+    // Enabled, with room for one pacs message at a time
+    private static AdmissionProperties admissionProperties() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setLimits(new LinkedHashMap<>(Map.of("pacs", 1)));
+        return properties;
+    }
 }
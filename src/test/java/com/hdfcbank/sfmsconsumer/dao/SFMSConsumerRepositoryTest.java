@@ -2,6 +2,7 @@ package com.hdfcbank.sfmsconsumer.dao;
 
 import com.hdfcbank.sfmsconsumer.config.BTAllowedMsgType;
 import com.hdfcbank.sfmsconsumer.model.AdmiTracker;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
 import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -105,4 +107,35 @@ class SFMSConsumerRepositoryTest {
 //        String result = repository.checkNull(null);
 //        org.junit.jupiter.api.Assertions.assertEquals("", result);
 //    }
+
+    @Test
+    void testUpsertStatus_inserted_success() {
+        assertEquals(AuditStatus.SUCCESS, SFMSConsumerRepository.upsertStatus(true, "CAPTURED", "MSG123"));
+    }
+
+    @Test
+    void testUpsertStatus_conflict_mapsExistingStatus() {
+        assertEquals(AuditStatus.CAPTURED_DUPLICATE, SFMSConsumerRepository.upsertStatus(false, "CAPTURED", "MSG123"));
+        assertEquals(AuditStatus.SEND_TO_PROCESSOR_DUPLICATE, SFMSConsumerRepository.upsertStatus(false, "SEND_TO_PROCESSOR", "MSG123"));
+        assertEquals(AuditStatus.SEND_TO_DISPATCHER, SFMSConsumerRepository.upsertStatus(false, "send_to_dispatcher", "MSG123"));
+    }
+
+    @Test
+    void testUpsertStatus_conflictWithOtherStatus_success() {
+        assertEquals(AuditStatus.SUCCESS, SFMSConsumerRepository.upsertStatus(false, "TECX", "MSG123"));
+    }
+
+    @Test
+    void testAdmiUpsertStatus_conflictWithOtherStatus_duplicate() {
+        assertEquals(AuditStatus.SUCCESS, SFMSConsumerRepository.admiUpsertStatus(true, "CAPTURED", "ADMI001"));
+        assertEquals(AuditStatus.CAPTURED_DUPLICATE, SFMSConsumerRepository.admiUpsertStatus(false, "CAPTURED", "ADMI001"));
+        assertEquals(AuditStatus.DUPLICATE, SFMSConsumerRepository.admiUpsertStatus(false, "TECX", "ADMI001"));
+    }
+
+    @Test
+    void testRepeatInBatchStatus_insertedFirstIsCapturedDuplicate() {
+        assertEquals(AuditStatus.CAPTURED_DUPLICATE, SFMSConsumerRepository.repeatInBatchStatus(AuditStatus.SUCCESS));
+        assertEquals(AuditStatus.SEND_TO_PROCESSOR_DUPLICATE,
+                SFMSConsumerRepository.repeatInBatchStatus(AuditStatus.SEND_TO_PROCESSOR_DUPLICATE));
+    }
 }
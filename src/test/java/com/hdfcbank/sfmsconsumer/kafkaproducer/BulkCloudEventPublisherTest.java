@@ -0,0 +1,144 @@
+package com.hdfcbank.sfmsconsumer.kafkaproducer;
+
+import com.hdfcbank.sfmsconsumer.config.DaprPublishProperties;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import io.dapr.client.domain.CloudEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkCloudEventPublisherTest {
+
+    private DaprPreviewClient daprPreviewClient;
+
+    private BulkCloudEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        daprPreviewClient = mock(DaprPreviewClient.class);
+        DaprPublishProperties properties = new DaprPublishProperties();
+        properties.getBulk().setMaxBatchSize(3);
+        properties.getBulk().setLinger(Duration.ofSeconds(5));
+        publisher = new BulkCloudEventPublisher(daprPreviewClient, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_fullBatchSentInOneRequest() {
+        when(daprPreviewClient.publishEvents(any(BulkPublishRequest.class)))
+                .thenReturn(Mono.just(new BulkPublishResponse<>(List.of())));
+
+        List<Mono<Void>> publishes = List.of(
+                publisher.publish(event("MSG1", "topic-a"), Map.of("partitionKey", "MSG1")).cache(),
+                publisher.publish(event("MSG2", "topic-a"), Map.of("partitionKey", "MSG2")).cache(),
+                publisher.publish(event("MSG3", "topic-a"), Map.of("partitionKey", "MSG3")).cache());
+        publishes.forEach(Mono::subscribe);
+        publishes.forEach(mono -> mono.block(Duration.ofSeconds(2)));
+
+        ArgumentCaptor<BulkPublishRequest<CloudEvent<?>>> captor = ArgumentCaptor.forClass(BulkPublishRequest.class);
+        verify(daprPreviewClient, times(1)).publishEvents(captor.capture());
+        assertEquals("topic-a", captor.getValue().getTopic());
+        assertEquals(3, captor.getValue().getEntries().size());
+        assertEquals("MSG2", captor.getValue().getEntries().get(1).getMetadata().get("partitionKey"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_failedEntryErrorsOnlyItsCaller() {
+        when(daprPreviewClient.publishEvents(any(BulkPublishRequest.class))).thenAnswer(invocation -> {
+            BulkPublishRequest<CloudEvent<?>> request = invocation.getArgument(0);
+            return Mono.just(new BulkPublishResponse<>(List.of(
+                    new BulkPublishResponseFailedEntry<>(request.getEntries().get(1), "broker rejected"))));
+        });
+
+        Mono<Void> first = publisher.publish(event("MSG1", "topic-a"), Map.of()).cache();
+        Mono<Void> second = publisher.publish(event("MSG2", "topic-a"), Map.of()).cache();
+        Mono<Void> third = publisher.publish(event("MSG3", "topic-a"), Map.of()).cache();
+        List.of(first, second, third).forEach(mono -> mono.subscribe(unused -> {}, error -> {}));
+
+        assertDoesNotThrow(() -> first.block(Duration.ofSeconds(2)));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> second.block(Duration.ofSeconds(2)));
+        assertTrue(ex.getMessage().contains("MSG2"));
+        assertDoesNotThrow(() -> third.block(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_failedRequestErrorsWholeBatch() {
+        when(daprPreviewClient.publishEvents(any(BulkPublishRequest.class)))
+                .thenReturn(Mono.error(new RuntimeException("sidecar unavailable")));
+
+        Mono<Void> publish = publisher.publish(event("MSG1", "topic-b"), Map.of()).cache();
+        publish.subscribe(unused -> {}, error -> {});
+        publisher.shutdown();
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> publish.block(Duration.ofSeconds(2)));
+        assertEquals("sidecar unavailable", ex.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_cancelledEventNotSent() {
+        DaprPublishProperties properties = new DaprPublishProperties();
+        properties.getBulk().setMaxBatchSize(10);
+        properties.getBulk().setLinger(Duration.ofMillis(200));
+        BulkCloudEventPublisher lingering = new BulkCloudEventPublisher(daprPreviewClient, properties);
+        when(daprPreviewClient.publishEvents(any(BulkPublishRequest.class)))
+                .thenReturn(Mono.just(new BulkPublishResponse<>(List.of())));
+
+        // KafkaUtils' timeout cancels the first attempt before retrying; only the retry may reach the sidecar
+        assertThrows(RuntimeException.class, () -> lingering.publish(event("MSG1", "topic-c"), Map.of())
+                .timeout(Duration.ofMillis(10)).block(Duration.ofSeconds(2)));
+        lingering.publish(event("MSG1", "topic-c"), Map.of()).block(Duration.ofSeconds(2));
+        lingering.shutdown();
+
+        ArgumentCaptor<BulkPublishRequest<CloudEvent<?>>> captor = ArgumentCaptor.forClass(BulkPublishRequest.class);
+        verify(daprPreviewClient, times(1)).publishEvents(captor.capture());
+        assertEquals(1, captor.getValue().getEntries().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testShutdown_sendsQueuedEventsBeforeReturning() {
+        DaprPublishProperties properties = new DaprPublishProperties();
+        properties.getBulk().setMaxBatchSize(10);
+        properties.getBulk().setLinger(Duration.ofMinutes(1));
+        BulkCloudEventPublisher lingering = new BulkCloudEventPublisher(daprPreviewClient, properties);
+        when(daprPreviewClient.publishEvents(any(BulkPublishRequest.class)))
+                .thenReturn(Mono.just(new BulkPublishResponse<>(List.of())));
+
+        Mono<Void> publish = lingering.publish(event("MSG1", "topic-d"), Map.of()).cache();
+        publish.subscribe();
+        lingering.shutdown();
+
+        verify(daprPreviewClient, times(1)).publishEvents(any(BulkPublishRequest.class));
+        assertDoesNotThrow(() -> publish.block(Duration.ofSeconds(1)));
+    }
+
+    private static CloudEvent<String> event(String msgId, String topic) {
+        CloudEvent<String> event = new CloudEvent<>();
+        event.setId(msgId);
+        event.setTopic(topic);
+        event.setPubsubName("pubsub");
+        event.setData("{}");
+        return event;
+    }
+}
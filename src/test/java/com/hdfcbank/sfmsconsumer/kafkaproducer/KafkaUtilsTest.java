@@ -3,17 +3,30 @@ package com.hdfcbank.sfmsconsumer.kafkaproducer;
 
 import com.hdfcbank.messageconnect.config.PubSubOptions;
 import com.hdfcbank.messageconnect.dapr.producer.DaprProducer;
+import com.hdfcbank.sfmsconsumer.config.DaprPublishProperties;
+import com.hdfcbank.sfmsconsumer.config.PipelineSchedulerProperties;
+import com.hdfcbank.sfmsconsumer.exception.SFMSConsumerException;
 import com.hdfcbank.sfmsconsumer.utils.Constants;
+import com.hdfcbank.sfmsconsumer.utils.PipelineSchedulers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.domain.CloudEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 
@@ -22,6 +35,12 @@ class KafkaUtilsTest {
     @Mock
     private DaprProducer daprProducer;
 
+    @Spy
+    private DaprPublishProperties publishProperties = new DaprPublishProperties();
+
+    @Spy
+    private PipelineSchedulers pipelineSchedulers = new PipelineSchedulers(new PipelineSchedulerProperties());
+
     @InjectMocks
     private KafkaUtils kafkaUtils;
 
@@ -30,8 +49,60 @@ class KafkaUtilsTest {
 
     @BeforeEach
     void setUp() {
+        publishProperties.setTimeout(Duration.ofMillis(200));
+        publishProperties.setRetryBackoff(Duration.ofMillis(1));
         MockitoAnnotations.openMocks(this);
     }
+
+    @Test
+    void testPublishToKafkaTopic_lazyUntilSubscribed() {
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenReturn(Mono.empty());
+
+        Mono<Void> publish = kafkaUtils.publishToKafkaTopic(message, topic, "MSG1");
+        verifyNoInteractions(daprProducer);
+
+        publish.block();
+        verify(daprProducer, times(1)).invokeDaprPublishEvent(argThat(event ->
+                topic.equals(event.getTopic()) && "MSG1".equals(event.getId())), eq(Map.of("partitionKey", "MSG1")));
+    }
+
+    @Test
+    void testPublishToKafkaTopic_retriesTransientFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenReturn(Mono.defer(() ->
+                attempts.incrementAndGet() == 1 ? Mono.error(new RuntimeException("sidecar unavailable")) : Mono.empty()));
+
+        kafkaUtils.publishToKafkaTopic(message, topic, "MSG1").block();
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testPublishToKafkaTopic_retriesExhausted_kafkaException() {
+        publishProperties.setMaxRetries(1);
+        AtomicInteger attempts = new AtomicInteger();
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new RuntimeException("sidecar unavailable"));
+        }));
+
+        SFMSConsumerException.KafkaException ex = assertThrows(SFMSConsumerException.KafkaException.class,
+                () -> kafkaUtils.publishToKafkaTopic(message, topic, "MSG1").block());
+
+        assertEquals("sidecar unavailable", ex.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testPublishToKafkaTopic_noAck_timesOut() {
+        publishProperties.setMaxRetries(0);
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenReturn(Mono.never());
+
+        SFMSConsumerException.KafkaException ex = assertThrows(SFMSConsumerException.KafkaException.class,
+                () -> kafkaUtils.publishToKafkaTopic(message, topic, "MSG1").block());
+
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+    }
 /*
     @Test
     void testPublishToResponseTopic_success() {
@@ -76,4 +147,28 @@ class KafkaUtilsTest {
 
         verify(daprProducer, times(1)).invokeDaprPublishEvent(any(PubSubOptions.class));
     }*/
+
+    @Test
+    void testPublishJsonToKafkaTopic_stringDataByDefault() {
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenReturn(Mono.empty());
+
+        kafkaUtils.publishJsonToKafkaTopic(message.getBytes(StandardCharsets.UTF_8), topic, "MSG1").block();
+
+        verify(daprProducer).invokeDaprPublishEvent(argThat(event -> message.equals(event.getData())), anyMap());
+    }
+
+    @Test
+    void testPublishJsonToKafkaTopic_rawJsonDataEmbedsObject() throws Exception {
+        publishProperties.setRawJsonData(true);
+        AtomicReference<CloudEvent> published = new AtomicReference<>();
+        when(daprProducer.invokeDaprPublishEvent(any(CloudEvent.class), anyMap())).thenAnswer(invocation -> {
+            published.set(invocation.getArgument(0));
+            return Mono.empty();
+        });
+
+        kafkaUtils.publishJsonToKafkaTopic(message.getBytes(StandardCharsets.UTF_8), topic, "MSG1").block();
+
+        String wire = new String(new ObjectMapper().writeValueAsBytes(published.get()), StandardCharsets.UTF_8);
+        assertTrue(wire.contains("\"data\":" + message), wire);
+    }
 }
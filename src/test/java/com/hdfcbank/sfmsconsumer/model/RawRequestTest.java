@@ -0,0 +1,65 @@
+package com.hdfcbank.sfmsconsumer.model;
+
+import com.hdfcbank.sfmsconsumer.controller.ProcessController;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawRequestTest {
+
+    @Test
+    void testOf_skipsBomAndSplitsAtFirstTag() throws Exception {
+        byte[] bytes = "\uFEFF {A:CBS F01}\r\n <RequestPayload>é</RequestPayload>\n".getBytes(StandardCharsets.UTF_8);
+
+        RawRequest request = RawRequest.of(bytes);
+
+        assertEquals("{A:CBS F01}", request.prefix());
+        assertEquals("<RequestPayload>é</RequestPayload>", request.body());
+        assertEquals(request.body().getBytes(StandardCharsets.UTF_8).length, request.bodyLength());
+        try (InputStream body = request.bodyStream()) {
+            assertEquals(request.body(), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(new String(bytes, StandardCharsets.UTF_8), request.request());
+    }
+
+    @Test
+    void testOf_noTag_allPrefix() {
+        RawRequest request = RawRequest.of(" no xml here ".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("no xml here", request.prefix());
+        assertEquals("", request.body());
+        assertEquals(0, request.bodyLength());
+    }
+
+    @Test
+    void testOf_emptyAndBomOnly() {
+        assertEquals("", RawRequest.of(new byte[0]).prefix());
+        RawRequest bomOnly = RawRequest.of(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        assertEquals("", bomOnly.prefix());
+        assertEquals("", bomOnly.body());
+    }
+
+    @Test
+    void testOf_matchesStringIntake() {
+        String[] pieces = {"\uFEFF", " ", "\t", "\r\n", "<", ">", "{A:}", "é", "₹", "😀", "x", "\u0000"};
+        Random random = new Random(21);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder message = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                message.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String request = message.toString();
+
+            String[] expected = ProcessController.removeBOM(request);
+            RawRequest actual = RawRequest.of(request.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(expected[0].trim(), actual.prefix(), request);
+            assertEquals(expected[1].trim(), actual.body(), request);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private AdmissionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setLimits(new LinkedHashMap<>(Map.of("pacs", 2, "admi", 1, AdmissionProperties.OTHER, 1)));
+    }
+
+    @Test
+    void testFamily() {
+        assertEquals("pacs", AdmissionControl.family(" pacs.008.001.09 "));
+        assertEquals("camt", AdmissionControl.family("CAMT.054.001.08"));
+        assertEquals("junk", AdmissionControl.family("junk"));
+        assertEquals(AdmissionProperties.OTHER, AdmissionControl.family(null));
+    }
+
+    @Test
+    void testTryAcquire_disabled_neverLimits() {
+        properties.setEnabled(false);
+        AdmissionControl control = new AdmissionControl(properties);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(control.tryAcquire("admi.004.001.02"));
+        }
+    }
+
+    @Test
+    void testTryAcquire_limitsEachFamilySeparately() {
+        AdmissionControl control = new AdmissionControl(properties);
+
+        AdmissionControl.Permit first = control.tryAcquire("pacs.008.001.09");
+        assertNotNull(first);
+        assertNotNull(control.tryAcquire("pacs.002.001.11"));
+        assertNull(control.tryAcquire("pacs.008.001.09"));
+        assertNotNull(control.tryAcquire("admi.004.001.02"));
+
+        first.release(true);
+        first.release(true);
+        assertNotNull(control.tryAcquire("pacs.008.001.09"));
+        assertNull(control.tryAcquire("pacs.008.001.09"));
+    }
+
+    @Test
+    void testTryAcquire_otherLeftOut_usesDefaultLimit() {
+        properties.setLimits(new LinkedHashMap<>(Map.of("pacs", 2)));
+        AdmissionControl control = new AdmissionControl(properties);
+
+        for (int i = 0; i < AdmissionProperties.DEFAULT_OTHER_LIMIT; i++) {
+            assertNotNull(control.tryAcquire("xyz.001.001.01"));
+        }
+        assertNull(control.tryAcquire("xyz.001.001.01"));
+    }
+
+    @Test
+    void testTryAcquire_unlistedFamiliesShareOther() {
+        AdmissionControl control = new AdmissionControl(properties);
+
+        AdmissionControl.Permit camt = control.tryAcquire("camt.054.001.08");
+        assertNotNull(camt);
+        assertNull(control.tryAcquire("camt.059.001.06"));
+        assertNull(control.tryAcquire(null));
+        camt.abandon();
+        assertNotNull(control.tryAcquire(null));
+    }
+
+    @Test
+    void testAimd_growsWhileFastAndCutsWhenSlowOrFailed() {
+        properties.getAdaptive().setMode(AdmissionProperties.Adaptive.Mode.AIMD);
+        properties.getAdaptive().setLatencyThreshold(Duration.ofMinutes(1));
+        properties.getAdaptive().setBackoffRatio(0.5);
+        properties.getAdaptive().setMaxLimit(4);
+        AdmissionControl control = new AdmissionControl(properties);
+
+        for (int i = 0; i < 5; i++) {
+            AdmissionControl.Permit a = control.tryAcquire("pacs.008.001.09");
+            AdmissionControl.Permit b = control.tryAcquire("pacs.008.001.09");
+            a.release(true);
+            b.release(true);
+        }
+        assertEquals(4, control.limit("pacs.008.001.09"));
+
+        control.tryAcquire("pacs.008.001.09").release(false);
+        assertEquals(2, control.limit("pacs.008.001.09"));
+
+        properties.getAdaptive().setLatencyThreshold(Duration.ZERO);
+        control.tryAcquire("pacs.008.001.09").release(true);
+        control.tryAcquire("pacs.008.001.09").release(true);
+        assertEquals(1, control.limit("pacs.008.001.09"));
+    }
+
+    @Test
+    void testFixed_limitsDoNotMove() {
+        AdmissionControl control = new AdmissionControl(properties);
+
+        control.tryAcquire("pacs.008.001.09").release(false);
+
+        assertEquals(2, control.limit("pacs.008.001.09"));
+    }
+
+    @Test
+    void testBindTo_exportsLimitsPerFamily() {
+        AdmissionControl control = new AdmissionControl(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        control.bindTo(registry);
+
+        control.tryAcquire("pacs.008.001.09");
+        control.tryAcquire("admi.004.001.02");
+        control.tryAcquire("admi.004.001.02");
+
+        assertEquals(2, registry.get("sfms.admission.limit").tag("family", "pacs").gauge().value());
+        assertEquals(1, registry.get("sfms.admission.in.flight").tag("family", "pacs").gauge().value());
+        assertEquals(1, registry.get("sfms.admission.rejected").tag("family", "admi").functionCounter().count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.BypassProperties;
+import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.kafkaproducer.KafkaUtils;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static com.hdfcbank.sfmsconsumer.utils.Constants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BypassServiceTest {
+
+    private static final String PREFIX = "{A:CBSF01O}";
+    private static final String BODY = "<RequestPayload><AppHdr>"
+            + "<BizMsgIdr>MSG123</BizMsgIdr>"
+            + "<MsgDefIdr>pacs.008.001.09</MsgDefIdr>"
+            + "<CreDt>2025-07-23T10:15:30Z</CreDt>"
+            + "</AppHdr></RequestPayload>";
+
+    @Mock
+    private KafkaUtils kafkaUtils;
+
+    @Mock
+    private SFMSConsumerRepository sfmsConsumerRepository;
+
+    @Mock
+    private SfmsConsmrCommonUtility sfmsConsmrCommonUtility;
+
+    @Mock
+    private BatchIdXmlFieldExtractor batchIdXmlFieldExtractor;
+
+    @Mock
+    private BuildJsonReq buildJsonReq;
+
+    private BypassService bypassService;
+
+    @BeforeEach
+    void setUp() {
+        BypassProperties bypassProperties = new BypassProperties();
+        bypassProperties.setEnabled(true);
+        bypassProperties.setDefaultSwitch("SWITCH1");
+        bypassProperties.setSwitches(Map.of("SWITCH1", "bypass-topic"));
+        bypassService = new BypassService(kafkaUtils, bypassProperties, sfmsConsumerRepository,
+                sfmsConsmrCommonUtility, batchIdXmlFieldExtractor, buildJsonReq);
+    }
+
+    @Test
+    void testSendToBypassSwitch_publishesMessageToSwitchTopic() throws Exception {
+        when(sfmsConsmrCommonUtility.getValueByXPath(any(), eq(MSGID_XPATH))).thenReturn("MSG123");
+        when(sfmsConsmrCommonUtility.getValueByXPath(any(), eq(MSGDEFIDR_XPATH))).thenReturn("pacs.008.001.09");
+        when(sfmsConsmrCommonUtility.getValueByXPath(any(), eq(BATCH_CREDT_XPATH))).thenReturn("2025-07-23T10:15:30Z");
+        when(batchIdXmlFieldExtractor.extractFieldByFileType(any(), eq("pacs.008.001.09"))).thenReturn("BATCH1");
+        when(sfmsConsumerRepository.saveDataInMsgEventTrackerByPassEnabled(any()))
+                .thenReturn(Mono.just(AuditStatus.SUCCESS));
+        when(kafkaUtils.publishToKafkaTopic(anyString(), anyString(), anyString())).thenReturn(Mono.empty());
+
+        bypassService.sendToBypassSwitch(new String[]{PREFIX, BODY});
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> topic = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> msgId = ArgumentCaptor.forClass(String.class);
+        verify(kafkaUtils).publishToKafkaTopic(message.capture(), topic.capture(), msgId.capture());
+        assertEquals(PREFIX + BODY, message.getValue());
+        assertEquals("bypass-topic", topic.getValue());
+        assertEquals("MSG123", msgId.getValue());
+        verify(sfmsConsumerRepository).saveDataInMsgEventTrackerByPassEnabled(any());
+    }
+}
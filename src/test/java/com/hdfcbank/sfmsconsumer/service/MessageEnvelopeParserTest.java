@@ -0,0 +1,114 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.BatchIdXPathConfig;
+import com.hdfcbank.sfmsconsumer.config.HeaderExtractionProperties;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import com.hdfcbank.sfmsconsumer.model.RawRequest;
+import com.hdfcbank.sfmsconsumer.utils.SfmsConsmrCommonUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageEnvelopeParserTest {
+
+    private MessageEnvelopeParser parser;
+
+    private HeaderExtractionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        SfmsConsmrCommonUtility utility = new SfmsConsmrCommonUtility();
+        BatchIdXPathConfig batchIdXPathConfig = new BatchIdXPathConfig();
+        batchIdXPathConfig.setXpaths(Map.of(
+                "pacs.008.001.09", "(.//*[local-name()='RmtInf']//*[local-name()='Ustrd'])[1]"));
+        properties = new HeaderExtractionProperties();
+        properties.setMode(HeaderExtractionProperties.Mode.XPATH);
+        parser = new MessageEnvelopeParser(utility, new BatchIdXmlFieldExtractor(utility, batchIdXPathConfig),
+                new StreamingHeaderExtractor(batchIdXPathConfig), properties);
+    }
+
+    @Test
+    void testParse_extractsHeaderFieldsAndBatchId() throws Exception {
+        String body = "<RequestPayload>"
+                + "<AppHdr><BizMsgIdr>RBIP20250911003</BizMsgIdr><MsgDefIdr>pacs.008.001.09</MsgDefIdr>"
+                + "<CreDt>2025-07-23T17:02:34Z</CreDt></AppHdr>"
+                + "<Document><RmtInf><Ustrd>BATCH001</Ustrd></RmtInf></Document>"
+                + "</RequestPayload>";
+
+        MessageEnvelope envelope = parser.parse(new String[]{"{A:CBS}", body});
+
+        assertEquals("RBIP20250911003", envelope.getMsgId());
+        assertEquals("pacs.008.001.09", envelope.getMsgType());
+        assertEquals("2025-07-23T17:02:34Z", envelope.getBatchCreDt());
+        assertEquals("BATCH001", envelope.getBatchId());
+        assertEquals("{A:CBS}" + body, envelope.getOriginalReq());
+    }
+
+    @Test
+    void testParse_unknownFileType_emptyBatchId() throws Exception {
+        String body = "<RequestPayload><AppHdr><BizMsgIdr>ADMI1</BizMsgIdr>"
+                + "<MsgDefIdr>admi.004.001.02</MsgDefIdr></AppHdr></RequestPayload>";
+
+        MessageEnvelope envelope = parser.parse(new String[]{"", body});
+
+        assertEquals("admi.004.001.02", envelope.getMsgType());
+        assertEquals("", envelope.getBatchId());
+        assertNull(envelope.getBatchCreDt());
+    }
+
+    @Test
+    void testParse_malformedXml_throws() {
+        assertThrows(SAXException.class, () -> parser.parse(new String[]{"", "<RequestPayload><AppHdr>"}));
+    }
+
+    @Test
+    void testParse_streamingMode_matchesXPathMode() throws Exception {
+        String body = "<RequestPayload>"
+                + "<AppHdr><BizMsgIdr>RBIP20250911003</BizMsgIdr><MsgDefIdr>pacs.008.001.09</MsgDefIdr>"
+                + "<CreDt>2025-07-23T17:02:34Z</CreDt></AppHdr>"
+                + "<Document><RmtInf><Ustrd>BATCH001</Ustrd></RmtInf></Document>"
+                + "</RequestPayload>";
+
+        MessageEnvelope viaXPath = parser.parse(new String[]{"{A:CBS}", body});
+        properties.setMode(HeaderExtractionProperties.Mode.STREAMING);
+        MessageEnvelope viaStreaming = parser.parse(new String[]{"{A:CBS}", body});
+
+        assertEquals(viaXPath, viaStreaming);
+    }
+
+    @Test
+    void testParse_streamingMode_malformedXml_throws() {
+        properties.setMode(HeaderExtractionProperties.Mode.STREAMING);
+        assertThrows(XMLStreamException.class, () -> parser.parse(new String[]{"", "<RequestPayload><AppHdr>"}));
+    }
+
+    @Test
+    void testParse_rawRequest_matchesStringIntakeInEveryMode() throws Exception {
+        String body = "<RequestPayload>"
+                + "<AppHdr><BizMsgIdr>RBIP20250911003</BizMsgIdr><MsgDefIdr>pacs.008.001.09</MsgDefIdr>"
+                + "<CreDt>2025-07-23T17:02:34Z</CreDt></AppHdr>"
+                + "<Document><RmtInf><Ustrd>BATCH₹</Ustrd></RmtInf></Document>"
+                + "</RequestPayload>";
+        RawRequest request = RawRequest.of(("\uFEFF{A:CBS}\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+
+        for (HeaderExtractionProperties.Mode mode : HeaderExtractionProperties.Mode.values()) {
+            properties.setMode(mode);
+            assertEquals(parser.parse(new String[]{"{A:CBS}", body}), parser.parse(request), mode.name());
+        }
+    }
+
+    @Test
+    void testParse_rawRequest_malformedXml_throws() {
+        RawRequest request = RawRequest.of("<RequestPayload><AppHdr>".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(SAXException.class, () -> parser.parse(request));
+        properties.setMode(HeaderExtractionProperties.Mode.STREAMING);
+        assertThrows(XMLStreamException.class, () -> parser.parse(request));
+    }
+}
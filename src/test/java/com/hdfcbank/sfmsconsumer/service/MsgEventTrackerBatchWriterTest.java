@@ -0,0 +1,128 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.TrackerWriteProperties;
+import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.exception.SFMSException;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.MsgEventTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class MsgEventTrackerBatchWriterTest {
+
+    private SFMSConsumerRepository repository;
+
+    private MsgEventTrackerBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SFMSConsumerRepository.class);
+        TrackerWriteProperties properties = new TrackerWriteProperties();
+        properties.getBatchInsert().setMaxBatchSize(2);
+        properties.getBatchInsert().setLinger(Duration.ofSeconds(5));
+        writer = new MsgEventTrackerBatchWriter(repository, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSave_fullBatchWrittenOnce_statusesInCallerOrder() {
+        when(repository.saveDataInMsgEventTrackerBatch(anyList()))
+                .thenReturn(Mono.just(List.of(AuditStatus.SUCCESS, AuditStatus.SEND_TO_PROCESSOR_DUPLICATE)));
+
+        Mono<AuditStatus> first = writer.save(tracker("MSG1")).cache();
+        Mono<AuditStatus> second = writer.save(tracker("MSG2")).cache();
+        first.subscribe();
+        second.subscribe();
+
+        assertEquals(AuditStatus.SUCCESS, first.block(Duration.ofSeconds(2)));
+        assertEquals(AuditStatus.SEND_TO_PROCESSOR_DUPLICATE, second.block(Duration.ofSeconds(2)));
+
+        ArgumentCaptor<List<MsgEventTracker>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).saveDataInMsgEventTrackerBatch(captor.capture());
+        assertEquals("MSG1", captor.getValue().get(0).getMsgId());
+        assertEquals("MSG2", captor.getValue().get(1).getMsgId());
+    }
+
+    @Test
+    void testShutdown_writesPartialBatch() {
+        when(repository.saveDataInMsgEventTrackerBatch(anyList())).thenReturn(Mono.just(List.of(AuditStatus.SUCCESS)));
+
+        Mono<AuditStatus> result = writer.save(tracker("MSG1")).cache();
+        result.subscribe();
+        writer.shutdown();
+
+        verify(repository).saveDataInMsgEventTrackerBatch(anyList());
+        assertEquals(AuditStatus.SUCCESS, result.block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testSave_failedStatement_errorsEveryCaller() {
+        when(repository.saveDataInMsgEventTrackerBatch(anyList()))
+                .thenReturn(Mono.error(new SFMSException("DATABASE_DOWN", new RuntimeException("Connection refused"))));
+
+        Mono<AuditStatus> first = writer.save(tracker("MSG1")).cache();
+        Mono<AuditStatus> second = writer.save(tracker("MSG2")).cache();
+        first.subscribe(unused -> {}, error -> {});
+        second.subscribe(unused -> {}, error -> {});
+
+        assertThrows(SFMSException.class, () -> first.block(Duration.ofSeconds(2)));
+        assertThrows(SFMSException.class, () -> second.block(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSave_saturatedInFlight_keepsQueuingAndStaysUsable() {
+        TrackerWriteProperties properties = new TrackerWriteProperties();
+        properties.getBatchInsert().setMaxBatchSize(2);
+        properties.getBatchInsert().setLinger(Duration.ofMillis(5));
+        properties.getBatchInsert().setMaxInFlight(2);
+        MsgEventTrackerBatchWriter saturated = new MsgEventTrackerBatchWriter(repository, properties);
+        Sinks.Empty<Void> release = Sinks.empty();
+        when(repository.saveDataInMsgEventTrackerBatch(anyList())).thenAnswer(invocation -> {
+            List<MsgEventTracker> rows = invocation.getArgument(0);
+            // Statements hang until released, so the first two batches hold every in-flight slot
+            return release.asMono().then(Mono.fromCallable(() -> Collections.nCopies(rows.size(), AuditStatus.SUCCESS)));
+        });
+
+        Mono<List<AuditStatus>> audits = Flux.range(0, 40)
+                .flatMap(i -> saturated.save(tracker("MSG" + i)), 40)
+                .collectList()
+                .cache();
+        audits.subscribe(unused -> {}, error -> {});
+
+        // Well past the linger: the audits wait in the queue rather than fail
+        assertThrows(IllegalStateException.class, () -> audits.block(Duration.ofMillis(300)));
+        verify(repository, times(2)).saveDataInMsgEventTrackerBatch(anyList());
+
+        release.tryEmitEmpty();
+        List<AuditStatus> statuses = audits.block(Duration.ofSeconds(5));
+        assertEquals(40, statuses.size());
+        assertTrue(statuses.stream().allMatch(status -> status == AuditStatus.SUCCESS));
+
+        assertEquals(AuditStatus.SUCCESS, saturated.save(tracker("MSG40")).block(Duration.ofSeconds(2)));
+        saturated.shutdown();
+    }
+
+    private MsgEventTracker tracker(String msgId) {
+        return MsgEventTracker.builder().msgId(msgId).msgType("pacs.008.001.09").source("SFMS")
+                .target("pacs008Processor").batchId("B1").build();
+    }
+}
@@ -0,0 +1,189 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.LaneProperties;
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityLanesTest {
+
+    private LaneProperties properties;
+
+    private TargetProcessorTopicConfig config;
+
+    private PriorityLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> processors = new LinkedHashMap<>();
+        processors.put("pacs.008.001.09", "pacs008Processor");
+        processors.put("admi.004.001.02", "admi004Processor");
+        processors.put("camt.059.001.06", "camt59Processor");
+        config = new TargetProcessorTopicConfig();
+        config.setProcessor(processors);
+
+        LaneProperties.Lane control = new LaneProperties.Lane();
+        control.setProcessors(List.of("admi004Processor", " camt59Processor"));
+        control.setThreads(1);
+        control.setDbConnections(1);
+        control.setPublishConcurrency(1);
+        properties = new LaneProperties();
+        properties.setEnabled(true);
+        properties.setDefinitions(new LinkedHashMap<>(Map.of("control", control)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (lanes != null) {
+            lanes.destroy();
+        }
+    }
+
+    @Test
+    void testLane_disabled_runsInPlace() {
+        properties.setEnabled(false);
+        lanes = new PriorityLanes(properties, config);
+
+        PriorityLanes.Lane lane = lanes.lane("admi.004.001.02");
+
+        assertSame(Schedulers.immediate(), lane.scheduler());
+        assertEquals("ok", lane.database(Mono.just("ok")).block());
+    }
+
+    @Test
+    void testLane_byProcessorWithDefaultForTheRest() {
+        lanes = new PriorityLanes(properties, config);
+
+        assertEquals("control", lanes.lane(" admi.004.001.02 ").name());
+        assertEquals("control", lanes.lane("camt.059.001.06").name());
+        assertEquals("bulk", lanes.lane("pacs.008.001.09").name());
+        assertEquals("bulk", lanes.lane("junk").name());
+        assertEquals("bulk", lanes.lane(null).name());
+    }
+
+    @Test
+    void testDatabase_waitsForThePermitOfItsOwnLaneOnly() {
+        lanes = new PriorityLanes(properties, config);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lanes.bindTo(registry);
+        PriorityLanes.Lane control = lanes.lane("admi.004.001.02");
+        Sinks.One<String> first = Sinks.one();
+
+        control.database(first.asMono()).subscribe();
+        AtomicBoolean secondRan = new AtomicBoolean();
+        Mono<String> second = control.database(Mono.fromCallable(() -> {
+            secondRan.set(true);
+            return "second";
+        })).cache();
+        second.subscribe();
+
+        assertFalse(secondRan.get());
+        assertEquals(1, registry.get("sfms.lane.db.acquired").tag("lane", "control").gauge().value());
+        assertEquals(1, registry.get("sfms.lane.db.pending").tag("lane", "control").gauge().value());
+        assertEquals("bulk", lanes.lane("pacs.008.001.09").database(Mono.just("bulk")).block(Duration.ofSeconds(5)));
+
+        first.tryEmitValue("first");
+        assertEquals("second", second.block(Duration.ofSeconds(5)));
+        assertEquals(0, registry.get("sfms.lane.db.acquired").tag("lane", "control").gauge().value());
+    }
+
+    @Test
+    void testDatabase_rejectsOnceQueueCapacityMessagesWait() {
+        properties.getDefinitions().get("control").setQueueCapacity(2);
+        lanes = new PriorityLanes(properties, config);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lanes.bindTo(registry);
+        PriorityLanes.Lane control = lanes.lane("admi.004.001.02");
+        Sinks.One<String> holder = Sinks.one();
+
+        control.database(holder.asMono()).subscribe();
+        Mono<String> waiting = control.database(Mono.just("waiting")).cache();
+        waiting.subscribe();
+        control.database(Mono.just("waiting")).subscribe();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> control.database(Mono.just("late")).block(Duration.ofSeconds(5)));
+        // Later statements of a message already under way still queue
+        Mono<String> followUp = control.databaseFollowUp(Mono.just("follow-up")).cache();
+        followUp.subscribe();
+        assertEquals(3, registry.get("sfms.lane.db.pending").tag("lane", "control").gauge().value());
+
+        holder.tryEmitValue("holder");
+        assertEquals("waiting", waiting.block(Duration.ofSeconds(5)));
+        assertEquals("follow-up", followUp.block(Duration.ofSeconds(5)));
+        assertEquals("again", control.database(Mono.just("again")).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testPublish_rejectsOnceQueueCapacityMessagesWait() {
+        properties.getDefinitions().get("control").setQueueCapacity(1);
+        lanes = new PriorityLanes(properties, config);
+        PriorityLanes.Lane control = lanes.lane("camt.059.001.06");
+
+        control.publish(Sinks.one().asMono()).subscribe();
+        control.publish(Mono.just("waiting")).subscribe();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> control.publish(Mono.just("late")).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testDatabase_workCompletesWithoutCancel() {
+        lanes = new PriorityLanes(properties, config);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        String value = lanes.lane("admi.004.001.02").database(Mono.just("ok").doOnCancel(() -> cancelled.set(true)))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("ok", value);
+        assertFalse(cancelled.get());
+    }
+
+    @Test
+    void testScheduler_rejectsOnceItsQueueIsFull() {
+        properties.getDefinitions().get("control").setQueueCapacity(2);
+        lanes = new PriorityLanes(properties, config);
+        Scheduler scheduler = lanes.lane("admi.004.001.02").scheduler();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Mono<Boolean> running = Mono.fromCallable(() -> release.await(5, TimeUnit.SECONDS)).subscribeOn(scheduler)
+                .cache();
+        running.subscribe();
+        Mono<String> queued = Mono.just("queued").subscribeOn(scheduler).cache();
+        queued.subscribe();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> Mono.just("late").subscribeOn(scheduler).block(Duration.ofSeconds(5)));
+
+        release.countDown();
+        assertEquals("queued", queued.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testScheduler_namedAfterLane() {
+        lanes = new PriorityLanes(properties, config);
+
+        String thread = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(lanes.lane("admi.004.001.02").scheduler())
+                .block(Duration.ofSeconds(5));
+
+        assertTrue(thread.startsWith("sfms-lane-control"), thread);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.DuplicateCacheProperties;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessageCacheTest {
+
+    private RecentMessageCache cache(DuplicateCacheProperties.Mode mode) {
+        DuplicateCacheProperties properties = new DuplicateCacheProperties();
+        properties.setMode(mode);
+        properties.setMaximumSize(10);
+        properties.setTtl(Duration.ofMinutes(1));
+        return new RecentMessageCache(properties);
+    }
+
+    @Test
+    void testPredict_offMode_neverAnswers() {
+        RecentMessageCache cache = cache(DuplicateCacheProperties.Mode.OFF);
+        cache.sentToProcessor("MSG1", "SFMS", "NIL", "B1");
+
+        assertNull(cache.predict("MSG1", "SFMS", "NIL", "B1"));
+    }
+
+    @Test
+    void testPredict_onlyForwardedStatusIsDuplicate() {
+        RecentMessageCache cache = cache(DuplicateCacheProperties.Mode.ENFORCE);
+        cache.captured("MSG1", "SFMS", "NIL", "B1");
+        assertNull(cache.predict("MSG1", "SFMS", "NIL", "B1"));
+
+        cache.sentToProcessor("MSG1", "SFMS", "NIL", "B1");
+        assertEquals(AuditStatus.DUPLICATE, cache.predict("MSG1", "SFMS", "NIL", "B1"));
+        assertNull(cache.predict("MSG1", "SFMS", "NIL", "B2"));
+    }
+
+    @Test
+    void testPredict_nullBatchIdMatchesEmpty() {
+        RecentMessageCache cache = cache(DuplicateCacheProperties.Mode.ENFORCE);
+        cache.sentToProcessor("MSG1", "SFMS", "NIL", null);
+
+        assertEquals(AuditStatus.DUPLICATE, cache.predict("MSG1", "SFMS", "NIL", ""));
+    }
+
+    @Test
+    void testVerify_countsMismatches() {
+        RecentMessageCache cache = cache(DuplicateCacheProperties.Mode.VERIFY);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.verify("MSG1", AuditStatus.DUPLICATE, AuditStatus.DUPLICATE);
+        cache.verify("MSG2", AuditStatus.DUPLICATE, AuditStatus.SUCCESS);
+        cache.verify("MSG3", null, AuditStatus.SUCCESS);
+
+        assertEquals(1, cache.verifyMismatches());
+        assertEquals(1.0, registry.get("sfms.duplicate.cache.verify").tag("result", "match").functionCounter().count());
+        assertEquals(1.0, registry.get("sfms.duplicate.cache.verify").tag("result", "mismatch").functionCounter().count());
+        assertNotNull(registry.find("cache.gets").tag("cache", "sfms.duplicate.cache").functionCounter());
+    }
+}
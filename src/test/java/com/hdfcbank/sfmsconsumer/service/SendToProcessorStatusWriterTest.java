@@ -0,0 +1,112 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.TrackerWriteProperties;
+import com.hdfcbank.sfmsconsumer.dao.SFMSConsumerRepository;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.model.StatusUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SendToProcessorStatusWriterTest {
+
+    private SFMSConsumerRepository repository;
+
+    private TrackerWriteProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SFMSConsumerRepository.class);
+        properties = new TrackerWriteProperties();
+        properties.getWriteBehind().setMaxBatchSize(3);
+        properties.getWriteBehind().setFlushInterval(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_fullBatchFlushedInOneCall_perMessageResult() {
+        when(repository.updateStatusToSendToProcessorBatch(anyList())).thenReturn(Flux.just(
+                new StatusUpdate("MSG1", "B1", "pacs.008.001.09"),
+                new StatusUpdate("ADMI1", null, "admi.004.001.02")));
+        SendToProcessorStatusWriter writer = new SendToProcessorStatusWriter(repository, properties);
+
+        List<Mono<AuditStatus>> results = List.of(
+                writer.submit("MSG1", "B1", "pacs.008.001.09").cache(),
+                writer.submit("MSG2", "B1", "pacs.008.001.09").cache(),
+                writer.submit("ADMI1", null, "admi.004.001.02").cache());
+        results.forEach(Mono::subscribe);
+
+        assertEquals(AuditStatus.SUCCESS, results.get(0).block(Duration.ofSeconds(2)));
+        assertEquals(AuditStatus.ERROR, results.get(1).block(Duration.ofSeconds(2)));
+        assertEquals(AuditStatus.SUCCESS, results.get(2).block(Duration.ofSeconds(2)));
+
+        ArgumentCaptor<List<StatusUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).updateStatusToSendToProcessorBatch(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        writer.shutdown();
+    }
+
+    @Test
+    void testShutdown_flushesPartialBatch() {
+        when(repository.updateStatusToSendToProcessorBatch(anyList()))
+                .thenReturn(Flux.just(new StatusUpdate("MSG1", "B1", "pacs.008.001.09")));
+        SendToProcessorStatusWriter writer = new SendToProcessorStatusWriter(repository, properties);
+
+        Mono<AuditStatus> result = writer.submit("MSG1", "B1", "pacs.008.001.09").cache();
+        result.subscribe();
+        writer.shutdown();
+
+        assertEquals(AuditStatus.SUCCESS, result.block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testSubmit_failedFlush_errorStatusForWholeBatch() {
+        when(repository.updateStatusToSendToProcessorBatch(anyList()))
+                .thenReturn(Flux.error(new RuntimeException("Connection refused")))
+                .thenReturn(Flux.just(new StatusUpdate("MSG3", "B1", "pacs.008.001.09")));
+        properties.getWriteBehind().setMaxBatchSize(2);
+        SendToProcessorStatusWriter writer = new SendToProcessorStatusWriter(repository, properties);
+
+        Mono<AuditStatus> first = writer.submit("MSG1", "B1", "pacs.008.001.09").cache();
+        Mono<AuditStatus> second = writer.submit("MSG2", "B1", "pacs.008.001.09").cache();
+        first.subscribe();
+        second.subscribe();
+        assertEquals(AuditStatus.ERROR, first.block(Duration.ofSeconds(2)));
+        assertEquals(AuditStatus.ERROR, second.block(Duration.ofSeconds(2)));
+
+        // A failed flush does not stop later ones
+        Mono<AuditStatus> third = writer.submit("MSG3", "B1", "pacs.008.001.09").cache();
+        third.subscribe();
+        writer.shutdown();
+        assertEquals(AuditStatus.SUCCESS, third.block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testSubmit_pipelineFailure_updatesDirectlyAndRestarts() {
+        when(repository.updateStatusToSendToProcessorBatch(anyList()))
+                // Thrown while building the statement, which takes the queue down rather than one flush
+                .thenThrow(new IllegalStateException("statement bug"))
+                .thenReturn(Flux.just(new StatusUpdate("MSG2", "B1", "pacs.008.001.09")));
+        when(repository.updateStatusToSendToProcessorDynamic("MSG1", "B1", "pacs.008.001.09"))
+                .thenReturn(Mono.just(AuditStatus.SUCCESS));
+        properties.getWriteBehind().setMaxBatchSize(1);
+        SendToProcessorStatusWriter writer = new SendToProcessorStatusWriter(repository, properties);
+
+        assertEquals(AuditStatus.SUCCESS, writer.submit("MSG1", "B1", "pacs.008.001.09").block(Duration.ofSeconds(2)));
+        verify(repository).updateStatusToSendToProcessorDynamic("MSG1", "B1", "pacs.008.001.09");
+
+        // Later updates are batched again
+        assertEquals(AuditStatus.SUCCESS, writer.submit("MSG2", "B1", "pacs.008.001.09").block(Duration.ofSeconds(2)));
+        verify(repository, times(2)).updateStatusToSendToProcessorBatch(anyList());
+        writer.shutdown();
+    }
+}
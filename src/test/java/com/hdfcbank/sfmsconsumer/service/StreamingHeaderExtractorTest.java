@@ -0,0 +1,88 @@
+package com.hdfcbank.sfmsconsumer.service;
+
+import com.hdfcbank.sfmsconsumer.config.BatchIdXPathConfig;
+import com.hdfcbank.sfmsconsumer.model.MessageEnvelope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingHeaderExtractorTest {
+
+    private static final String APP_HDR = "<AppHdr xmlns=\"urn:iso:std:iso:20022:tech:xsd:head.001.001.02\">"
+            + "<BizMsgIdr> RBIP20250911003 </BizMsgIdr><MsgDefIdr>%s</MsgDefIdr>"
+            + "<CreDt>2025-07-23T17:02:34Z</CreDt></AppHdr>";
+
+    private StreamingHeaderExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        BatchIdXPathConfig config = new BatchIdXPathConfig();
+        config.setXpaths(Map.of(
+                "pacs.008.001.09", "(.//*[local-name()='RmtInf']//*[local-name()='Ustrd'])[1]",
+                "pacs.002.001.11", "(.//*[local-name()='StsRsnInf']//*[local-name()='AddtlInf'])[1]",
+                "camt.054.001.08", ".//*[local-name()='GrpHdr']//*[local-name()='AddtlInf']",
+                "custom.001", "//*[contains(local-name(),'Ref')]"));
+        extractor = new StreamingHeaderExtractor(config);
+    }
+
+    @Test
+    void testExtract_pacs008_firstUstrd() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("pacs.008.001.09")
+                + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pacs.008.001.09\">"
+                + "<CdtTrfTxInf><RmtInf><Ustrd>BATCH001</Ustrd></RmtInf></CdtTrfTxInf>"
+                + "<CdtTrfTxInf><RmtInf><Ustrd>BATCH002</Ustrd></RmtInf></CdtTrfTxInf>"
+                + "</Document></RequestPayload>";
+
+        MessageEnvelope envelope = extractor.extract(new String[]{"{A:}", body}, true);
+
+        assertEquals("RBIP20250911003", envelope.getMsgId());
+        assertEquals("pacs.008.001.09", envelope.getMsgType());
+        assertEquals("2025-07-23T17:02:34Z", envelope.getBatchCreDt());
+        assertEquals("BATCH001", envelope.getBatchId());
+    }
+
+    @Test
+    void testExtract_descendantAxisSkipsUnrelatedAddtlInf() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("pacs.002.001.11")
+                + "<Document><OrgnlGrpInf><AddtlInf>NOT_THIS</AddtlInf></OrgnlGrpInf>"
+                + "<TxInfAndSts><StsRsnInf><Rsn><AddtlInf>BATCH-P2</AddtlInf></Rsn></StsRsnInf></TxInfAndSts>"
+                + "</Document></RequestPayload>";
+
+        assertEquals("BATCH-P2", extractor.extract(new String[]{"", body}, true).getBatchId());
+    }
+
+    @Test
+    void testExtract_unconfiguredType_emptyBatchId() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("admi.004.001.02") + "</RequestPayload>";
+
+        assertEquals("", extractor.extract(new String[]{"", body}, true).getBatchId());
+    }
+
+    @Test
+    void testExtract_missingBatchElement_nullBatchId() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("camt.054.001.08") + "<Document/></RequestPayload>";
+
+        assertNull(extractor.extract(new String[]{"", body}, true).getBatchId());
+    }
+
+    @Test
+    void testExtract_unsupportedXPath_returnsNull() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("custom.001") + "</RequestPayload>";
+
+        assertNull(extractor.extract(new String[]{"", body}, true));
+        assertFalse(extractor.supports("//*[contains(local-name(),'Ref')]"));
+    }
+
+    @Test
+    void testExtract_stopsEarlyWithoutValidation() throws Exception {
+        String body = "<RequestPayload>" + APP_HDR.formatted("camt.054.001.08")
+                + "<Document><GrpHdr><AddtlInf>B54</AddtlInf></GrpHdr><Ntfctn><broken></Ntfctn>";
+
+        assertEquals("B54", extractor.extract(new String[]{"", body}, false).getBatchId());
+        assertThrows(XMLStreamException.class, () -> extractor.extract(new String[]{"", body}, true));
+    }
+}
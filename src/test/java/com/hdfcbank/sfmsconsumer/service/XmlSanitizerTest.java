@@ -2,6 +2,14 @@ package com.hdfcbank.sfmsconsumer.service;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class XmlSanitizerTest {
@@ -24,4 +32,82 @@ class XmlSanitizerTest {
 
         assertEquals(expected, result);
     }
+
+    @Test
+    void testSanitize_sameAsRegexImplementation() throws IOException {
+        String[] tokens = {"\\", "n", "r", "\"", "\n", "\r", " ", "\t", "a", "<", ">",
+                "<sig:XMLSgntrs>", "</sig:XMLSgntrs>", "<sig:XMLSg", "\\r\\n", "\\\\n"};
+        Random random = new Random(7);
+        for (int run = 0; run < 5000; run++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                input.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String expected = regexSanitize(input.toString());
+
+            assertEquals(expected, XmlSanitizer.sanitize(input.toString()), input.toString());
+            StringWriter out = new StringWriter();
+            XmlSanitizer.sanitize(new ChunkedReader(input.toString(), random.nextInt(4) + 1), out);
+            assertEquals(expected, out.toString(), input.toString());
+        }
+    }
+
+    @Test
+    void testSanitize_streamingPreservesSignatureBlock() throws IOException {
+        String input = "  <A>x\\ny</A>\\n<sig:XMLSgntrs>abc\\nxyz</sig:XMLSgntrs>\\r\\n<B/>\n ";
+        StringWriter out = new StringWriter();
+
+        XmlSanitizer.sanitize(new StringReader(input), out);
+
+        assertEquals("<A>xy</A><sig:XMLSgntrs>abc\\nxyz</sig:XMLSgntrs><B/>", out.toString());
+    }
+
+    // The signature-placeholder and replace chain this class used before it became a single pass
+    private static String regexSanitize(String input) {
+        Pattern sigPattern = Pattern.compile("(<sig:XMLSgntrs>.*?</sig:XMLSgntrs>)", Pattern.DOTALL);
+        Matcher matcher = sigPattern.matcher(input);
+        String sigBlock = "";
+        if (matcher.find()) {
+            sigBlock = matcher.group(1);
+            input = matcher.replaceFirst("___SIG_PLACEHOLDER___");
+        }
+        if (input.contains("\\\\n") || input.contains("\\\\r") || input.contains("\\\"")) {
+            input = input.replace("\\\\n", "\n").replace("\\\\r", "\r").replace("\\\"", "\"");
+        }
+        String cleanedXml = input.replaceAll("\\\\r\\\\n", "").replaceAll("\\\\n", "").replaceAll("\\\\r", "");
+        if (!sigBlock.isEmpty()) {
+            cleanedXml = cleanedXml.replace("___SIG_PLACEHOLDER___", sigBlock);
+        }
+        return cleanedXml.trim();
+    }
+
+    private static final class ChunkedReader extends Reader {
+
+        private final String text;
+
+        private final int chunk;
+
+        private int position;
+
+        ChunkedReader(String text, int chunk) {
+            this.text = text;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, chunk), text.length() - position);
+            text.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
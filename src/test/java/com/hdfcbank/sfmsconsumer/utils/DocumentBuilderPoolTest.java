@@ -0,0 +1,53 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentBuilderPoolTest {
+
+    @Test
+    void testParse_reusesBuilders() throws Exception {
+        DocumentBuilderPool.parse(source("<a/>"), false);
+        long hits = DocumentBuilderPool.hits();
+
+        Document document = DocumentBuilderPool.parse(source("<RequestPayload><AppHdr/></RequestPayload>"), true);
+
+        assertEquals("RequestPayload", document.getDocumentElement().getLocalName());
+        assertTrue(DocumentBuilderPool.hits() > hits);
+        assertTrue(DocumentBuilderPool.idle() >= 1);
+    }
+
+    @Test
+    void testParse_namespaceAware() throws Exception {
+        Document document = DocumentBuilderPool.parse(
+                source("<RequestPayload xmlns=\"urn:iso:std:iso:20022:tech:xsd:head.001.001.02\"/>"), true);
+
+        assertEquals("urn:iso:std:iso:20022:tech:xsd:head.001.001.02", document.getDocumentElement().getNamespaceURI());
+    }
+
+    @Test
+    void testParse_externalEntityNotResolved() throws Exception {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE r [<!ENTITY xxe SYSTEM \"file:///etc/hostname\">]><r>&xxe;</r>";
+
+        Document document = DocumentBuilderPool.parse(source(xml), false);
+
+        assertEquals("", document.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    void testParse_malformed_throwsAndBuilderStillUsable() throws Exception {
+        assertThrows(SAXException.class, () -> DocumentBuilderPool.parse(source("<a><b></a>"), true));
+
+        assertNotNull(DocumentBuilderPool.parse(source("<a><b/></a>"), true));
+    }
+
+    private static InputSource source(String xml) {
+        return new InputSource(new StringReader(xml));
+    }
+}
@@ -0,0 +1,76 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private final List<String> keywords = List.of("pacs.008.001.09", "pacs.004.001.10", "PACS.002.001.11",
+            "camt.054.001.08", "admi.004.001.01", "admi.004.001.02", "pacs.00");
+
+    private final KeywordMatcher matcher = KeywordMatcher.of(keywords);
+
+    @Test
+    void testFirstKeywordIn_caseInsensitive() {
+        assertEquals(2, matcher.firstKeywordIn("<MsgDefIdr>pacs.002.001.11</MsgDefIdr>"));
+        assertEquals(0, matcher.firstKeywordIn("<MsgDefIdr>PACS.008.001.09</MsgDefIdr>"));
+    }
+
+    @Test
+    void testFirstKeywordIn_prefersConfigOrder() {
+        // "pacs.00" occurs too, but the full key comes first in the list
+        assertEquals(1, matcher.firstKeywordIn("x pacs.004.001.10 y"));
+        assertEquals(6, matcher.firstKeywordIn("pacs.005.001.01 pacs.001"));
+        assertEquals(4, matcher.firstKeywordIn("admi.004.001.02 then admi.004.001.01"));
+    }
+
+    @Test
+    void testFirstKeywordIn_noMatch() {
+        assertEquals(-1, matcher.firstKeywordIn("<Document><MsgDefIdr>camt.059.001.06</MsgDefIdr></Document>"));
+        assertEquals(-1, matcher.firstKeywordIn(""));
+        assertEquals(-1, KeywordMatcher.of(List.of()).firstKeywordIn("pacs.008.001.09"));
+    }
+
+    @Test
+    void testFirstKeywordIn_withoutCommonAnchor() {
+        KeywordMatcher mixed = KeywordMatcher.of(List.of("pacs.008.001.09", "ADMI", "", "camt"));
+
+        assertEquals(0, mixed.firstKeywordIn("x PACS.008.001.09 admi"));
+        assertEquals(1, mixed.firstKeywordIn("<admi>"));
+        assertEquals(2, mixed.firstKeywordIn("nothing else"));
+    }
+
+    @Test
+    void testFirstKeywordIn_sameAsContainsScan() {
+        assertSameAsContainsScan(keywords, matcher);
+        List<String> noAnchor = List.of("pacs.008", "admi004", "PACS00", "cs.0", "amt");
+        assertSameAsContainsScan(noAnchor, KeywordMatcher.of(noAnchor));
+    }
+
+    private static void assertSameAsContainsScan(List<String> keywords, KeywordMatcher matcher) {
+        Random random = new Random(42);
+        String alphabet = "pacsdmi.0124AP<>/ ";
+        for (int run = 0; run < 2000; run++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(80);
+            for (int i = 0; i < length; i++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (random.nextBoolean()) {
+                String keyword = keywords.get(random.nextInt(keywords.size()));
+                text.insert(random.nextInt(text.length() + 1), random.nextBoolean() ? keyword.toUpperCase() : keyword);
+            }
+            String lower = text.toString().toLowerCase();
+            int expected = IntStream.range(0, keywords.size())
+                    .filter(k -> lower.contains(keywords.get(k).toLowerCase()))
+                    .findFirst().orElse(-1);
+
+            assertEquals(expected, matcher.firstKeywordIn(text.toString()), text.toString());
+        }
+    }
+}
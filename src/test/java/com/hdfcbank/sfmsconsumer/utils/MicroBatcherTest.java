@@ -0,0 +1,162 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatcherTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Test
+    void testSubmit_groupsConcurrentItems() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 4, Duration.ofMillis(50), 1, batch -> {
+            batchSizes.add(batch.size());
+            batch.forEach(entry -> entry.success(entry.item() * 10));
+            return Mono.empty();
+        });
+
+        List<Integer> results = Flux.range(1, 8)
+                .flatMap(batcher::submit)
+                .collectList()
+                .block(WAIT);
+
+        assertEquals(8, results.size());
+        assertTrue(results.containsAll(List.of(10, 20, 30, 40, 50, 60, 70, 80)));
+        assertEquals(List.of(4, 4), batchSizes);
+    }
+
+    @Test
+    void testSubmit_lingerFlushesPartialGroup() {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 100, Duration.ofMillis(20), 1, batch -> {
+            batch.forEach(entry -> entry.success(entry.item()));
+            return Mono.empty();
+        });
+
+        assertEquals("one", batcher.submit("one").block(WAIT));
+    }
+
+    @Test
+    void testSubmit_cancelledEntryNotHandled() {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 100, Duration.ofMillis(200), 1, batch -> {
+            batch.forEach(entry -> {
+                handled.add(entry.item());
+                entry.success(entry.item());
+            });
+            return Mono.empty();
+        });
+
+        // A caller that times out and retries must not publish the first attempt as well
+        assertThrows(RuntimeException.class,
+                () -> batcher.submit("first").timeout(Duration.ofMillis(10)).block(WAIT));
+        assertEquals("second", batcher.submit("second").block(WAIT));
+
+        assertEquals(List.of("second"), handled);
+    }
+
+    @Test
+    void testSubmit_failedGroupErrorsItsEntriesOnly() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 1, Duration.ofMillis(10), 1, batch -> {
+            if (fail.getAndSet(false)) {
+                return Mono.error(new IllegalStateException("write failed"));
+            }
+            batch.forEach(entry -> entry.success(entry.item()));
+            return Mono.empty();
+        });
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> batcher.submit("a").block(WAIT));
+        assertEquals("write failed", ex.getMessage());
+        assertEquals("b", batcher.submit("b").block(WAIT));
+    }
+
+    @Test
+    void testSubmit_uncompletedEntryErrors() {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 1, Duration.ofMillis(10), 1,
+                batch -> Mono.empty());
+
+        assertThrows(IllegalStateException.class, () -> batcher.submit("a").block(WAIT));
+    }
+
+    @Test
+    void testSubmit_restartsAfterPipelineTerminates() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 1, Duration.ofMillis(10), 1, batch -> {
+            if (fail.getAndSet(false)) {
+                // Thrown rather than returned, so it terminates the pipeline instead of failing one group
+                throw new IllegalStateException("handler bug");
+            }
+            batch.forEach(entry -> entry.success(entry.item()));
+            return Mono.empty();
+        });
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> batcher.submit("a").block(WAIT));
+        assertEquals("test pipeline terminated", ex.getMessage());
+        assertEquals("b", batcher.submit("b").block(WAIT));
+    }
+
+    @Test
+    void testSubmit_saturatedInFlightQueuesInsteadOfOverflowing() {
+        int maxInFlight = 2;
+        int maxBatchSize = 5;
+        Sinks.Empty<Void> release = Sinks.empty();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", maxBatchSize, Duration.ofMillis(5),
+                maxInFlight, batch -> {
+            batchSizes.add(batch.size());
+            // Every group waits until released, so the first maxInFlight groups occupy every slot
+            return release.asMono().doOnSuccess(unused -> batch.forEach(entry -> entry.success(entry.item())));
+        });
+
+        int items = maxInFlight * maxBatchSize * 20;
+        Mono<List<Integer>> results = Flux.range(0, items)
+                .flatMap(batcher::submit, items)
+                .collectList()
+                .cache();
+        results.subscribe();
+
+        // Far longer than linger: a non-fair buffer would have failed with an overflow by now
+        assertThrows(IllegalStateException.class, () -> results.block(Duration.ofMillis(300)),
+                "Timeout on blocking read");
+        assertEquals(maxInFlight, batchSizes.size());
+
+        release.tryEmitEmpty();
+        assertEquals(items, results.block(WAIT).size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= maxBatchSize));
+
+        // Still accepting after the backlog cleared
+        assertEquals(7, batcher.submit(7).block(WAIT));
+    }
+
+    @Test
+    void testClose_flushesQueuedItems() {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", 100, Duration.ofMinutes(1), 1, batch -> {
+            batch.forEach(entry -> {
+                handled.add(entry.item());
+                entry.success(entry.item());
+            });
+            return Mono.empty();
+        });
+
+        Mono<String> pending = batcher.submit("queued").cache();
+        pending.subscribe();
+        batcher.close().block(WAIT);
+
+        assertEquals(List.of("queued"), handled);
+        assertEquals("queued", pending.block(WAIT));
+        assertThrows(IllegalStateException.class, () -> batcher.submit("late").block(WAIT));
+    }
+}
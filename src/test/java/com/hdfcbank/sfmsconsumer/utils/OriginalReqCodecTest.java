@@ -0,0 +1,78 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.OriginalReqStorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OriginalReqCodecTest {
+
+    private OriginalReqStorageProperties properties;
+
+    private SimpleMeterRegistry registry;
+
+    private OriginalReqCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OriginalReqStorageProperties();
+        properties.setCompressed(true);
+        properties.setMinCompressSize(64);
+        registry = new SimpleMeterRegistry();
+        codec = new OriginalReqCodec(properties, registry);
+    }
+
+    @Test
+    void testEncode_largePayload_lz4RoundTrip() {
+        String xml = "{A:CBS}<RequestPayload>" + "<CdtTrfTxInf><Amt>100.00</Amt><Nm>Ünïcode ₹</Nm></CdtTrfTxInf>".repeat(200)
+                + "</RequestPayload>";
+
+        byte[] stored = codec.encode(xml).block();
+
+        assertEquals(OriginalReqCodec.LZ4, stored[0]);
+        assertTrue(stored.length < xml.getBytes(StandardCharsets.UTF_8).length / 5);
+        assertEquals(xml, OriginalReqCodec.decode(stored));
+        assertEquals(1, registry.get("sfms.original.req.compress").timer().count());
+        assertTrue(registry.get("sfms.original.req.compression.ratio").summary().max() > 5);
+    }
+
+    @Test
+    void testEncode_shortPayload_storedRaw() {
+        byte[] stored = codec.encode("<a/>").block();
+
+        assertEquals(OriginalReqCodec.RAW, stored[0]);
+        assertEquals("<a/>", OriginalReqCodec.decode(stored));
+    }
+
+    @Test
+    void testEncode_nullPayload_empty() {
+        assertNull(codec.encode(null).block());
+    }
+
+    @Test
+    void testRead_prefersTextColumn() {
+        assertEquals("<old/>", OriginalReqCodec.read("<old/>", null));
+        assertEquals("<new/>", OriginalReqCodec.read(null, new byte[]{OriginalReqCodec.RAW, '<', 'n', 'e', 'w', '/', '>'}));
+        assertNull(OriginalReqCodec.read(null, null));
+    }
+
+    @Test
+    void testDecode_unknownMarker_throws() {
+        assertThrows(IllegalArgumentException.class, () -> OriginalReqCodec.decode(new byte[]{9, 1, 2}));
+    }
+
+    @Test
+    void testSql_addsBinColumnOnlyWhenCompressed() {
+        String sql = "INSERT INTO t (msg_id, original_req, original_req_count) VALUES (:msg_id, :original_req, :original_req_count)";
+
+        assertEquals("INSERT INTO t (msg_id, original_req, original_req_bin, original_req_count) "
+                + "VALUES (:msg_id, :original_req, :original_req_bin, :original_req_count)", codec.sql(sql));
+
+        properties.setCompressed(false);
+        assertEquals(sql, codec.sql(sql));
+    }
+}
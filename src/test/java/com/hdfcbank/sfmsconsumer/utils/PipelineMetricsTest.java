@@ -0,0 +1,104 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.TargetProcessorTopicConfig;
+import com.hdfcbank.sfmsconsumer.model.AuditStatus;
+import com.hdfcbank.sfmsconsumer.utils.PipelineMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> processors = new LinkedHashMap<>();
+        processors.put("pacs.008.001.09", "pacs008Processor");
+        processors.put("admi.004.001.02", "admi004Processor");
+        TargetProcessorTopicConfig config = new TargetProcessorTopicConfig();
+        config.setProcessor(processors);
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics(registry, config);
+    }
+
+    @Test
+    void testTime_tagsMsgTypeTargetAndValueOutcome() {
+        AuditStatus status = metrics.time(Stage.AUDIT, " pacs.008.001.09 ", Mono.just(AuditStatus.DUPLICATE),
+                AuditStatus::name).block();
+
+        assertEquals(AuditStatus.DUPLICATE, status);
+        assertEquals(1, timer("audit", "pacs.008.001.09", "pacs008Processor", "DUPLICATE").count());
+    }
+
+    @Test
+    void testTime_emptyIsSuccessAndErrorIsError() {
+        metrics.time(Stage.PUBLISH, "admi.004.001.02", Mono.empty()).block();
+        assertThrows(IllegalStateException.class, () -> metrics.time(Stage.PUBLISH, "admi.004.001.02",
+                Mono.error(new IllegalStateException("sidecar down"))).block());
+
+        assertEquals(1, timer("publish", "admi.004.001.02", "admi004Processor", PipelineMetrics.SUCCESS).count());
+        assertEquals(1, timer("publish", "admi.004.001.02", "admi004Processor", PipelineMetrics.ERROR).count());
+    }
+
+    @Test
+    void testTime_recordsOnSubscriptionOnly() {
+        Mono<String> timed = metrics.time(Stage.PUBLISH, "pacs.008.001.09", Mono.just("ok"));
+
+        assertTrue(registry.find(PipelineMetrics.STAGE_TIMER).timers().isEmpty());
+        timed.block();
+        timed.block();
+        assertEquals(2, timer("publish", "pacs.008.001.09", "pacs008Processor", PipelineMetrics.SUCCESS).count());
+    }
+
+    @Test
+    void testRecord_rethrowsAndCountsError() {
+        assertEquals("clean", metrics.record(Stage.SANITIZE, "pacs.008.001.09", () -> "clean"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.record(Stage.SANITIZE, "pacs.008.001.09",
+                (Runnable) () -> {
+                    throw new IllegalArgumentException("bad");
+                }));
+
+        assertEquals(1, timer("sanitize", "pacs.008.001.09", "pacs008Processor", PipelineMetrics.SUCCESS).count());
+        assertEquals(1, timer("sanitize", "pacs.008.001.09", "pacs008Processor", PipelineMetrics.ERROR).count());
+    }
+
+    @Test
+    void testRecord_outcomeOfReturnedValue() {
+        // A stage that reports failure by returning null, as BuildJsonReq does
+        assertNull(metrics.record(Stage.BUILD_JSON, "pacs.008.001.09", () -> null,
+                json -> json != null ? PipelineMetrics.SUCCESS : PipelineMetrics.ERROR));
+        metrics.record(Stage.BUILD_JSON, "pacs.008.001.09", () -> "{}",
+                json -> json != null ? PipelineMetrics.SUCCESS : PipelineMetrics.ERROR);
+
+        assertEquals(1, timer("build_json", "pacs.008.001.09", "pacs008Processor", PipelineMetrics.ERROR).count());
+        assertEquals(1, timer("build_json", "pacs.008.001.09", "pacs008Processor", PipelineMetrics.SUCCESS).count());
+    }
+
+    @Test
+    void testTimer_unmappedMsgTypesShareOneSeries() {
+        for (int i = 0; i < 50; i++) {
+            metrics.record(Stage.VALIDATE, "junk." + i, () -> null);
+        }
+        metrics.record(Stage.VALIDATE, null, () -> null);
+
+        assertEquals(50, timer("validate", PipelineMetrics.OTHER, PipelineMetrics.NONE, PipelineMetrics.SUCCESS).count());
+        assertEquals(1, timer("validate", PipelineMetrics.UNKNOWN, PipelineMetrics.NONE, PipelineMetrics.SUCCESS).count());
+        assertEquals(2, registry.find(PipelineMetrics.STAGE_TIMER).timers().size());
+    }
+
+    private Timer timer(String stage, String msgType, String target, String outcome) {
+        return registry.get(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", stage, "msg.type", msgType, "target", target, "outcome", outcome)
+                .timer();
+    }
+}
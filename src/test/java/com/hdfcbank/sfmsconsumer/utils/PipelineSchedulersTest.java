@@ -0,0 +1,110 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.hdfcbank.sfmsconsumer.config.PipelineSchedulerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineSchedulersTest {
+
+    private PipelineSchedulers schedulers;
+
+    @AfterEach
+    void tearDown() {
+        if (schedulers != null) {
+            schedulers.destroy();
+        }
+    }
+
+    @Test
+    void testDefaults_runOnCallingThread() {
+        schedulers = new PipelineSchedulers(new PipelineSchedulerProperties());
+
+        assertSame(Schedulers.immediate(), schedulers.parsing());
+        assertSame(Schedulers.immediate(), schedulers.publish());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        schedulers.bindTo(registry);
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    void testParsing_rejectsWhenQueueFull() throws Exception {
+        PipelineSchedulerProperties properties = new PipelineSchedulerProperties();
+        properties.getParsing().setEnabled(true);
+        properties.getParsing().setThreads(1);
+        properties.getParsing().setQueueCapacity(1);
+        schedulers = new PipelineSchedulers(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        schedulers.bindTo(registry);
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mono.fromRunnable(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        }).subscribeOn(schedulers.parsing()).subscribe();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Mono<String> queued = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(schedulers.parsing()).cache();
+        queued.subscribe();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> Mono.just("late").subscribeOn(schedulers.parsing()).block(Duration.ofSeconds(5)));
+        assertEquals(1, registry.get("sfms.pipeline.parsing.queued").gauge().value());
+        assertEquals(1, registry.get("sfms.pipeline.parsing.active").gauge().value());
+        assertEquals(1, registry.get("sfms.pipeline.parsing.rejected").functionCounter().count());
+
+        release.countDown();
+        assertTrue(queued.block(Duration.ofSeconds(5)).startsWith("sfms-parse-"));
+    }
+
+    @Test
+    void testRetryAfterSeconds_roundsUpToAtLeastOne() {
+        PipelineSchedulerProperties properties = new PipelineSchedulerProperties();
+        schedulers = new PipelineSchedulers(properties);
+
+        properties.setRetryAfter(Duration.ofMillis(1500));
+        assertEquals(2, schedulers.retryAfterSeconds());
+        properties.setRetryAfter(Duration.ZERO);
+        assertEquals(1, schedulers.retryAfterSeconds());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testRetryAfterSeconds_fallsBackToParsingSetting() {
+        PipelineSchedulerProperties properties = new PipelineSchedulerProperties();
+        schedulers = new PipelineSchedulers(properties);
+
+        assertEquals(1, schedulers.retryAfterSeconds());
+        properties.getParsing().setRetryAfter(Duration.ofSeconds(3));
+        assertEquals(3, schedulers.retryAfterSeconds());
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        assertEquals(2, schedulers.retryAfterSeconds());
+    }
+
+    @Test
+    void testPublish_boundedElastic() {
+        PipelineSchedulerProperties properties = new PipelineSchedulerProperties();
+        properties.getPublish().setExecutor(PipelineSchedulerProperties.Publish.Executor.BOUNDED_ELASTIC);
+        schedulers = new PipelineSchedulers(properties);
+
+        assertSame(Schedulers.boundedElastic(), schedulers.publish());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
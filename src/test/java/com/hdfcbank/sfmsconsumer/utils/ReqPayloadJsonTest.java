@@ -0,0 +1,45 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hdfcbank.sfmsconsumer.model.Body;
+import com.hdfcbank.sfmsconsumer.model.ExceptionDetail;
+import com.hdfcbank.sfmsconsumer.model.Header;
+import com.hdfcbank.sfmsconsumer.model.ReqPayload;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReqPayloadJsonTest {
+
+    private final ReqPayload reqPayload = ReqPayload.builder()
+            .header(Header.builder().msgId("RBIP20250911003").msgType("pacs.008.001.09").source("SFMS")
+                    .target("pacs008Processor").flowType("INWARD").replayCount(0).prefix("{A:CBS}")
+                    .batchId("BATCH001").status("CAPTURED").build())
+            .body(Body.builder().payload("<RequestPayload>\"quoted\"</RequestPayload>").build())
+            .exceptionDetail(ExceptionDetail.builder().exceptionType("JSON_PROCESSING_ERROR").build())
+            .build();
+
+    @Test
+    void testWrite_sameAsDefaultMapper() throws Exception {
+        assertEquals(new ObjectMapper().writeValueAsString(reqPayload), ReqPayloadJson.write(reqPayload));
+    }
+
+    @Test
+    void testWrite_compactAndReadable() throws Exception {
+        String json = ReqPayloadJson.write(reqPayload);
+
+        assertFalse(json.contains("\n"));
+        assertEquals("RBIP20250911003", new ObjectMapper().readTree(json).path("header").path("msgId").asText());
+    }
+
+    @Test
+    void testWriteUtf8_sameBytesAsWrite() throws Exception {
+        // Second call reuses the pooled buffer and must not carry over the first message
+        ReqPayloadJson.writeUtf8(reqPayload);
+        byte[] json = ReqPayloadJson.writeUtf8(reqPayload);
+
+        assertArrayEquals(ReqPayloadJson.write(reqPayload).getBytes(StandardCharsets.UTF_8), json);
+    }
+}
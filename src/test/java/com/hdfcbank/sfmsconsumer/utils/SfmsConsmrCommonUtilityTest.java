@@ -7,6 +7,7 @@ import org.w3c.dom.Document;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathExpressionException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,4 +66,60 @@ class SfmsConsmrCommonUtilityTest {
                 utility.getValueByXPath(doc, "//*invalid_xpath###")
         );
     }
+
+    @Test
+    void testGetValueByXPath_repeatedCalls_reuseCompiledExpression() throws Exception {
+        Document first = loadXml("<RequestPayload><AppHdr><BizMsgIdr>FIRST</BizMsgIdr></AppHdr></RequestPayload>");
+        Document second = loadXml("<RequestPayload><AppHdr><BizMsgIdr>SECOND</BizMsgIdr></AppHdr></RequestPayload>");
+
+        assertEquals("FIRST", utility.getValueByXPath(first, "//*[local-name()='BizMsgIdr']"));
+        assertEquals("SECOND", utility.getValueByXPath(second, "//*[local-name()='BizMsgIdr']"));
+    }
+
+    @Test
+    void testPrecompile_invalidXPath_failsFast() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+                utility.precompile(List.of("//*[local-name()='BizMsgIdr']", "//*invalid_xpath###"))
+        );
+        assertTrue(ex.getMessage().contains("//*invalid_xpath###"));
+    }
+
+    @Test
+    void testExtractFallbackFields_allFields() {
+        String xml = "{A:CBS}<RequestPayload><AppHdr><BizMsgIdr>RBIP12345</BizMsgIdr><MsgDefIdr>pacs.008.001.09</MsgDefIdr>"
+                + "</AppHdr><Document><RmtInf><Ustrd>BATCH001</Ustrd></RmtInf><Unclosed></Document>";
+
+        SfmsConsmrCommonUtility.FallbackFields fields = utility.extractFallbackFields(xml);
+
+        assertEquals("RBIP12345", fields.msgId());
+        assertEquals("pacs.008.001.09", fields.msgType());
+        assertEquals("BATCH001", fields.batchId());
+    }
+
+    @Test
+    void testExtractFallbackFields_missingFields() {
+        SfmsConsmrCommonUtility.FallbackFields fields = utility.extractFallbackFields("<RequestPayload><AppHdr>");
+
+        assertNull(fields.msgId());
+        assertNull(fields.msgType());
+        assertEquals("", fields.batchId());
+    }
+
+    @Test
+    void testExtractFallbackFields_sameAsSinglePatterns() {
+        List<String> payloads = List.of(
+                "< bizmsgidr >ID1</ BIZMSGIDR ><msgdefidr>camt.054.001.08</MsgDefIdr><AddtlInf>B1</AddtlInf>",
+                "<Ustrd>outer <BizMsgIdr>ID2</BizMsgIdr></Ustrd><MsgDefIdr>pacs.002.001.11</MsgDefIdr>",
+                "<ustrd>lower</ustrd><Ustrd>B2</Ustrd><AddtlInf>B3</AddtlInf><BizMsgIdr>ID3</BizMsgIdr><BizMsgIdr>ID4</BizMsgIdr>",
+                "<MsgDefIdr>pacs.008.001.09<BizMsgIdr>ID5</BizMsgIdr></MsgDefIdr><Ustrd>open",
+                "<BizMsgIdr>multi\nline</BizMsgIdr>< MsgDefIdr>admi.004.001.02</MsgDefIdr ><Ustrd></Ustrd>",
+                "");
+
+        for (String xml : payloads) {
+            SfmsConsmrCommonUtility.FallbackFields fields = utility.extractFallbackFields(xml);
+            assertEquals(utility.getMsgId(xml), fields.msgId(), xml);
+            assertEquals(utility.getMsgType(xml), fields.msgType(), xml);
+            assertEquals(utility.extractBatchIdValue(xml), fields.batchId(), xml);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.hdfcbank.sfmsconsumer.utils;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPathPoolTest {
+
+    private static final String BIZ_MSG_IDR = "//*[local-name()='BizMsgIdr']";
+
+    @Test
+    void testPrecompile_fillsPool() {
+        XPathPool.precompile(List.of(BIZ_MSG_IDR));
+
+        assertEquals(XPathPool.CAPACITY, XPathPool.idle());
+    }
+
+    @Test
+    void testEvaluate_sharedAcrossShortLivedThreads() throws Exception {
+        XPathPool.precompile(List.of(BIZ_MSG_IDR));
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String msgId = "RBIP" + i;
+                Document document = SfmsConsmrCommonUtility.toXmlDocument(
+                        "<RequestPayload><AppHdr><BizMsgIdr>" + msgId + "</BizMsgIdr></AppHdr></RequestPayload>");
+                results.add(executor.submit(() -> XPathPool.evaluate(document, BIZ_MSG_IDR)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("RBIP" + i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(XPathPool.idle() <= XPathPool.CAPACITY);
+    }
+}